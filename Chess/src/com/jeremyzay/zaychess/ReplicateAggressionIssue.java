@@ -7,7 +7,6 @@ import com.jeremyzay.zaychess.model.move.MoveGenerator;
 import com.jeremyzay.zaychess.model.move.MoveType;
 import com.jeremyzay.zaychess.model.pieces.*;
 import com.jeremyzay.zaychess.model.util.PlayerColor;
-import com.jeremyzay.zaychess.model.util.Position;
 import com.jeremyzay.zaychess.services.application.notation.NotationFEN;
 import com.jeremyzay.zaychess.services.infrastructure.engine.SerendipityEngineService;
 import java.util.List;
@@ -27,13 +26,13 @@ public class ReplicateAggressionIssue {
             for (int f = 0; f < 8; f++)
                 b.setPieceAt(r, f, null);
 
-        b.setPieceAt(4, 4, new Pawn(PlayerColor.BLACK, new Position(4, 4))); // e4
-        b.setPieceAt(5, 5, new Queen(PlayerColor.WHITE, new Position(5, 5))); // f3
+        b.setPieceAt(4, 4, Piece.of(PlayerColor.BLACK, PieceType.PAWN)); // e4
+        b.setPieceAt(5, 5, Piece.of(PlayerColor.WHITE, PieceType.QUEEN)); // f3
 
         // Add kings to avoid illegal state if needed (though MoveGenerator might not
         // care for pseudo-legal)
-        b.setPieceAt(0, 4, new King(PlayerColor.BLACK, new Position(0, 4)));
-        b.setPieceAt(7, 4, new King(PlayerColor.WHITE, new Position(7, 4)));
+        b.setPieceAt(0, 4, Piece.of(PlayerColor.BLACK, PieceType.KING));
+        b.setPieceAt(7, 4, Piece.of(PlayerColor.WHITE, PieceType.KING));
 
         if (gs.getTurn() == PlayerColor.WHITE)
             gs.changeTurn();
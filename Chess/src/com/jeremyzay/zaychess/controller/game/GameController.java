@@ -1,6 +1,8 @@
 package com.jeremyzay.zaychess.controller.game;
 
+import com.jeremyzay.zaychess.controller.saveload.AutosaveJournal;
 import com.jeremyzay.zaychess.model.game.GameState;
+import com.jeremyzay.zaychess.model.game.UndoRecord;
 import com.jeremyzay.zaychess.model.move.Move;
 import com.jeremyzay.zaychess.model.move.MoveGenerator;
 import com.jeremyzay.zaychess.model.move.MoveType;
@@ -13,8 +15,9 @@ import com.jeremyzay.zaychess.services.infrastructure.engine.SerendipityEngineSe
 import com.jeremyzay.zaychess.services.infrastructure.network.MoveCodec;
 import com.jeremyzay.zaychess.services.infrastructure.network.MoveMessage;
 import com.jeremyzay.zaychess.services.infrastructure.network.NetworkTransport;
-import com.jeremyzay.zaychess.services.application.history.MoveHistoryInMemory;
+import com.jeremyzay.zaychess.services.application.history.MoveHistoryDelta;
 import com.jeremyzay.zaychess.services.application.history.MoveHistoryService;
+import com.jeremyzay.zaychess.services.application.history.MoveHistoryTree;
 import com.jeremyzay.zaychess.services.application.notation.NotationFEN;
 import com.jeremyzay.zaychess.services.application.notation.NotationSAN;
 import com.jeremyzay.zaychess.view.gui.BoardPanel;
@@ -25,6 +28,7 @@ import com.jeremyzay.zaychess.view.gui.ChessPanel;
 import javax.swing.JOptionPane;
 import javax.swing.SwingUtilities;
 import java.awt.Color;
+import java.io.IOException;
 
 import java.util.*;
 
@@ -52,6 +56,9 @@ public class GameController implements NetworkTransport.Listener {
 	public List<String> moveLog = new ArrayList<>();
 	private final List<Piece> captureLog = new ArrayList<>(); // parallel capture history for undo
 	private final List<String> wireLog = new ArrayList<>();
+	// move list lines and captures of the moves that can be redone, next redo last
+	private final List<String> redoMoveLog = new ArrayList<>();
+	private final List<Piece> redoCaptureLog = new ArrayList<>();
 	private final MoveHistoryService history;
 	private NetworkTransport transport; // optional network dependency
 	private volatile boolean networkReady = true; // offline defaults to true
@@ -61,6 +68,7 @@ public class GameController implements NetworkTransport.Listener {
 	private com.jeremyzay.zaychess.view.gui.GameOverDialog activeGameOverDialog;
 	private boolean localRematchRequested = false;
 	private boolean peerRematchRequested = false;
+	private AutosaveJournal journal; // optional crash-recovery journal
 
 	public void setSuppressDialogs(boolean suppress) {
 		this.suppressDialogs = suppress;
@@ -74,12 +82,12 @@ public class GameController implements NetworkTransport.Listener {
 	private int engineDifficulty = 3; // Default Level 5
 
 	/**
-	 * Create a controller with in-memory move history and no network.
+	 * Create a controller with delta-based move history and no network.
 	 *
 	 * @param gameState the mutable game state this controller operates on
 	 */
 	public GameController(GameState gameState) throws Exception {
-		this(gameState, new MoveHistoryInMemory());
+		this(gameState, new MoveHistoryDelta());
 	}
 
 	/**
@@ -92,7 +100,7 @@ public class GameController implements NetworkTransport.Listener {
 	 */
 	public GameController(GameState gameState, MoveHistoryService history) throws Exception {
 		this.gameState = gameState;
-		this.history = Objects.requireNonNullElseGet(history, MoveHistoryInMemory::new);
+		this.history = Objects.requireNonNullElseGet(history, MoveHistoryDelta::new);
 	}
 
 	// ──────────────────────────────────────────────────────────────────────────────
@@ -138,6 +146,28 @@ public class GameController implements NetworkTransport.Listener {
 		return history;
 	}
 
+	/**
+	 * Sets the journal that records every move, undo and restart of this
+	 * game so it can be recovered after a crash. A previous journal is
+	 * closed and deleted.
+	 *
+	 * @param journal the new journal, or null to stop journaling
+	 */
+	public void setJournal(AutosaveJournal journal) {
+		if (this.journal != null && this.journal != journal) {
+			try {
+				this.journal.finish();
+			} catch (IOException e) {
+				e.printStackTrace();
+			}
+		}
+		this.journal = journal;
+	}
+
+	public AutosaveJournal getJournal() {
+		return journal;
+	}
+
 	public void stopEngine() {
 		if (this.engine != null) {
 			try {
@@ -742,29 +772,22 @@ public class GameController implements NetworkTransport.Listener {
 	 * @param broadcast whether to send the move to the peer (if online)
 	 */
 	private void applyMoveAndNotify(Move m, boolean broadcast) {
-		GameState snap = gameState.snapshot();
 		String san = NotationSAN.toSAN(gameState, m);
 
-		// record history & logs
-		history.record(gameState, m, snap);
+		// apply, then record history & logs from the move's undo record
+		UndoRecord undo = gameState.makeMove(m);
+		history.recordApplied(gameState, undo);
+		clearRedoLog();
+		if (journal != null)
+			journal.recordMove(history.getPly() - 1, m);
 		wireLog.add(encodeWire(m));
 		String line = san;
 		dispatchMoveInfo(line);
 
-		// detect capture before applying
-		Piece capturedPiece = null;
-		if (m.getMoveType() == MoveType.EN_PASSANT) {
-			// en passant: captured pawn is adjacent, not on destination
-			int epRank = m.getToPos().getRank();
-			int epFile = m.getToPos().getFile();
-			PlayerColor moverColor = gameState.getPieceColorAt(m.getFromPos());
-			int capturedRank = (moverColor == PlayerColor.WHITE) ? epRank + 1 : epRank - 1;
-			capturedPiece = gameState.getPieceAt(capturedRank, epFile);
-		} else {
-			capturedPiece = gameState.getPieceAt(m.getToPos());
-		}
+		// the record holds the captured piece, including en passant pawns
+		Piece capturedPiece = undo.getCaptured();
 
-		// apply & UI
+		// UI
 		if (m.getMoveType() == com.jeremyzay.zaychess.model.move.MoveType.CASTLE) {
 			com.jeremyzay.zaychess.services.infrastructure.audio.SoundService
 					.play(com.jeremyzay.zaychess.services.infrastructure.audio.SoundService.SFX.CASTLE);
@@ -778,7 +801,6 @@ public class GameController implements NetworkTransport.Listener {
 			com.jeremyzay.zaychess.services.infrastructure.audio.SoundService
 					.play(com.jeremyzay.zaychess.services.infrastructure.audio.SoundService.SFX.MOVE);
 		}
-		gameState.applyMove(m);
 
 		// update captured pieces panel
 		recordCapture(capturedPiece);
@@ -813,6 +835,26 @@ public class GameController implements NetworkTransport.Listener {
 		}
 	}
 
+	/**
+	 * Records the captures of several moves at once, e.g. after loading a
+	 * game, repainting the captured pieces panel only once.
+	 *
+	 * @param capturedPieces piece captured by each move, or null
+	 */
+	public void recordCaptures(List<Piece> capturedPieces) {
+		captureLog.addAll(capturedPieces);
+		ChessPanel.getCapturedPiecesPanel().addCapturedPieces(capturedPieces);
+	}
+
+	/**
+	 * Drops the move list lines and captures kept for moves that can be
+	 * redone. Call whenever the history drops its redo moves.
+	 */
+	public void clearRedoLog() {
+		redoMoveLog.clear();
+		redoCaptureLog.clear();
+	}
+
 	// ──────────────────────────────────────────────────────────────────────────────
 	// Post-move UI
 	// ──────────────────────────────────────────────────────────────────────────────
@@ -927,10 +969,14 @@ public class GameController implements NetworkTransport.Listener {
 
 		// Clear history/logs
 		history.clear();
+		if (journal != null)
+			journal.recordReset();
 		wireLog.clear();
 		com.jeremyzay.zaychess.view.gui.ChessPanel.getMoveListPanel().clearMoves();
 		com.jeremyzay.zaychess.view.gui.ChessPanel.getCapturedPiecesPanel().clear();
+		moveLog.clear();
 		captureLog.clear();
+		clearRedoLog();
 
 		// RE-ATTACH Network if we were online
 		if (wasOnline && savedTransport != null) {
@@ -1081,6 +1127,17 @@ public class GameController implements NetworkTransport.Listener {
 		moveLog.add(info);
 	}
 
+	/**
+	 * Appends several move list lines with a single update of the move
+	 * list, e.g. after loading a game.
+	 *
+	 * @param infos lines to append, in order
+	 */
+	public void dispatchMoveInfos(List<String> infos) {
+		ChessPanel.getMoveListPanel().appendMoves(infos);
+		moveLog.addAll(infos);
+	}
+
 	/**
 	 * Undoes the last move if available, restores the board/UI accordingly,
 	 * and removes the last line from the move list.
@@ -1112,28 +1169,29 @@ public class GameController implements NetworkTransport.Listener {
 			// Standard undo for non-AI games
 			undoSingleMove();
 		}
+		if (journal != null)
+			journal.recordPly(history.getPly());
 	}
 
 	/** Helper: undoes a single move and updates UI */
 	private void undoSingleMove() {
-		history.undo(gameState); // restores snapshot
+		history.undo(gameState); // takes the move back
 		if (boardPanel != null) {
 			boardPanel.clearHighlights(com.jeremyzay.zaychess.view.gui.theme.HighlightType.CHECKMATE);
 			boardPanel.updateBoard(gameState.getBoard());
 		}
 		updatePostMoveUi();
 
-		// remove last line from the move list
-		if (!moveLog.isEmpty()) {
+		// move the last line of the move list and the last capture to the redo log
+		if (!moveLog.isEmpty() && !captureLog.isEmpty()) {
 			String last = moveLog.remove(moveLog.size() - 1);
 			ChessPanel.getMoveListPanel().removeMove(moveLog, last);
-		}
-		// remove last capture
-		if (!captureLog.isEmpty()) {
 			Piece undone = captureLog.remove(captureLog.size() - 1);
 			if (undone != null) {
 				ChessPanel.getCapturedPiecesPanel().undoCapture(undone);
 			}
+			redoMoveLog.add(last);
+			redoCaptureLog.add(undone);
 		}
 	}
 
@@ -1174,13 +1232,37 @@ public class GameController implements NetworkTransport.Listener {
 			// Standard redo for non-AI games
 			redoSingleMove();
 		}
+		if (journal != null)
+			journal.recordPly(history.getPly());
 	}
 
 	/** Helper: redoes a single move and updates UI */
 	private void redoSingleMove() {
+		if (!redoMoveAndLog())
+			return;
+		if (boardPanel != null)
+			boardPanel.updateBoard(gameState.getBoard());
+		updatePostMoveUi();
+	}
+
+	/**
+	 * Helper: redoes a single move and updates the move list and captures,
+	 * but not the board.
+	 *
+	 * @return false if there was no move to redo
+	 */
+	private boolean redoMoveAndLog() {
 		Move redoMove = history.peekRedoMove();
 		if (redoMove == null)
-			return;
+			return false;
+
+		if (!redoMoveLog.isEmpty()) {
+			// line and capture kept when the move was undone
+			history.redo(gameState);
+			recordCapture(redoCaptureLog.remove(redoCaptureLog.size() - 1));
+			dispatchMoveInfo(redoMoveLog.remove(redoMoveLog.size() - 1));
+			return true;
+		}
 
 		// Detect capture before redoing (same logic as applyMoveAndNotify)
 		Piece capturedPiece = null;
@@ -1205,12 +1287,124 @@ public class GameController implements NetworkTransport.Listener {
 			ChessPanel.getCapturedPiecesPanel().addCapturedPiece(capturedPiece);
 		}
 
-		if (boardPanel != null)
+		String line = san;
+		dispatchMoveInfo(line);
+		return true;
+	}
+
+	/**
+	 * Jumps to the position after {@code ply} moves of the recorded game,
+	 * e.g. when scrubbing through the move list. Later moves stay available
+	 * to redo. Both directions go through {@link MoveHistoryService#seekToPly}
+	 * and update the move list once: backward jumps move the dropped lines
+	 * and captures to the redo log, and forward jumps take them back from it.
+	 * The board is redrawn once at the end.
+	 *
+	 * @param ply target number of moves played, clamped to the recorded game
+	 */
+	public void seekToPly(int ply) {
+		int current = history.getPly();
+		ply = Math.max(0, ply);
+		if (ply == current)
+			return;
+
+		// Invalidate any pending AI move computation
+		engineMoveVersion++;
+
+		if (ply < current) {
+			history.seekToPly(gameState, ply);
+			while (moveLog.size() > ply && !captureLog.isEmpty()) {
+				redoMoveLog.add(moveLog.remove(moveLog.size() - 1));
+				Piece undone = captureLog.remove(captureLog.size() - 1);
+				redoCaptureLog.add(undone);
+				if (undone != null)
+					ChessPanel.getCapturedPiecesPanel().undoCapture(undone);
+			}
+			ChessPanel.getMoveListPanel().clearMoves();
+			ChessPanel.getMoveListPanel().appendMoves(moveLog);
+		} else {
+			int kept = Math.min(ply - current, redoMoveLog.size());
+			history.seekToPly(gameState, current + kept);
+			List<String> lines = new ArrayList<>(kept);
+			List<Piece> captures = new ArrayList<>(kept);
+			for (int i = 0; i < kept; i++) {
+				lines.add(redoMoveLog.remove(redoMoveLog.size() - 1));
+				captures.add(redoCaptureLog.remove(redoCaptureLog.size() - 1));
+			}
+			dispatchMoveInfos(lines);
+			recordCaptures(captures);
+			while (history.getPly() < ply && redoMoveAndLog()) {
+				// no kept lines, e.g. history recorded elsewhere: replay the rest
+			}
+		}
+
+		if (boardPanel != null) {
+			boardPanel.clearHighlights(com.jeremyzay.zaychess.view.gui.theme.HighlightType.CHECKMATE);
 			boardPanel.updateBoard(gameState.getBoard());
+		}
 		updatePostMoveUi();
+		syncEngineAfterUndo();
+		if (journal != null)
+			journal.recordPly(history.getPly());
+	}
 
-		String line = san;
-		dispatchMoveInfo(line);
+	/**
+	 * Makes the next variation recorded from the current position the one
+	 * that redo plays, cycling through them in the order they were first
+	 * played, and shows its move in the status bar. Only a
+	 * {@link MoveHistoryTree} keeps variations.
+	 *
+	 * @return false if there is no other variation to switch to
+	 */
+	public boolean nextVariation() {
+		if (!(history instanceof MoveHistoryTree tree))
+			return false;
+		MoveHistoryTree.Node node = tree.getCurrentNode();
+		List<MoveHistoryTree.Node> variations = node.getChildren();
+		if (variations.size() < 2)
+			return false;
+
+		int next = (variations.indexOf(node.getActiveChild()) + 1) % variations.size();
+		MoveHistoryTree.Node variation = variations.get(next);
+		tree.selectVariation(variation);
+		clearRedoLog(); // the kept lines belong to the previous variation
+		journalActiveLine(variation);
+		if (journal != null)
+			journal.recordPly(history.getPly());
+		ChessPanel.getStatusPanel().setStatus("Next: " + NotationSAN.toSAN(gameState, variation.getMove())
+				+ " (variation " + (next + 1) + " of " + variations.size() + ")");
+		return true;
+	}
+
+	/**
+	 * Jumps to any position of the variation tree, e.g. a side line picked
+	 * by the user. Steps back along the current line to where it meets the
+	 * target's line with {@link #seekToPly(int)}, then forward along the
+	 * target's line, so the cost is the distance between the positions.
+	 *
+	 * @param target a node of the controller's {@link MoveHistoryTree}
+	 * @throws IllegalStateException if the history keeps no variations
+	 */
+	public void goToNode(MoveHistoryTree.Node target) {
+		if (!(history instanceof MoveHistoryTree tree))
+			throw new IllegalStateException("History keeps no variations");
+		seekToPly(tree.commonAncestor(target).getPly());
+		if (tree.selectLine(target)) {
+			clearRedoLog(); // the kept lines belong to the previous line
+			journalActiveLine(tree.getCurrentNode().getActiveChild());
+		}
+		seekToPly(target.getPly());
+	}
+
+	/**
+	 * Journals the moves of the active line from {@code first} on, so that
+	 * a recovered game redoes the selected variation.
+	 */
+	private void journalActiveLine(MoveHistoryTree.Node first) {
+		if (journal == null)
+			return;
+		for (MoveHistoryTree.Node n = first; n != null; n = n.getActiveChild())
+			journal.recordMove(n.getPly() - 1, n.getMove());
 	}
 
 	/**
@@ -1244,6 +1438,8 @@ public class GameController implements NetworkTransport.Listener {
 	// Call from MainMenuFrame after launching board
 	public void startEngineGame(PlayerColor you) {
 		setLocalSide(you);
+		if (journal != null)
+			journal.recordEngineGame(you, engineDifficulty);
 		try {
 			if (engine != null)
 				engine.newGame();
@@ -1306,7 +1502,7 @@ public class GameController implements NetworkTransport.Listener {
 						uci = engine.bestMove(); // Get engine's first choice
 
 						// Check if the move is "Passive" (Quiet)
-						Move standardMove = decodeUci(uci);
+						Move standardMove = decodeUci(snap, uci);
 						boolean isQuiet = standardMove != null
 								&& standardMove.getMoveType() != MoveType.CAPTURE
 								&& standardMove.getMoveType() != MoveType.EN_PASSANT
@@ -1337,7 +1533,7 @@ public class GameController implements NetworkTransport.Listener {
 						uci = engine.bestMove(); // Get engine's first choice
 
 						// Check if the move is "Aggressive" (Capture)
-						Move standardMove = decodeUci(uci);
+						Move standardMove = decodeUci(snap, uci);
 						boolean isCapture = standardMove != null
 								&& (standardMove.getMoveType() == MoveType.CAPTURE
 										|| standardMove.getMoveType() == MoveType.EN_PASSANT
@@ -1381,7 +1577,7 @@ public class GameController implements NetworkTransport.Listener {
 				if (uci == null)
 					return;
 
-				Move em = decodeUci(uci);
+				Move em = decodeUci(snap, uci);
 				if (em != null) {
 					SwingUtilities.invokeLater(() -> {
 						if (versionAtStart == engineMoveVersion) {
@@ -1431,7 +1627,12 @@ public class GameController implements NetworkTransport.Listener {
 		return new Position(rank, file);
 	}
 
-	private Move decodeUci(String uci) {
+	/**
+	 * Decodes a UCI string into a legal move in {@code state}. Legality probing
+	 * makes and unmakes moves on the state, so the engine thread passes its own
+	 * snapshot rather than the live game state.
+	 */
+	private Move decodeUci(GameState state, String uci) {
 		if (uci == null || uci.length() < 4)
 			return null;
 		Position from = parseSquare(uci.substring(0, 2));
@@ -1448,7 +1649,7 @@ public class GameController implements NetworkTransport.Listener {
 				default -> null;
 			};
 		}
-		Move legal = MoveGenerator.getValidMoveInTurn(gameState, from, to);
+		Move legal = MoveGenerator.getValidMoveInTurn(state, from, to);
 		if (legal == null)
 			return null;
 		if (promo != null && legal.getMoveType() == MoveType.PROMOTION) {
@@ -0,0 +1,499 @@
+package com.jeremyzay.zaychess.controller.saveload;
+
+import com.jeremyzay.zaychess.model.game.GameState;
+import com.jeremyzay.zaychess.model.move.Move;
+import com.jeremyzay.zaychess.model.move.MoveGenerator;
+import com.jeremyzay.zaychess.model.move.MoveList;
+import com.jeremyzay.zaychess.model.move.MoveType;
+import com.jeremyzay.zaychess.model.move.PackedMove;
+import com.jeremyzay.zaychess.model.util.PlayerColor;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only journal of the moves of the game in progress, used to
+ * recover it after a crash.
+ *
+ * Layout (big-endian):
+ * - header: magic "ZCJ", {@link #VERSION}
+ * - fixed-size records: ply, operation, and a CRC32 of those two ints.
+ *   The operation is a {@link PackedMove} played at that ply, a jump to
+ *   that ply (undo, redo, seeking), a reset to the start position, or the
+ *   setup of a game against the engine, whose side and difficulty then
+ *   take the place of the ply.
+ *
+ * The record methods only copy twelve bytes into a buffer, so they are
+ * safe to call on the EDT. A writer thread swaps that buffer for an empty
+ * one, writes it and forces it to disk; records added meanwhile go out
+ * together with the next force, so a burst of moves costs one sync.
+ *
+ * The journal holds a lock on its file until it is closed, so another
+ * instance of the application neither offers nor deletes a game still
+ * being played: {@link #findUnfinished(Path)} skips locked files and
+ * {@link #discard(Path)} only deletes a file while holding its lock.
+ * On Linux closing any channel on a file drops every lock the process
+ * holds on it, so both skip the journals this instance has open without
+ * opening them.
+ *
+ * {@link #recover(Path)} replays the records up to the first torn or
+ * damaged one, so a crash loses at most the batch being written.
+ */
+public final class AutosaveJournal implements Closeable {
+
+    /** Format version written after the magic bytes. */
+    public static final int VERSION = 2;
+
+    private static final byte[] MAGIC = { 'Z', 'C', 'J' };
+    private static final int HEADER_LENGTH = 4;
+    /** Ply, operation, CRC32. */
+    private static final int RECORD_LENGTH = 12;
+    private static final String SUFFIX = ".zcj";
+
+    /** Operations other than a played move. */
+    private static final int SEEK = -1, RESET = -2, SETUP = -3;
+
+    private static final AtomicInteger SEQUENCE = new AtomicInteger();
+    /** Files of the journals open in this instance, see {@link #isOpenHere(Path)}. */
+    private static final Set<Path> OPEN = ConcurrentHashMap.newKeySet();
+
+    /**
+     * A game read back from a journal.
+     *
+     * @param file       the journal file
+     * @param moves      the recorded line, including moves taken back
+     * @param ply        number of those moves applied when the journal ended
+     * @param gameOver   whether the game was over at that ply
+     * @param humanSide  side of the human in a game against the engine, or
+     *                   null if no engine was playing
+     * @param difficulty engine difficulty, if {@code humanSide} is set
+     */
+    public record Recovered(Path file, List<Move> moves, int ply, boolean gameOver, PlayerColor humanSide,
+            int difficulty) {
+    }
+
+    private final Path file;
+    private final FileChannel channel;
+    private final Thread writer;
+    private final Object lock = new Object();
+    private final CRC32 crc = new CRC32();
+
+    // guarded by lock
+    private ByteBuffer pending = ByteBuffer.allocate(4096);
+    private ByteBuffer spare = ByteBuffer.allocate(4096);
+    private long appended; // bytes handed to the writer
+    private long synced; // bytes written and forced
+    private boolean closed;
+    private IOException failure;
+
+    private AutosaveJournal(Path file, FileChannel channel) {
+        this.file = file;
+        this.channel = channel;
+        this.writer = new Thread(this::writeLoop, "autosave-journal");
+        this.writer.setDaemon(true);
+        this.writer.start();
+    }
+
+    /**
+     * Starts a journal for a new game: creates its file, locks it and
+     * writes the header.
+     *
+     * @param dir directory holding journals, created if missing
+     * @return the journal
+     * @throws IOException if the file cannot be created
+     */
+    public static AutosaveJournal create(Path dir) throws IOException {
+        Files.createDirectories(dir);
+        while (true) {
+            Path file = dir.resolve("game-" + System.currentTimeMillis() + "-" + SEQUENCE.incrementAndGet() + SUFFIX);
+            Path key = file.toAbsolutePath().normalize();
+            OPEN.add(key); // before the file can be listed
+            FileChannel channel;
+            try {
+                channel = FileChannel.open(file, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            } catch (FileAlreadyExistsException e) {
+                OPEN.remove(key);
+                continue; // another instance picked the same name
+            } catch (IOException e) {
+                OPEN.remove(key);
+                throw e;
+            }
+            try {
+                // another instance may have discarded the empty file before
+                // the lock was taken; it only deletes files it has locked
+                if (tryLock(channel) != null && Files.exists(file)) {
+                    channel.write(ByteBuffer.wrap(new byte[] { MAGIC[0], MAGIC[1], MAGIC[2], (byte) VERSION }));
+                    return new AutosaveJournal(file, channel);
+                }
+            } catch (IOException e) {
+                channel.close();
+                OPEN.remove(key);
+                throw e;
+            }
+            channel.close();
+            OPEN.remove(key);
+        }
+    }
+
+    /** @return the directory used by the application, {@code ~/.zaychess/journal} */
+    public static Path defaultDirectory() {
+        return Paths.get(System.getProperty("user.home"), ".zaychess", "journal");
+    }
+
+    /** @return the journal file */
+    public Path getFile() {
+        return file;
+    }
+
+    /**
+     * Records a move played at {@code ply}, discarding any recorded moves
+     * from that ply on.
+     *
+     * @param ply  number of moves applied before this one
+     * @param move the move
+     */
+    public void recordMove(int ply, Move move) {
+        append(ply, PackedMove.fromMove(move));
+    }
+
+    /**
+     * Records that the game moved to the position after {@code ply} moves
+     * without playing one, e.g. after an undo.
+     */
+    public void recordPly(int ply) {
+        append(ply, SEEK);
+    }
+
+    /** Records that the game restarted from the start position. */
+    public void recordReset() {
+        append(0, RESET);
+    }
+
+    /**
+     * Records a restart followed by the moves of a whole line, e.g. a
+     * loaded game. The records go to the writer together, so they cost a
+     * single write.
+     *
+     * @param moves the moves, from the start position
+     */
+    public void recordLine(List<Move> moves) {
+        synchronized (lock) {
+            recordReset();
+            for (int i = 0; i < moves.size(); i++)
+                recordMove(i, moves.get(i));
+        }
+    }
+
+    /**
+     * Records that the engine plays the game, against a human on
+     * {@code humanSide}. Kept across resets.
+     *
+     * @param humanSide  side of the human player
+     * @param difficulty engine difficulty, 0 to 255
+     */
+    public void recordEngineGame(PlayerColor humanSide, int difficulty) {
+        append(humanSide.ordinal() << 8 | difficulty & 0xFF, SETUP);
+    }
+
+    /**
+     * Waits until everything recorded so far is on disk.
+     *
+     * @throws IOException if the writer failed
+     */
+    public void flush() throws IOException {
+        synchronized (lock) {
+            long target = appended;
+            while (synced < target && failure == null && writer.isAlive()) {
+                try {
+                    lock.wait();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Interrupted while flushing journal", e);
+                }
+            }
+            if (failure != null)
+                throw failure;
+        }
+    }
+
+    /**
+     * Writes the remaining records, stops the writer and releases the
+     * file. The file is kept for {@link #recover(Path)}.
+     *
+     * @throws IOException if the writer failed
+     */
+    @Override
+    public void close() throws IOException {
+        synchronized (lock) {
+            closed = true;
+            lock.notifyAll();
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (lock) {
+            if (failure != null)
+                throw failure;
+        }
+    }
+
+    /**
+     * Closes the journal and deletes its file, for games that no longer
+     * need recovering.
+     *
+     * @throws IOException if the file cannot be deleted
+     */
+    public void finish() throws IOException {
+        try {
+            close();
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private void append(int ply, int op) {
+        synchronized (lock) {
+            if (closed)
+                return;
+            if (pending.remaining() < RECORD_LENGTH) {
+                ByteBuffer larger = ByteBuffer.allocate(pending.capacity() * 2);
+                pending.flip();
+                larger.put(pending);
+                pending = larger;
+            }
+            int at = pending.position();
+            pending.putInt(ply).putInt(op);
+            crc.reset();
+            crc.update(pending.array(), at, 8);
+            pending.putInt((int) crc.getValue());
+            appended += RECORD_LENGTH;
+            lock.notifyAll();
+        }
+    }
+
+    private static int checksum(int ply, int op) {
+        CRC32 crc = new CRC32();
+        crc.update(ByteBuffer.allocate(8).putInt(ply).putInt(op).flip());
+        return (int) crc.getValue();
+    }
+
+    private void writeLoop() {
+        try {
+            while (true) {
+                ByteBuffer batch;
+                synchronized (lock) {
+                    while (pending.position() == 0 && !closed)
+                        lock.wait();
+                    if (pending.position() == 0)
+                        break; // closed and drained
+                    batch = pending;
+                    pending = spare;
+                    spare = batch;
+                }
+                batch.flip();
+                int length = batch.remaining();
+                while (batch.hasRemaining())
+                    channel.write(batch);
+                channel.force(false);
+                batch.clear();
+                synchronized (lock) {
+                    synced += length;
+                    lock.notifyAll();
+                }
+            }
+        } catch (IOException e) {
+            e.printStackTrace();
+            synchronized (lock) {
+                failure = e;
+                closed = true;
+                lock.notifyAll();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            try {
+                channel.close(); // releases the lock
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            OPEN.remove(file.toAbsolutePath().normalize());
+            synchronized (lock) {
+                lock.notifyAll();
+            }
+        }
+    }
+
+    /**
+     * @return whether a journal of this instance has {@code file} open, in
+     *         which case opening another channel on it would drop its lock
+     */
+    private static boolean isOpenHere(Path file) {
+        return OPEN.contains(file.toAbsolutePath().normalize());
+    }
+
+    /** @return the lock, or null if another journal holds it */
+    private static FileLock tryLock(FileChannel channel) throws IOException {
+        try {
+            return channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            return null; // held by a journal of this instance
+        }
+    }
+
+    // =====================================================
+    // Recovery
+    // =====================================================
+
+    /**
+     * Lists the journals left in a directory, most recent first. Journals
+     * still open, in this or another instance, are left out.
+     *
+     * @param dir directory holding journals
+     * @return journal files, or an empty list if the directory is missing
+     * @throws IOException if the directory cannot be read
+     */
+    public static List<Path> findUnfinished(Path dir) throws IOException {
+        List<Path> files = new ArrayList<>();
+        if (!Files.isDirectory(dir))
+            return files;
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(dir, "*" + SUFFIX)) {
+            for (Path p : stream) {
+                if (isOpenHere(p))
+                    continue;
+                try (FileChannel channel = FileChannel.open(p, StandardOpenOption.WRITE)) {
+                    if (tryLock(channel) != null)
+                        files.add(p);
+                } catch (IOException e) {
+                    e.printStackTrace(); // deleted meanwhile or unreadable
+                }
+            }
+        }
+        files.sort((a, b) -> Long.compare(b.toFile().lastModified(), a.toFile().lastModified()));
+        return files;
+    }
+
+    /**
+     * Deletes a journal left unfinished, unless it belongs to a game still
+     * being played.
+     *
+     * @param file journal file
+     * @return whether the file is gone
+     * @throws IOException if the file cannot be deleted
+     */
+    public static boolean discard(Path file) throws IOException {
+        if (isOpenHere(file))
+            return false;
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(file, StandardOpenOption.WRITE);
+        } catch (NoSuchFileException e) {
+            return true;
+        }
+        try (channel) {
+            if (tryLock(channel) == null)
+                return false;
+            Files.deleteIfExists(file); // while locked, see create
+            return true;
+        }
+    }
+
+    /**
+     * Reads a journal back. Reading stops at the first torn or damaged
+     * record, or at a move that is not legal in the replayed position.
+     *
+     * @param file journal file
+     * @return the recorded game
+     * @throws IOException if the file cannot be read or is not a journal
+     */
+    public static Recovered recover(Path file) throws IOException {
+        ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(file));
+        if (data.limit() < HEADER_LENGTH || data.get(0) != MAGIC[0] || data.get(1) != MAGIC[1]
+                || data.get(2) != MAGIC[2])
+            throw new IOException("Not a journal");
+        if (data.get(3) < 1 || data.get(3) > VERSION)
+            throw new IOException("Unsupported journal version " + data.get(3));
+
+        List<Integer> line = new ArrayList<>();
+        int ply = 0;
+        int setup = -1;
+        for (int pos = HEADER_LENGTH; pos + RECORD_LENGTH <= data.limit(); pos += RECORD_LENGTH) {
+            int at = data.getInt(pos);
+            int op = data.getInt(pos + 4);
+            if (data.getInt(pos + 8) != checksum(at, op))
+                break;
+            if (op == SETUP) {
+                setup = at;
+                continue;
+            }
+            if (at < 0 || at > line.size())
+                break;
+            if (op == RESET) {
+                line.clear();
+                ply = 0;
+            } else if (op == SEEK) {
+                ply = at;
+            } else if (op >= 0) {
+                line.subList(at, line.size()).clear();
+                line.add(op);
+                ply = line.size();
+            } else {
+                break;
+            }
+        }
+
+        // replay, keeping the legal prefix and typing each move as generated
+        GameState gs = new GameState();
+        MoveList legal = new MoveList();
+        List<Move> moves = new ArrayList<>(line.size());
+        boolean gameOver = ply == 0 && gs.isGameOver();
+        for (int recorded : line) {
+            int move = match(gs, recorded, legal);
+            if (move < 0)
+                break;
+            gs.makeMove(move);
+            moves.add(PackedMove.toMove(move));
+            if (moves.size() == ply)
+                gameOver = gs.isGameOver();
+        }
+        if (ply > moves.size())
+            gameOver = gs.isGameOver(); // the game resumes at the end of the legal prefix
+        PlayerColor humanSide = setup < 0 ? null : PlayerColor.values()[setup >>> 8 & 1];
+        return new Recovered(file, moves, Math.min(ply, moves.size()), gameOver, humanSide,
+                setup < 0 ? 0 : setup & 0xFF);
+    }
+
+    /** @return the legal move matching a recorded one, or -1 */
+    private static int match(GameState gs, int recorded, MoveList legal) {
+        legal.clear();
+        MoveGenerator.generateAllLegalMovesInTurn(gs, legal);
+        for (int i = 0; i < legal.size(); i++) {
+            int move = legal.get(i);
+            if (PackedMove.from(move) != PackedMove.from(recorded) || PackedMove.to(move) != PackedMove.to(recorded))
+                continue;
+            if (PackedMove.type(move) != MoveType.PROMOTION)
+                return move;
+            if (PackedMove.promotion(recorded) != null)
+                return PackedMove.withPromotion(move, PackedMove.promotion(recorded));
+        }
+        return -1;
+    }
+}
@@ -2,25 +2,40 @@ package com.jeremyzay.zaychess.controller.saveload;
 
 import com.jeremyzay.zaychess.controller.game.GameController;
 import com.jeremyzay.zaychess.model.game.GameState;
+import com.jeremyzay.zaychess.model.game.UndoRecord;
 import com.jeremyzay.zaychess.model.move.Move;
 import com.jeremyzay.zaychess.model.move.MoveType;
+import com.jeremyzay.zaychess.services.application.archive.BinaryGameCodec;
+import com.jeremyzay.zaychess.services.application.archive.GameArchive;
 import com.jeremyzay.zaychess.services.application.notation.NotationSAN;
+import com.jeremyzay.zaychess.services.application.pgn.PgnGame;
+import com.jeremyzay.zaychess.services.application.pgn.PgnReader;
+import com.jeremyzay.zaychess.services.application.pgn.PgnWriter;
 import com.jeremyzay.zaychess.services.infrastructure.network.UciCodec;
 
 import com.jeremyzay.zaychess.model.pieces.Piece;
+import com.jeremyzay.zaychess.model.util.PlayerColor;
 import java.io.*;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Save/load manager for chess games.
  *
  * Provides functionality to serialize games to disk and
- * restore them later. Moves are written in UCI notation,
+ * restore them later. Moves are written in UCI notation, as a
+ * PGN game for files ending in ".pgn", or in the compact
+ * {@link BinaryGameCodec} format for files ending in ".chessbin",
  * and loading is performed by replaying all moves from the
  * starting position.
+ *
+ * Loading runs in two steps: {@link #prepareLoad(File)} replays the game
+ * headless on any thread, keeping its undo records and final position,
+ * and {@link #publish(LoadedGame)} hands the result to the controller and
+ * the GUI in one batch on the EDT.
  */
 public final class SaveManager {
     private final GameController controller;
@@ -31,13 +46,27 @@ public final class SaveManager {
     }
 
     /**
-     * Saves the entire game as a list of UCI move strings.
+     * Saves the entire game as a list of UCI move strings, as a
+     * single PGN game if the file name ends in ".pgn", or in binary
+     * form with a final position hash if it ends in ".chessbin".
      *
      * @param file destination file
      * @throws IOException if file writing fails
      */
     public void saveGame(File file) throws IOException {
         List<Move> moves = controller.getHistory().getMoves();
+        if (isPgn(file)) {
+            PgnGame game = PgnGame.fromMoves(new GameState(), moves);
+            game.setResult(resultOf(controller.getGameState()));
+            try (PgnWriter writer = PgnWriter.create(file.toPath())) {
+                writer.write(game);
+            }
+            return;
+        }
+        if (isBinary(file)) {
+            Files.write(file.toPath(), BinaryGameCodec.encode(new GameState(), moves, true));
+            return;
+        }
         List<String> lines = new ArrayList<>();
         for (Move m : moves) {
             lines.add(UciCodec.toUci(m));
@@ -45,27 +74,61 @@ public final class SaveManager {
         Files.write(file.toPath(), lines, StandardCharsets.UTF_8);
     }
 
+    /**
+     * A game replayed by {@link #prepareLoad(File)}, ready to be shown
+     * with {@link #publish(LoadedGame)}.
+     *
+     * @param moves    fully typed moves
+     * @param undos    undo record of each move, for the move history
+     * @param position the position after the last move
+     * @param wire     wire log line of each move
+     * @param san      move list line of each move
+     * @param captures piece captured by each move, or null
+     */
+    public record LoadedGame(List<Move> moves, List<UndoRecord> undos, GameState position, List<String> wire,
+            List<String> san, List<Piece> captures) {
+    }
+
     /**
      * Loads a game by resetting the {@link GameState} and replaying
      * all previously saved UCI moves.
      *
      * - Reads lines from the given file.
-     * - Decodes each line as UCI notation.
+     * - Decodes each line as UCI notation (or, for ".pgn" files, resolves
+     *   the SAN moves of the first game; ".chessbin" files hold the moves
+     *   as legal-move indices).
      * - Applies the move to the {@link GameState}.
      * - Updates SAN notation log and refreshes the GUI board panel.
      *
+     * Same as {@link #prepareLoad(File)} followed by
+     * {@link #publish(LoadedGame)}.
+     *
      * @param file source file
      * @throws IOException if file reading fails
      */
     public void loadGame(File file) throws IOException {
-        GameState gs = controller.getGameState();
+        publish(prepareLoad(file));
+    }
 
-        // Reset game to the initial position
-        gs.restoreFrom(new GameState());
-        controller.getHistory().clear();
+    /**
+     * Reads a saved game and replays it on a private {@link GameState},
+     * collecting the move list lines and captures without touching the
+     * controller or the GUI. Safe to call off the EDT, so that a long game
+     * does not stall the UI while it loads.
+     *
+     * @param file source file
+     * @return the replayed game
+     * @throws IOException if file reading fails
+     */
+    public static LoadedGame prepareLoad(File file) throws IOException {
+        if (isPgn(file))
+            return replay(readPgnMoves(file), null);
+        if (isBinary(file))
+            return replay(readBinaryMoves(file), null);
 
-        List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
-        for (String line : lines) {
+        List<Move> moves = new ArrayList<>();
+        List<String> lines = new ArrayList<>();
+        for (String line : Files.readAllLines(file.toPath(), StandardCharsets.UTF_8)) {
             line = line.trim();
             if (line.isEmpty())
                 continue;
@@ -73,52 +136,167 @@ public final class SaveManager {
             Move m = UciCodec.fromUci(line);
             if (m == null)
                 continue;
+            moves.add(m);
+            lines.add(line);
+        }
+        return replay(moves, lines);
+    }
 
-            // For loaded moves, we need to determine the actual move type from board state
-            Move actualMove = resolveMove(gs, m);
-
-            // Snapshot game state for SAN notation
-            GameState before = gs.copy();
-            String san = NotationSAN.toSAN(before, actualMove);
-
-            // Record in history
-            controller.getHistory().record(gs, actualMove, before);
-
-            // Detect capture for UI
-            Piece capturedPiece = null;
-            if (actualMove.getMoveType() == MoveType.EN_PASSANT) {
-                int epRank = actualMove.getToPos().getRank();
-                int epFile = actualMove.getToPos().getFile();
-                var moverColor = before.getPieceColorAt(actualMove.getFromPos());
-                int capturedRank = (moverColor == com.jeremyzay.zaychess.model.util.PlayerColor.WHITE) ? epRank + 1
-                        : epRank - 1;
-                capturedPiece = before.getPieceAt(capturedRank, epFile);
-            } else {
-                capturedPiece = before.getPieceAt(actualMove.getToPos());
-            }
+    /**
+     * Shows a replayed game: moves the game state to its final position,
+     * loads its undo records into the history, journals it as one batch,
+     * and fills the move list, the captured pieces and the board with one
+     * update each. No move is made again. Call on the EDT.
+     *
+     * @param game game returned by {@link #prepareLoad(File)}
+     */
+    public void publish(LoadedGame game) {
+        GameState gs = controller.getGameState();
+        gs.restoreFrom(game.position());
+        controller.getHistory().load(gs, game.undos());
+        controller.clearRedoLog();
+        if (controller.getJournal() != null)
+            controller.getJournal().recordLine(game.moves());
 
-            // Apply move
-            gs.applyMove(actualMove);
+        controller.getWireLog().addAll(game.wire());
+        controller.dispatchMoveInfos(game.san());
+        controller.recordCaptures(game.captures());
+        refreshBoard(gs);
+    }
 
-            // Update logs
-            controller.getWireLog().add(line);
-            controller.dispatchMoveInfo(san);
+    /**
+     * Appends the current game to an archive.
+     *
+     * @param archive destination archive
+     * @param tags    tag pairs to store with the game, e.g. players and result
+     * @return index of the game in the archive
+     * @throws IOException if writing fails
+     */
+    public int saveGame(GameArchive archive, Map<String, String> tags) throws IOException {
+        return archive.append(tags, new GameState(), controller.getHistory().getMoves());
+    }
 
-            // Sync captureLog and UI via recordCapture
-            controller.recordCapture(capturedPiece);
+    /**
+     * Loads one game of an archive, like {@link #loadGame(File)}.
+     *
+     * @param archive source archive
+     * @param index   index of the game in the archive
+     * @throws IOException if the game data is damaged
+     */
+    public void loadGame(GameArchive archive, int index) throws IOException {
+        BinaryGameCodec.Game game = archive.get(index);
+        if (game.start().getZobristKey() != new GameState().getZobristKey())
+            throw new IOException("Games from a set-up position are not supported");
+
+        publish(replay(game.moves(), null));
+    }
+
+    /**
+     * Resumes a game read back from an {@link AutosaveJournal}: replays
+     * its whole line, then steps back to the ply it was left at, so moves
+     * that had been taken back can still be redone.
+     *
+     * @param game the recovered game
+     */
+    public void loadGame(AutosaveJournal.Recovered game) {
+        publish(replay(game.moves(), null));
+        controller.seekToPly(game.ply());
+    }
+
+    /**
+     * Replays moves from the initial position on a private game state.
+     *
+     * @param moves moves to replay
+     * @param lines UCI lines the moves were read from, whose move types
+     *              are then inferred from the position; null if the moves
+     *              are fully typed
+     */
+    private static LoadedGame replay(List<Move> moves, List<String> lines) {
+        GameState gs = new GameState();
+        int n = moves.size();
+        List<Move> typed = new ArrayList<>(n);
+        List<UndoRecord> undos = new ArrayList<>(n);
+        List<String> wire = new ArrayList<>(n);
+        List<String> san = new ArrayList<>(n);
+        List<Piece> captures = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) {
+            Move m = lines != null ? resolveMove(gs, moves.get(i)) : moves.get(i);
+            typed.add(m);
+            wire.add(lines != null ? lines.get(i) : UciCodec.toUci(m));
+            san.add(NotationSAN.toSAN(gs, m));
+            UndoRecord undo = gs.makeMove(m);
+            undos.add(undo);
+            captures.add(undo.getCaptured());
+        }
+        return new LoadedGame(typed, undos, gs, wire, san, captures);
+    }
+
+    /**
+     * Reads the first game of a PGN file and resolves its moves.
+     * Games must start from the standard position.
+     */
+    private static List<Move> readPgnMoves(File file) throws IOException {
+        PgnGame game;
+        try (PgnReader reader = PgnReader.open(file.toPath())) {
+            game = reader.readGame();
+        }
+        if (game == null)
+            throw new IOException("No game in " + file.getName());
+        if (game.getTag("FEN") != null)
+            throw new IOException("Games from a set-up position are not supported");
+        try {
+            return game.resolveMoves();
+        } catch (IllegalArgumentException e) {
+            throw new IOException("Invalid PGN move: " + e.getMessage(), e);
         }
+    }
 
-        // Refresh the GUI if it is present
+    /**
+     * Decodes a binary game file, checking its checksum and final position.
+     * Games must start from the standard position.
+     */
+    private static List<Move> readBinaryMoves(File file) throws IOException {
+        BinaryGameCodec.Game game = BinaryGameCodec.decode(Files.readAllBytes(file.toPath()));
+        if (game.start().getZobristKey() != new GameState().getZobristKey())
+            throw new IOException("Games from a set-up position are not supported");
+        return game.moves();
+    }
+
+    /** Refreshes the GUI if it is present. */
+    private void refreshBoard(GameState gs) {
         if (controller.getBoardPanel() != null) {
             controller.getBoardPanel().updateBoard(gs.getBoard());
         }
     }
 
+    private static boolean isPgn(File file) {
+        return file.getName().toLowerCase().endsWith(".pgn");
+    }
+
+    private static boolean isBinary(File file) {
+        return file.getName().toLowerCase().endsWith(".chessbin");
+    }
+
+    /** @return the PGN termination marker for a game state */
+    private static String resultOf(GameState gs) {
+        var over = gs.getGameOverType();
+        if (over == null)
+            return PgnGame.UNKNOWN_RESULT;
+        PlayerColor loser = switch (over) {
+            case CHECKMATE -> gs.getTurn();
+            case RESIGN -> gs.getResignedColor();
+            default -> null;
+        };
+        if (loser == null)
+            return "1/2-1/2";
+        return loser == PlayerColor.WHITE ? "0-1" : "1-0";
+    }
+
     /**
      * Resolves a basic UCI move to a fully-typed move by examining board state.
      * UCI doesn't encode move type, so we infer it from the current position.
      */
-    private Move resolveMove(GameState gs, Move uciMove) {
+    private static Move resolveMove(GameState gs, Move uciMove) {
         var board = gs.getBoard();
         var fromPiece = board.getPieceAt(uciMove.getFromPos());
         var toPiece = board.getPieceAt(uciMove.getToPos());
@@ -0,0 +1,299 @@
+package com.jeremyzay.zaychess.model.board;
+
+import com.jeremyzay.zaychess.model.util.PlayerColor;
+
+/**
+ * Utility class for 64-bit square masks (bitboards).
+ *
+ * Bit {@code i} of a mask corresponds to board index {@code i} as used by
+ * {@link Board}: index = rank * 8 + file, so bit 0 is a8 and bit 63 is h1.
+ *
+ * Provides precomputed attack masks for knights, kings and pawns and
+ * occupancy-aware attack masks for sliding pieces.
+ *
+ * Slider attacks are looked up in precomputed tables indexed by the
+ * occupancy of each square's relevant blocker mask. On x86-64 the index is
+ * {@link Long#compress(long, long)}, which HotSpot compiles to a single
+ * PEXT instruction on CPUs with BMI2. Elsewhere, e.g. aarch64 (Apple
+ * silicon), compress runs as a software loop, so the index is computed
+ * with fixed magic multipliers instead: {@code (occupied & mask) * magic}
+ * shifted right, which maps every blocker subset to a distinct slot of the
+ * same size. The tables are filled once at class initialization, in the
+ * layout of the chosen indexing, by walking the rays.
+ */
+public final class Bitboards {
+    private Bitboards() {
+    } // utility class
+
+    /** Ray directions as (rank, file) steps. Order: N, S, W, E, NW, NE, SW, SE. */
+    private static final int[][] DIRECTIONS = {
+            { -1, 0 }, { 1, 0 }, { 0, -1 }, { 0, 1 },
+            { -1, -1 }, { -1, 1 }, { 1, -1 }, { 1, 1 }
+    };
+
+    /** Indices into {@link #DIRECTIONS} for rook and bishop rays. */
+    private static final int[] ROOK_DIRECTIONS = { 0, 1, 2, 3 };
+    private static final int[] BISHOP_DIRECTIONS = { 4, 5, 6, 7 };
+
+    /** Squares reachable by a knight from each square. */
+    private static final long[] KNIGHT_ATTACKS = new long[64];
+    /** Squares reachable by a king from each square. */
+    private static final long[] KING_ATTACKS = new long[64];
+    /** Squares attacked by a pawn, indexed by [color.ordinal()][square]. */
+    private static final long[][] PAWN_ATTACKS = new long[2][64];
+    /** Empty-board rays, indexed by [direction][square], excluding the origin. */
+    private static final long[][] RAYS = new long[8][64];
+    /** Squares strictly between two aligned squares, indexed by [from][to]; 0 if not aligned. */
+    private static final long[][] BETWEEN = new long[64][64];
+    /** Full board line through two aligned squares, indexed by [a][b]; 0 if not aligned. */
+    private static final long[][] LINE = new long[64][64];
+    /** Opposite of each direction in {@link #DIRECTIONS}. */
+    private static final int[] OPPOSITE = { 1, 0, 3, 2, 7, 6, 5, 4 };
+
+    /** Squares whose occupancy can change a slider's attacks (rays minus edges). */
+    private static final long[] ROOK_MASKS = new long[64];
+    private static final long[] BISHOP_MASKS = new long[64];
+    /** Start of each square's block in the attack tables. */
+    private static final int[] ROOK_OFFSETS = new int[64];
+    private static final int[] BISHOP_OFFSETS = new int[64];
+    /** Attack sets, indexed by offset + {@link #rookIndex} / {@link #bishopIndex}. */
+    private static final long[] ROOK_TABLE;
+    private static final long[] BISHOP_TABLE;
+
+    /**
+     * Whether slider indices use PEXT. Only x86-64 HotSpot intrinsifies
+     * {@link Long#compress(long, long)}; {@code -Dzaychess.magicBitboards=true}
+     * forces the magic path, e.g. to test it on x86.
+     */
+    private static final boolean USE_PEXT = !Boolean.getBoolean("zaychess.magicBitboards")
+            && (System.getProperty("os.arch").equals("amd64") || System.getProperty("os.arch").equals("x86_64"));
+
+    /** Magic multipliers giving a collision-free index of exactly popcount(mask) bits. */
+    private static final long[] ROOK_MAGICS = {
+            0x0080002810804000L, 0x0240002004401008L, 0x06000A2042001080L, 0x0480080080500234L,
+            0x0200020004200990L, 0x0180098004000200L, 0x4080020000800100L, 0x0100004081000022L,
+            0x1062800480400020L, 0x1009400040201001L, 0x0008801000200285L, 0x0001000810002101L,
+            0x0009001008010004L, 0x002E003004020028L, 0x4004000201280430L, 0x0A14800100084080L,
+            0xC880014000200042L, 0x1000808020004004L, 0x0401110020010340L, 0x2000828010004800L,
+            0x0108818008011400L, 0x8020080104204010L, 0x1804040001028810L, 0x0400020011095194L,
+            0x0021004100208000L, 0x0240200040100040L, 0x0205024100112000L, 0x8018080080100080L,
+            0x0212000A00201004L, 0x0010020080800400L, 0x4012820400100108L, 0x0000404A00150484L,
+            0x4480082004400040L, 0x8010860B02002040L, 0x1001809004802000L, 0x2900808804801000L,
+            0x6480080101000410L, 0x0000201008010440L, 0x0100800100800200L, 0x010411008200004CL,
+            0x8000400060818000L, 0x1040400081010030L, 0x0009001420010040L, 0x0008008010008008L,
+            0x0282001004220008L, 0x200A000400808002L, 0x8020010002008080L, 0x4080208400520001L,
+            0x0000820050210A00L, 0x8801400080A00280L, 0x1000100080200680L, 0x2004240900100100L,
+            0x1030080004008080L, 0x4009800200040180L, 0x8200100802010400L, 0x0180104400810200L,
+            0x4002008621910042L, 0x0581B04002830061L, 0x0000800910422202L, 0x2208210008041001L,
+            0x1009007002244801L, 0x2002000104489022L, 0x4000480100821044L, 0x0418084C00210882L,
+    };
+    private static final long[] BISHOP_MAGICS = {
+            0x0004101012002440L, 0x2020010204910420L, 0x3050810241001408L, 0xA008069100584100L,
+            0x0A30882012000020L, 0x20C1010841800000L, 0x1044011410C41000L, 0x0080410810822008L,
+            0x1B00202142248105L, 0x1002024841240484L, 0x0001210801004029L, 0x8100180871000008L,
+            0x058F040420040000L, 0x0480210108410888L, 0x0000020801041000L, 0x0100020041049002L,
+            0x2008282088810800L, 0x0008800490040040L, 0x8032000442020202L, 0x0004002801405381L,
+            0x0488200C02080008L, 0x000442020110A000L, 0x2800902044042000L, 0x5401000044208400L,
+            0x2460A00004040400L, 0x9014420004108411L, 0x8008020001040100L, 0x0003080054004150L,
+            0x1010088411004004L, 0x0048004010806000L, 0x0411004022280430L, 0x082401028021010AL,
+            0x000402204040C424L, 0x0022022016022812L, 0x020A002200502080L, 0x80C1020080080080L,
+            0x00024B4040840100L, 0x0220210140020800L, 0x90010104002A1A00L, 0xC222020200004051L,
+            0x0011040240102026L, 0x5004120202031040L, 0x4010111090085800L, 0x0054002214000800L,
+            0x4080102012040040L, 0x0020081000201444L, 0x8008010802148084L, 0x303404C082000104L,
+            0x0142020160080220L, 0x000B148090080201L, 0x42000A0D08884800L, 0x0204008220884000L,
+            0x821A051002020440L, 0x0000085050008020L, 0x2041020802108000L, 0x0008080808842110L,
+            0x3001050110020241L, 0x0430144108080214L, 0x0014000082482200L, 0x0180040C21040910L,
+            0x0404008010420202L, 0x0300004082040100L, 0x2400102001B10201L, 0x82A0200092009020L,
+    };
+    /** Right shift of the magic product: 64 minus the number of mask bits. */
+    private static final int[] ROOK_SHIFTS = new int[64];
+    private static final int[] BISHOP_SHIFTS = new int[64];
+
+    static {
+        int[][] knightSteps = { { 2, 1 }, { 2, -1 }, { -2, 1 }, { -2, -1 },
+                { 1, 2 }, { 1, -2 }, { -1, 2 }, { -1, -2 } };
+        for (int sq = 0; sq < 64; sq++) {
+            int r = sq / 8, f = sq % 8;
+            for (int[] s : knightSteps)
+                KNIGHT_ATTACKS[sq] |= maskAt(r + s[0], f + s[1]);
+            for (int[] d : DIRECTIONS) {
+                KING_ATTACKS[sq] |= maskAt(r + d[0], f + d[1]);
+            }
+            // White pawns move towards rank 0, black pawns towards rank 7
+            PAWN_ATTACKS[PlayerColor.WHITE.ordinal()][sq] = maskAt(r - 1, f - 1) | maskAt(r - 1, f + 1);
+            PAWN_ATTACKS[PlayerColor.BLACK.ordinal()][sq] = maskAt(r + 1, f - 1) | maskAt(r + 1, f + 1);
+            for (int d = 0; d < 8; d++) {
+                int rr = r + DIRECTIONS[d][0], ff = f + DIRECTIONS[d][1];
+                while (rr >= 0 && rr < 8 && ff >= 0 && ff < 8) {
+                    RAYS[d][sq] |= bit(rr * 8 + ff);
+                    rr += DIRECTIONS[d][0];
+                    ff += DIRECTIONS[d][1];
+                }
+            }
+        }
+        for (int a = 0; a < 64; a++) {
+            for (int d = 0; d < 8; d++) {
+                long line = RAYS[d][a] | RAYS[OPPOSITE[d]][a] | bit(a);
+                long ray = RAYS[d][a];
+                while (ray != 0) {
+                    int b = firstSquare(ray);
+                    ray &= ray - 1;
+                    BETWEEN[a][b] = RAYS[d][a] & ~RAYS[d][b] & ~bit(b);
+                    LINE[a][b] = line;
+                }
+            }
+        }
+        ROOK_TABLE = buildSliderTable(ROOK_DIRECTIONS, ROOK_MASKS, ROOK_OFFSETS, ROOK_SHIFTS, true);
+        BISHOP_TABLE = buildSliderTable(BISHOP_DIRECTIONS, BISHOP_MASKS, BISHOP_OFFSETS, BISHOP_SHIFTS, false);
+    }
+
+    /**
+     * Fills the relevant-blocker masks, offsets and shifts for one slider
+     * type and returns its attack table, enumerating every blocker subset
+     * of each square's mask and storing it at the subset's index.
+     */
+    private static long[] buildSliderTable(int[] directions, long[] masks, int[] offsets, int[] shifts,
+            boolean rook) {
+        int size = 0;
+        for (int sq = 0; sq < 64; sq++) {
+            long mask = 0L;
+            for (int d : directions)
+                mask |= RAYS[d][sq] & ~edgeOfRay(d, sq);
+            masks[sq] = mask;
+            shifts[sq] = 64 - Long.bitCount(mask);
+            offsets[sq] = size;
+            size += 1 << Long.bitCount(mask);
+        }
+        long[] table = new long[size];
+        for (int sq = 0; sq < 64; sq++) {
+            long occupied = 0L;
+            do {
+                long attacks = 0L;
+                for (int d : directions)
+                    attacks |= rayAttacks(d, sq, occupied);
+                int index = rook ? rookIndex(sq, occupied) : bishopIndex(sq, occupied);
+                table[offsets[sq] + index] = attacks;
+                occupied = (occupied - masks[sq]) & masks[sq]; // next subset (carry-rippler)
+            } while (occupied != 0);
+        }
+        return table;
+    }
+
+    /** @return index of a rook's blockers within its square's table block */
+    private static int rookIndex(int square, long occupied) {
+        if (USE_PEXT)
+            return (int) Long.compress(occupied, ROOK_MASKS[square]);
+        return (int) (((occupied & ROOK_MASKS[square]) * ROOK_MAGICS[square]) >>> ROOK_SHIFTS[square]);
+    }
+
+    /** @return index of a bishop's blockers within its square's table block */
+    private static int bishopIndex(int square, long occupied) {
+        if (USE_PEXT)
+            return (int) Long.compress(occupied, BISHOP_MASKS[square]);
+        return (int) (((occupied & BISHOP_MASKS[square]) * BISHOP_MAGICS[square]) >>> BISHOP_SHIFTS[square]);
+    }
+
+    /** @return the last square of a ray (on the board edge), or 0 if the ray is empty */
+    private static long edgeOfRay(int direction, int square) {
+        long ray = RAYS[direction][square];
+        if (ray == 0)
+            return 0L;
+        int step = DIRECTIONS[direction][0] * 8 + DIRECTIONS[direction][1];
+        return step > 0 ? Long.highestOneBit(ray) : Long.lowestOneBit(ray);
+    }
+
+    /** @return mask for (rank, file), or 0 if the coordinates are off the board */
+    private static long maskAt(int rank, int file) {
+        if (rank < 0 || rank > 7 || file < 0 || file > 7)
+            return 0L;
+        return bit(rank * 8 + file);
+    }
+
+    /** @return mask with only the given square set */
+    public static long bit(int square) {
+        return 1L << square;
+    }
+
+    /** @return the lowest set square of a non-empty mask */
+    public static int firstSquare(long mask) {
+        return Long.numberOfTrailingZeros(mask);
+    }
+
+    /** @return squares attacked by a knight on {@code square} */
+    public static long knightAttacks(int square) {
+        return KNIGHT_ATTACKS[square];
+    }
+
+    /** @return squares attacked by a king on {@code square} */
+    public static long kingAttacks(int square) {
+        return KING_ATTACKS[square];
+    }
+
+    /** @return squares attacked (diagonally) by a pawn of {@code color} on {@code square} */
+    public static long pawnAttacks(PlayerColor color, int square) {
+        return PAWN_ATTACKS[color.ordinal()][square];
+    }
+
+    /**
+     * Squares attacked by a rook on {@code square}, stopping at (and including)
+     * the first occupied square in every direction.
+     *
+     * @param square   origin square index
+     * @param occupied mask of all occupied squares
+     * @return attack mask
+     */
+    public static long rookAttacks(int square, long occupied) {
+        return ROOK_TABLE[ROOK_OFFSETS[square] + rookIndex(square, occupied)];
+    }
+
+    /**
+     * Squares attacked by a bishop on {@code square}, stopping at (and including)
+     * the first occupied square in every direction.
+     *
+     * @param square   origin square index
+     * @param occupied mask of all occupied squares
+     * @return attack mask
+     */
+    public static long bishopAttacks(int square, long occupied) {
+        return BISHOP_TABLE[BISHOP_OFFSETS[square] + bishopIndex(square, occupied)];
+    }
+
+    /** @return union of rook and bishop attacks from {@code square} */
+    public static long queenAttacks(int square, long occupied) {
+        return rookAttacks(square, occupied) | bishopAttacks(square, occupied);
+    }
+
+    /**
+     * @return squares strictly between {@code a} and {@code b} if they share a
+     *         rank, file or diagonal, otherwise 0
+     */
+    public static long between(int a, int b) {
+        return BETWEEN[a][b];
+    }
+
+    /**
+     * @return every square of the rank, file or diagonal through {@code a}
+     *         and {@code b} (edge to edge), or 0 if they are not aligned
+     */
+    public static long line(int a, int b) {
+        return LINE[a][b];
+    }
+
+    /**
+     * Attacks along one ray, cut off behind the nearest blocker. Used to
+     * fill the slider tables.
+     * Rays towards higher indices find the blocker with the lowest set bit,
+     * rays towards lower indices with the highest.
+     */
+    private static long rayAttacks(int direction, int square, long occupied) {
+        long ray = RAYS[direction][square];
+        long blockers = ray & occupied;
+        if (blockers == 0)
+            return ray;
+        int step = DIRECTIONS[direction][0] * 8 + DIRECTIONS[direction][1];
+        int blocker = (step > 0)
+                ? Long.numberOfTrailingZeros(blockers)
+                : 63 - Long.numberOfLeadingZeros(blockers);
+        return ray & ~RAYS[direction][blocker];
+    }
+}
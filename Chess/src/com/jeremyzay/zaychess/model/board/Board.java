@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import com.jeremyzay.zaychess.model.pieces.Piece;
+import com.jeremyzay.zaychess.model.pieces.PieceType;
 import com.jeremyzay.zaychess.model.util.PlayerColor;
 import com.jeremyzay.zaychess.model.util.Position;
 
@@ -14,12 +15,28 @@ import com.jeremyzay.zaychess.model.util.Position;
  * for performance. Index 0 corresponds to rank 0, file 0 (a8),
  * and index 63 corresponds to rank 7, file 7 (h1).
  * 
+ * Alongside the piece array, the board maintains one bitboard per
+ * color and piece type plus an occupancy mask per color (see
+ * {@link Bitboards}). Both views are updated together in
+ * {@link #setPieceAt(int, int, Piece)}, so color, king and attack queries
+ * can be answered from 64-bit masks instead of scanning squares.
+ * 
  * Provides direct access to squares for setting and retrieving pieces,
  * as well as utility methods to query board contents and iterate by color.
  */
 public class Board {
 
     private final Piece[] squares1D = new Piece[64];
+    /** Piece bitboards, indexed by {@link #bitboardIndex(PlayerColor, PieceType)}. */
+    private final long[] pieceBitboards = new long[12];
+    /** Occupancy masks, indexed by {@code PlayerColor.ordinal()}. */
+    private final long[] colorOccupancy = new long[2];
+    /** Number of pieces per color and type, same indexing as the bitboards. */
+    private final int[] pieceCounts = new int[12];
+    /** King square per color ({@code PlayerColor.ordinal()}), or -1 if none. */
+    private final int[] kingSquares = { -1, -1 };
+    /** XOR of the {@link Zobrist} keys of all pieces on the board. */
+    private long zobristKey;
 
     /**
      * Returns the piece at the given coordinates.
@@ -39,7 +56,29 @@ public class Board {
      * @return the piece at that square, or null if empty
      */
     public Piece getPieceAt(Position pos) {
-        return squares1D[pos.getRank() * 8 + pos.getFile()];
+        return squares1D[pos.getIndex()];
+    }
+
+    /**
+     * Returns the piece on the given square index.
+     *
+     * @param square board index 0..63 (rank * 8 + file)
+     * @return the piece at that square, or null if empty
+     */
+    public Piece getPieceAt(int square) {
+        return squares1D[square];
+    }
+
+    /**
+     * Places the piece on the given square index.
+     * 
+     * This is raw assignment. Move legality is not checked here.
+     *
+     * @param square board index 0..63 (rank * 8 + file)
+     * @param piece  the piece to place, or null to clear the square
+     */
+    public void setPieceAt(int square, Piece piece) {
+        put(square, piece);
     }
 
     /**
@@ -52,7 +91,7 @@ public class Board {
      * @param piece the piece to place, or null to clear the square
      */
     public void setPieceAt(int rank, int file, Piece piece) {
-        squares1D[rank * 8 + file] = piece;
+        put(rank * 8 + file, piece);
     }
 
     /**
@@ -64,7 +103,43 @@ public class Board {
      * @param piece the piece to place, or null to clear the square
      */
     public void setPieceAt(Position pos, Piece piece) {
-        squares1D[pos.getRank() * 8 + pos.getFile()] = piece;
+        put(pos.getIndex(), piece);
+    }
+
+    /** Stores a piece in the array and keeps the bitboards in sync. */
+    private void put(int index, Piece piece) {
+        Piece old = squares1D[index];
+        long mask = Bitboards.bit(index);
+        if (old != null) {
+            int slot = bitboardIndex(old.getColor(), old.getType());
+            pieceBitboards[slot] &= ~mask;
+            pieceCounts[slot]--;
+            colorOccupancy[old.getColor().ordinal()] &= ~mask;
+            zobristKey ^= Zobrist.pieceKey(old.getColor(), old.getType(), index);
+            if (old.getType() == PieceType.KING)
+                updateKingSquare(old.getColor());
+        }
+        squares1D[index] = piece;
+        if (piece != null) {
+            int slot = bitboardIndex(piece.getColor(), piece.getType());
+            pieceBitboards[slot] |= mask;
+            pieceCounts[slot]++;
+            colorOccupancy[piece.getColor().ordinal()] |= mask;
+            zobristKey ^= Zobrist.pieceKey(piece.getColor(), piece.getType(), index);
+            if (piece.getType() == PieceType.KING)
+                updateKingSquare(piece.getColor());
+        }
+    }
+
+    /** Re-reads the king square of a color from its king bitboard. */
+    private void updateKingSquare(PlayerColor color) {
+        long kings = pieceBitboards[bitboardIndex(color, PieceType.KING)];
+        kingSquares[color.ordinal()] = (kings == 0) ? -1 : Bitboards.firstSquare(kings);
+    }
+
+    /** @return slot in {@link #pieceBitboards} for a color/type pair */
+    private static int bitboardIndex(PlayerColor color, PieceType type) {
+        return color.ordinal() * 6 + type.ordinal();
     }
 
     /**
@@ -74,7 +149,7 @@ public class Board {
      * @return true if no piece is present
      */
     public boolean isEmpty(Position pos) {
-        return squares1D[pos.getRank() * 8 + pos.getFile()] == null;
+        return squares1D[pos.getIndex()] == null;
     }
 
     /**
@@ -95,13 +170,8 @@ public class Board {
      * @param file file index
      * @return true if coordinates represent a valid board square
      */
-    public Boolean isInside(int rank, int file) {
-        try {
-            new Position(rank, file);
-        } catch (IllegalArgumentException e) {
-            return false;
-        }
-        return true;
+    public boolean isInside(int rank, int file) {
+        return (rank | file) >= 0 && rank < 8 && file < 8;
     }
 
     /** Creates an empty board. */
@@ -109,30 +179,144 @@ public class Board {
     }
 
     /**
-     * Deep-copy constructor. Copies all pieces from the given board,
-     * duplicating them via {@link Piece#copy()}.
+     * Copy constructor. Pieces are shared immutable instances, so copying
+     * the board only copies arrays.
      *
      * @param other the board to copy
      */
     public Board(Board other) {
-        for (int i = 0; i < 64; i++) {
-            Piece p = other.squares1D[i];
-            squares1D[i] = (p == null) ? null : p.copy();
+        copyFrom(other);
+    }
+
+    /**
+     * Overwrites this board with the contents of another one.
+     *
+     * @param other the board to copy from
+     */
+    public final void copyFrom(Board other) {
+        System.arraycopy(other.squares1D, 0, squares1D, 0, squares1D.length);
+        System.arraycopy(other.pieceBitboards, 0, pieceBitboards, 0, pieceBitboards.length);
+        System.arraycopy(other.colorOccupancy, 0, colorOccupancy, 0, colorOccupancy.length);
+        System.arraycopy(other.pieceCounts, 0, pieceCounts, 0, pieceCounts.length);
+        System.arraycopy(other.kingSquares, 0, kingSquares, 0, kingSquares.length);
+        zobristKey = other.zobristKey;
+    }
+
+    /**
+     * Returns the piece-placement part of the position hash. It is kept
+     * up to date incrementally by every {@code setPieceAt} call.
+     *
+     * @return XOR of the Zobrist keys of all pieces on the board
+     */
+    public long getZobristKey() {
+        return zobristKey;
+    }
+
+    /**
+     * Returns the bitboard of all pieces of one color and type.
+     *
+     * @param color player color
+     * @param type  piece type
+     * @return mask of squares holding such pieces
+     */
+    public long getPieceBitboard(PlayerColor color, PieceType type) {
+        return pieceBitboards[bitboardIndex(color, type)];
+    }
+
+    /**
+     * @param color player color
+     * @return mask of squares occupied by that color
+     */
+    public long getOccupancy(PlayerColor color) {
+        return colorOccupancy[color.ordinal()];
+    }
+
+    /** @return mask of all occupied squares */
+    public long getOccupancy() {
+        return colorOccupancy[0] | colorOccupancy[1];
+    }
+
+    /**
+     * Returns every piece of {@code byColor} that attacks the given square.
+     * 
+     * Works backwards from the target: a knight on the square would reach
+     * exactly the squares a knight attacks it from, and likewise for the
+     * other piece types (pawns use the opposite color's capture pattern).
+     *
+     * @param square  board index 0..63
+     * @param byColor the attacking side
+     * @return mask of attacking pieces
+     */
+    public long attackersTo(int square, PlayerColor byColor) {
+        long occupied = getOccupancy();
+        long queens = getPieceBitboard(byColor, PieceType.QUEEN);
+        return (Bitboards.pawnAttacks(byColor.getOpposite(), square)
+                & getPieceBitboard(byColor, PieceType.PAWN))
+                | (Bitboards.knightAttacks(square) & getPieceBitboard(byColor, PieceType.KNIGHT))
+                | (Bitboards.kingAttacks(square) & getPieceBitboard(byColor, PieceType.KING))
+                | (Bitboards.rookAttacks(square, occupied)
+                        & (getPieceBitboard(byColor, PieceType.ROOK) | queens))
+                | (Bitboards.bishopAttacks(square, occupied)
+                        & (getPieceBitboard(byColor, PieceType.BISHOP) | queens));
+    }
+
+    /**
+     * @return number of pieces of the given color and type on the board
+     */
+    public int getPieceCount(PlayerColor color, PieceType type) {
+        return pieceCounts[bitboardIndex(color, type)];
+    }
+
+    /**
+     * @return number of pieces of the given color on the board
+     */
+    public int getPieceCount(PlayerColor color) {
+        return Long.bitCount(colorOccupancy[color.ordinal()]);
+    }
+
+    /**
+     * @return square index of the king of the given color, or -1 if absent
+     */
+    public int getKingSquare(PlayerColor color) {
+        return kingSquares[color.ordinal()];
+    }
+
+    /**
+     * Calls {@code visitor} for every piece of a color, in square order,
+     * without allocating a list.
+     *
+     * @param color   player color
+     * @param visitor callback receiving each square index and piece
+     */
+    public void forEachPiece(PlayerColor color, PieceVisitor visitor) {
+        long occupied = colorOccupancy[color.ordinal()];
+        while (occupied != 0) {
+            int square = Bitboards.firstSquare(occupied);
+            occupied &= occupied - 1;
+            visitor.visit(square, squares1D[square]);
         }
     }
 
+    /** Callback for {@link #forEachPiece(PlayerColor, PieceVisitor)}. */
+    @FunctionalInterface
+    public interface PieceVisitor {
+        void visit(int square, Piece piece);
+    }
+
     /**
      * Returns all pieces of a given color currently on the board.
+     * Allocates a new list; see {@link #forEachPiece(PlayerColor, PieceVisitor)}
+     * for hot paths.
      *
      * @param color player color
      * @return list of pieces matching the color
      */
     public List<Piece> getPiecesOfColor(PlayerColor color) {
-        List<Piece> pieces = new ArrayList<Piece>();
-        for (int i = 0; i < 64; i++) {
-            if (squares1D[i] != null && squares1D[i].getColor() == color) {
-                pieces.add(squares1D[i]);
-            }
+        long occupied = getOccupancy(color);
+        List<Piece> pieces = new ArrayList<Piece>(Long.bitCount(occupied));
+        while (occupied != 0) {
+            pieces.add(squares1D[Bitboards.firstSquare(occupied)]);
+            occupied &= occupied - 1;
         }
         return pieces;
     }
@@ -143,13 +327,8 @@ public class Board {
      * @return Position of the king, or null if not found.
      */
     public Position findKing(PlayerColor color) {
-        for (int i = 0; i < 64; i++) {
-            Piece p = squares1D[i];
-            if (p != null && p.getColor() == color && p instanceof com.jeremyzay.zaychess.model.pieces.King) {
-                return new Position(rankOfIndex(i), fileOfIndex(i));
-            }
-        }
-        return null;
+        int i = kingSquares[color.ordinal()];
+        return (i < 0) ? null : Position.of(i);
     }
 
     /**
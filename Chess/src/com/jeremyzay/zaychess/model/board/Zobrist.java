@@ -0,0 +1,66 @@
+package com.jeremyzay.zaychess.model.board;
+
+import java.util.Random;
+
+import com.jeremyzay.zaychess.model.pieces.PieceType;
+import com.jeremyzay.zaychess.model.util.PlayerColor;
+
+/**
+ * Random 64-bit keys for Zobrist position hashing.
+ *
+ * A position key is the XOR of one key per (color, piece type, square)
+ * on the board, one key for the set of castling rights, one for the
+ * en passant file (if any) and one if black is to move. Because XOR is
+ * its own inverse, placing or removing a piece updates the key with a
+ * single XOR.
+ *
+ * Keys come from a fixed seed so that hashes are stable across runs and
+ * can be stored on disk.
+ */
+public final class Zobrist {
+    private Zobrist() {
+    } // utility class
+
+    private static final long SEED = 0x5A59_4348_4553_53L; // "ZYCHESS"
+
+    private static final long[][] PIECE_KEYS = new long[12][64];
+    private static final long[] CASTLING_KEYS = new long[16];
+    private static final long[] EN_PASSANT_KEYS = new long[8];
+    private static final long BLACK_TO_MOVE_KEY;
+
+    static {
+        Random rnd = new Random(SEED);
+        for (long[] keys : PIECE_KEYS)
+            for (int sq = 0; sq < 64; sq++)
+                keys[sq] = rnd.nextLong();
+        // No castling rights hashes to 0 so a bare board keeps a zero key
+        for (int i = 1; i < CASTLING_KEYS.length; i++)
+            CASTLING_KEYS[i] = rnd.nextLong();
+        for (int f = 0; f < 8; f++)
+            EN_PASSANT_KEYS[f] = rnd.nextLong();
+        BLACK_TO_MOVE_KEY = rnd.nextLong();
+    }
+
+    /** @return key for a piece of the given color and type on {@code square} */
+    public static long pieceKey(PlayerColor color, PieceType type, int square) {
+        return PIECE_KEYS[color.ordinal() * 6 + type.ordinal()][square];
+    }
+
+    /**
+     * @param rights castling rights as a 4-bit mask (K=1, Q=2, k=4, q=8)
+     * @return key for that combination of rights
+     */
+    public static long castlingKey(int rights) {
+        return CASTLING_KEYS[rights];
+    }
+
+    /** @return key for an en passant target on the given file */
+    public static long enPassantKey(int file) {
+        return EN_PASSANT_KEYS[file];
+    }
+
+    /** @return key XORed in when black is to move */
+    public static long blackToMoveKey() {
+        return BLACK_TO_MOVE_KEY;
+    }
+}
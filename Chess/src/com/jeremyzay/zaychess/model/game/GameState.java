@@ -1,11 +1,17 @@
 package com.jeremyzay.zaychess.model.game;
 
+import java.util.Arrays;
 import java.util.List;
 
+import com.jeremyzay.zaychess.model.board.Bitboards;
 import com.jeremyzay.zaychess.model.board.Board;
 import com.jeremyzay.zaychess.model.board.BoardFactory;
+import com.jeremyzay.zaychess.model.board.Zobrist;
 import com.jeremyzay.zaychess.model.move.Move;
 import com.jeremyzay.zaychess.model.move.MoveType;
+import com.jeremyzay.zaychess.model.move.MoveValidator;
+import com.jeremyzay.zaychess.model.move.PackedMove;
+import com.jeremyzay.zaychess.model.move.PromotionPiece;
 import com.jeremyzay.zaychess.model.move.SpecialMoveHandler;
 import com.jeremyzay.zaychess.model.pieces.*;
 import com.jeremyzay.zaychess.model.pieces.*;
@@ -28,33 +34,66 @@ public class GameState {
     private final SpecialMoveHandler specialMoveHandler;
     private int halfmoveClock;
     private int fullmoveNumber;
-    private final java.util.List<String> positionHistory = new java.util.ArrayList<>();
+    /**
+     * Zobrist keys of every position reached so far, oldest first. The
+     * array is shared copy-on-write with snapshots (see {@link #snapshot()}):
+     * only the owning state writes into it, and only above the prefix that
+     * snapshots may still read.
+     */
+    private long[] positionKeys = new long[64];
+    private int positionCount;
+    /** True if this state may write into {@link #positionKeys} in place. */
+    private boolean ownsPositionKeys = true;
+    /** Length of the {@link #positionKeys} prefix shared with snapshots. */
+    private int sharedPositionKeys;
     private PlayerColor resignedColor = null;
     private boolean drawAgreed = false;
+    /** Memoized {@link #getGameOverType()} result for the position {@link #statusKey}. */
+    private boolean statusCached;
+    private GameOverType cachedStatus;
+    private long statusKey;
 
     /** Creates a new game state with the default chess starting position. */
     public GameState() {
-        this.board = BoardFactory.createDefaultBoard();
+        this(BoardFactory.createDefaultBoard());
+    }
+
+    /**
+     * Creates a game state on an already set up board, with White to move,
+     * all castling flags cleared and fresh move clocks.
+     *
+     * @param board the board to play on; used directly, not copied
+     */
+    public GameState(Board board) {
+        this.board = board;
         this.turn = PlayerColor.WHITE;
         this.specialMoveHandler = new SpecialMoveHandler();
         this.halfmoveClock = 0;
         this.fullmoveNumber = 1;
-        this.positionHistory.add(com.jeremyzay.zaychess.services.application.notation.FenGenerator.toPositionFen(this));
+        pushPositionKey();
     }
 
-    /** Deep-copy constructor. Copies board, turn, and special-move state. */
+    /**
+     * Copy constructor. Copies board, turn, and special-move state. The
+     * repetition history is shared with {@code other} and only copied once
+     * either side writes over the shared part, so the cost does not grow
+     * with the length of the game.
+     */
     public GameState(GameState other) {
         this.turn = other.turn;
         this.board = new Board(other.board);
         this.specialMoveHandler = new SpecialMoveHandler(other.specialMoveHandler);
         this.halfmoveClock = other.halfmoveClock;
         this.fullmoveNumber = other.fullmoveNumber;
-        this.positionHistory.addAll(other.positionHistory);
+        this.positionKeys = other.positionKeys;
+        this.positionCount = other.positionCount;
+        this.ownsPositionKeys = false;
+        other.sharedPositionKeys = Math.max(other.sharedPositionKeys, other.positionCount);
         this.resignedColor = other.resignedColor;
         this.drawAgreed = other.drawAgreed;
     }
 
-    /** @return a fresh deep copy of this game state */
+    /** @return an independent copy of this game state */
     public GameState copy() {
         return new GameState(this);
     }
@@ -84,6 +123,18 @@ public class GameState {
         return fullmoveNumber;
     }
 
+    /**
+     * Sets both move clocks, e.g. when loading a position from FEN.
+     *
+     * @param halfmoveClock  plies since the last capture or pawn move
+     * @param fullmoveNumber number of the current full move, starting at 1
+     */
+    public void setMoveClocks(int halfmoveClock, int fullmoveNumber) {
+        this.halfmoveClock = halfmoveClock;
+        this.fullmoveNumber = fullmoveNumber;
+        statusCached = false;
+    }
+
     /** @return true if it is the given color's turn */
     public boolean isTurn(PlayerColor color) {
         return getTurn() == color;
@@ -112,13 +163,42 @@ public class GameState {
      * @param m the move to apply
      */
     public void applyMove(Move m) {
-        Position from = m.getFromPos();
-        Position to = m.getToPos();
-        Piece mover = getPieceAt(from);
-        Piece captured = getPieceAt(to);
+        makeMove(m);
+    }
+
+    /**
+     * Applies a move like {@link #applyMove(Move)} and returns the
+     * information needed to take it back with {@link #unmakeMove(UndoRecord)}.
+     *
+     * @param m the move to apply
+     * @return undo record for this move
+     */
+    public UndoRecord makeMove(Move m) {
+        return makeMove(PackedMove.fromMove(m));
+    }
+
+    /**
+     * Applies a {@link PackedMove packed move} and returns the information
+     * needed to take it back with {@link #unmakeMove(UndoRecord)}.
+     *
+     * @param move the packed move to apply
+     * @return undo record for this move
+     */
+    public UndoRecord makeMove(int move) {
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        MoveType type = PackedMove.type(move);
+        Piece mover = board.getPieceAt(from);
+        int capturedSquare = (type == MoveType.EN_PASSANT)
+                ? (from / 8) * 8 + to % 8
+                : to;
+        Piece captured = board.getPieceAt(capturedSquare);
+        UndoRecord undo = new UndoRecord(move, mover, captured, capturedSquare,
+                specialMoveHandler.getCastlingFlags(), specialMoveHandler.getEnPassantTarget(),
+                halfmoveClock, fullmoveNumber);
 
         // Reset halfmove clock if pawn moves or capture occurs
-        if (mover instanceof Pawn || captured != null || m.getMoveType() == MoveType.EN_PASSANT) {
+        if (mover instanceof Pawn || captured != null) {
             halfmoveClock = 0;
         } else {
             halfmoveClock++;
@@ -129,42 +209,63 @@ public class GameState {
             fullmoveNumber++;
         }
 
-        specialMoveHandler.updateHasMovedFlags(this, m);
-        specialMoveHandler.updateEnPassantTarget(this, m);
-
-        switch (m.getMoveType()) {
-            case MoveType.EN_PASSANT:
-                int toRank = m.getToPos().getRank();
-                int toFile = m.getToPos().getFile();
-                switch (getPieceColorAt(m)) {
-                    case PlayerColor.BLACK -> setPieceAt(toRank - 1, toFile, null);
-                    case PlayerColor.WHITE -> setPieceAt(toRank + 1, toFile, null);
-                }
-                break;
-            case MoveType.CASTLE:
-                specialMoveHandler.moveRookDuringCastle(this, m);
-                break;
-            case MoveType.PROMOTION:
-                if (m.getPromotion() == null)
-                    break; // skip if only probing
-                PlayerColor color = board.getPieceAt(m.getFromPos()).getColor();
-                mover = switch (m.getPromotion()) {
-                    case QUEEN -> new Queen(color, to);
-                    case ROOK -> new Rook(color, to);
-                    case BISHOP -> new Bishop(color, to);
-                    case KNIGHT -> new Knight(color, to);
-                };
-                break;
-            default:
-                break;
+        specialMoveHandler.updateHasMovedFlags(mover, from);
+        if (captured != null)
+            specialMoveHandler.updateCapturedRookFlags(capturedSquare);
+        specialMoveHandler.updateEnPassantTarget(mover, from, to);
+
+        Piece placed = mover;
+        switch (type) {
+            case EN_PASSANT -> setPieceAt(capturedSquare, null);
+            case CASTLE -> specialMoveHandler.moveRookDuringCastle(this, to);
+            case PROMOTION -> {
+                PromotionPiece promotion = PackedMove.promotion(move);
+                if (promotion != null) // null if only probing
+                    placed = Piece.of(mover.getColor(), switch (promotion) {
+                        case QUEEN -> PieceType.QUEEN;
+                        case ROOK -> PieceType.ROOK;
+                        case BISHOP -> PieceType.BISHOP;
+                        case KNIGHT -> PieceType.KNIGHT;
+                    });
+            }
+            default -> {
+            }
         }
 
         setPieceAt(from, null);
-        setPieceAt(m.getToPos(), mover);
+        setPieceAt(to, placed);
         changeTurn();
 
         // Add new position to history (ignoring move clocks for repetition)
-        positionHistory.add(com.jeremyzay.zaychess.services.application.notation.FenGenerator.toPositionFen(this));
+        pushPositionKey();
+        statusCached = false;
+        return undo;
+    }
+
+    /**
+     * Takes back the most recent move made with {@link #makeMove(int)}.
+     * Restores board, castling flags, en passant target, clocks, turn and
+     * position history. Records must be unmade in reverse order.
+     *
+     * @param undo the record returned when the move was made
+     */
+    public void unmakeMove(UndoRecord undo) {
+        int to = PackedMove.to(undo.move);
+        changeTurn();
+        positionCount--;
+
+        setPieceAt(to, null);
+        if (PackedMove.type(undo.move) == MoveType.CASTLE)
+            specialMoveHandler.restoreRookAfterCastle(this, to);
+        setPieceAt(PackedMove.from(undo.move), undo.mover);
+        if (undo.captured != null)
+            setPieceAt(undo.capturedSquare, undo.captured);
+
+        specialMoveHandler.setCastlingFlags(undo.castlingFlags);
+        specialMoveHandler.setEnPassantTarget(undo.enPassantTarget);
+        halfmoveClock = undo.halfmoveClock;
+        fullmoveNumber = undo.fullmoveNumber;
+        statusCached = false;
     }
 
     /** @return the runtime class type of the piece at the origin of a move */
@@ -179,39 +280,18 @@ public class GameState {
 
     /**
      * Determines whether the game is over.
-     * A game is over if the current player has no legal moves.
+     * A game is over if the current player has no legal moves, a draw
+     * condition holds, or a player resigned or agreed to a draw.
      *
-     * @return true if no legal moves remain
+     * @return true if {@link #getGameOverType()} is non-null
      */
     public boolean isGameOver() {
-        // 1. Check if any legal moves remain
-        boolean noMoves = true;
-        List<Piece> colorPieces = getPiecesOfColor(turn);
-        for (Piece piece : colorPieces) {
-            if (!(MoveGenerator.generateLegalMoves(this, piece.getPos())).isEmpty()) {
-                noMoves = false;
-                break;
-            }
-        }
-        if (noMoves)
-            return true;
-
-        // 2. Draw conditions
-        if (isInsufficientMaterial())
-            return true;
-        if (isThreefoldRepetition())
-            return true;
-        if (isFiftyMoveRule())
-            return true;
-
-        if (resignedColor != null)
-            return true;
-
-        return drawAgreed;
+        return getGameOverType() != null;
     }
 
     public void setDrawAgreed(boolean agreed) {
         this.drawAgreed = agreed;
+        statusCached = false;
     }
 
     public boolean isDrawAgreed() {
@@ -220,6 +300,7 @@ public class GameState {
 
     public void resign(PlayerColor color) {
         this.resignedColor = color;
+        statusCached = false;
     }
 
     public PlayerColor getResignedColor() {
@@ -227,67 +308,136 @@ public class GameState {
     }
 
     private boolean isInsufficientMaterial() {
-        List<Piece> white = board.getPiecesOfColor(PlayerColor.WHITE);
-        List<Piece> black = board.getPiecesOfColor(PlayerColor.BLACK);
+        int white = board.getPieceCount(PlayerColor.WHITE);
+        int black = board.getPieceCount(PlayerColor.BLACK);
 
-        if (white.size() == 1 && black.size() == 1)
+        if (white == 1 && black == 1)
             return true; // K vs K
 
-        if (white.size() == 2 && black.size() == 1) { // K + (B or N) vs K
-            Piece p = white.get(0) instanceof King ? white.get(1) : white.get(0);
-            if (p instanceof Bishop || p instanceof Knight)
-                return true;
-        }
-        if (white.size() == 1 && black.size() == 2) { // K vs K + (B or N)
-            Piece p = black.get(0) instanceof King ? black.get(1) : black.get(0);
-            if (p instanceof Bishop || p instanceof Knight)
-                return true;
-        }
-        if (white.size() == 2 && black.size() == 2) { // KB vs KB (same color bishops)
-            Piece wP = white.get(0) instanceof King ? white.get(1) : white.get(0);
-            Piece bP = black.get(0) instanceof King ? black.get(1) : black.get(0);
-            if (wP instanceof Bishop && bP instanceof Bishop) {
-                boolean wLight = (wP.getPos().getRank() + wP.getPos().getFile()) % 2 == 0;
-                boolean bLight = (bP.getPos().getRank() + bP.getPos().getFile()) % 2 == 0;
-                if (wLight == bLight)
-                    return true;
-            }
+        if (white == 2 && black == 1) // K + (B or N) vs K
+            return hasMinorPiece(PlayerColor.WHITE);
+        if (white == 1 && black == 2) // K vs K + (B or N)
+            return hasMinorPiece(PlayerColor.BLACK);
+        if (white == 2 && black == 2) { // KB vs KB (same color bishops)
+            long wB = board.getPieceBitboard(PlayerColor.WHITE, PieceType.BISHOP);
+            long bB = board.getPieceBitboard(PlayerColor.BLACK, PieceType.BISHOP);
+            if (wB != 0 && bB != 0)
+                return isLightSquare(Bitboards.firstSquare(wB)) == isLightSquare(Bitboards.firstSquare(bB));
         }
         return false;
     }
 
+    /** @return true if the color has a bishop or a knight */
+    private boolean hasMinorPiece(PlayerColor color) {
+        return board.getPieceCount(color, PieceType.BISHOP) + board.getPieceCount(color, PieceType.KNIGHT) > 0;
+    }
+
+    private static boolean isLightSquare(int square) {
+        return (square / 8 + square % 8) % 2 == 0;
+    }
+
+    /**
+     * Counts earlier occurrences of the current position key. Only positions
+     * with the same side to move (every second ply) since the last capture or
+     * pawn move can repeat, so the scan stops at the halfmove clock.
+     */
     private boolean isThreefoldRepetition() {
-        // FenGenerator.toFen simplified clock/turn counters make it useful for position
-        // comparison
-        if (positionHistory.isEmpty())
+        if (positionCount == 0)
             return false;
-        String current = positionHistory.get(positionHistory.size() - 1);
-        int count = 0;
-        for (String fen : positionHistory) {
-            if (fen.equals(current)) {
-                count++;
-            }
+        long current = positionKeys[positionCount - 1];
+        int oldest = Math.max(0, positionCount - 1 - halfmoveClock);
+        int count = 1;
+        for (int i = positionCount - 3; i >= oldest; i -= 2) {
+            if (positionKeys[i] == current && ++count >= 3)
+                return true;
         }
-        return count >= 3;
+        return false;
+    }
+
+    /**
+     * Returns the Zobrist hash of the current position: piece placement,
+     * side to move, castling rights and en passant file. Move clocks are
+     * not included, so equal keys mean a repeated position.
+     *
+     * The en passant file only counts when a pawn of the side to move
+     * stands next to the pawn that just advanced two squares, so move
+     * orders that transpose into the same position get the same key.
+     *
+     * @return 64-bit position key
+     */
+    public long getZobristKey() {
+        return positionKey();
+    }
+
+    /** Computes {@link #getZobristKey()}; private so constructors can call it. */
+    private long positionKey() {
+        long key = board.getZobristKey()
+                ^ Zobrist.castlingKey(specialMoveHandler.getCastlingRights(board));
+        Position ep = specialMoveHandler.getEnPassantTarget();
+        if (ep != null && canCaptureEnPassant(ep))
+            key ^= Zobrist.enPassantKey(ep.getFile());
+        if (turn == PlayerColor.BLACK)
+            key ^= Zobrist.blackToMoveKey();
+        return key;
+    }
+
+    /** @return whether a pawn of the side to move attacks the en passant target */
+    private boolean canCaptureEnPassant(Position ep) {
+        // the squares a pawn of the side to move can capture from are those
+        // an opposing pawn on the target would attack
+        return (Bitboards.pawnAttacks(turn.getOpposite(), ep.getIndex())
+                & board.getPieceBitboard(turn, PieceType.PAWN)) != 0;
+    }
+
+    /** Appends the current position key to the repetition history. */
+    private void pushPositionKey() {
+        if (!ownsPositionKeys || positionCount < sharedPositionKeys || positionCount == positionKeys.length) {
+            // copy-on-write: never touch a prefix another state can read
+            positionKeys = Arrays.copyOf(positionKeys, Math.max(64, positionCount * 2));
+            ownsPositionKeys = true;
+            sharedPositionKeys = 0;
+        }
+        positionKeys[positionCount++] = positionKey();
+    }
+
+    /**
+     * Restarts the repetition history from the current position.
+     * Call after setting up a position directly (e.g. from FEN) rather
+     * than by applying moves.
+     */
+    public void resetPositionHistory() {
+        positionCount = 0;
+        pushPositionKey();
+        statusCached = false;
     }
 
     private boolean isFiftyMoveRule() {
         return halfmoveClock >= 100;
     }
 
+    /**
+     * Classifies the current position. The result is cached and reused until
+     * a move is made or taken back, the state is restored, a player resigns
+     * or a draw is agreed; the position key is also compared so that direct
+     * board edits are never served a stale answer.
+     *
+     * @return how the game ended, or null if it is not over
+     */
     public GameOverType getGameOverType() {
-        // 1. Check if any legal moves remain
-        boolean noMoves = true;
-        List<Piece> colorPieces = getPiecesOfColor(turn);
-        for (Piece piece : colorPieces) {
-            if (!MoveGenerator.generateLegalMoves(this, piece.getPos()).isEmpty()) {
-                noMoves = false;
-                break;
-            }
-        }
+        long key = getZobristKey();
+        if (statusCached && statusKey == key)
+            return cachedStatus;
+        cachedStatus = computeGameOverType();
+        statusKey = key;
+        statusCached = true;
+        return cachedStatus;
+    }
 
-        if (noMoves) {
-            if (getKingOfColor(turn).isInCheck(this))
+    /** Uncached body of {@link #getGameOverType()}. */
+    private GameOverType computeGameOverType() {
+        // 1. Check if any legal moves remain
+        if (!MoveGenerator.hasAnyLegalMove(this)) {
+            if (isInCheck())
                 return GameOverType.CHECKMATE;
             return GameOverType.STALEMATE;
         }
@@ -317,12 +467,10 @@ public class GameState {
 
     /** @return the king piece of the given color (never null in valid states) */
     public King getKingOfColor(PlayerColor color) {
-        List<Piece> pieces = board.getPiecesOfColor(color);
-        for (Piece piece : pieces) {
-            if (piece instanceof King)
-                return (King) piece;
-        }
-        return null; // should never happen
+        int kingSquare = board.getKingSquare(color);
+        if (kingSquare < 0)
+            return null; // should never happen
+        return (King) board.getPieceAt(kingSquare);
     }
 
     /**
@@ -339,27 +487,22 @@ public class GameState {
 
     /** @return true if the current player is in check */
     public boolean isInCheck() {
-        return getKingOfColor(turn).isInCheck(this);
+        return MoveValidator.isSquareAttacked(board, board.getKingSquare(turn), turn.getOpposite());
     }
 
-    /**
-     * Places a piece on the board at the given position and updates its
-     * coordinates.
-     */
+    /** Places a piece on the board at the given position. */
     public void setPieceAt(Position pos, Piece piece) {
         getBoard().setPieceAt(pos, piece);
-        if (piece != null)
-            piece.updateCoords(pos);
     }
 
-    /**
-     * Places a piece on the board at the given coordinates and updates its
-     * coordinates.
-     */
+    /** Places a piece on the board at the given square index. */
+    public void setPieceAt(int square, Piece piece) {
+        getBoard().setPieceAt(square, piece);
+    }
+
+    /** Places a piece on the board at the given coordinates. */
     public void setPieceAt(int rank, int file, Piece piece) {
         getBoard().setPieceAt(rank, file, piece);
-        if (piece != null)
-            piece.updateCoords(rank, file);
     }
 
     /** @return the color of the piece at the given position */
@@ -367,7 +510,14 @@ public class GameState {
         return getPieceAt(from).getColor();
     }
 
-    /** @return a deep snapshot of this game state */
+    /**
+     * Captures this state for a later {@link #restoreFrom(GameState)}.
+     * The board is a fixed-size array copy and the repetition history is
+     * shared, so taking a snapshot per move keeps memory linear in the
+     * length of the game.
+     *
+     * @return a snapshot of this game state
+     */
     public GameState snapshot() {
         return new GameState(this);
     }
@@ -380,18 +530,17 @@ public class GameState {
      */
     public void restoreFrom(GameState snap) {
         this.turn = snap.turn;
-        for (int r = 0; r < 8; r++) {
-            for (int f = 0; f < 8; f++) {
-                Piece p = snap.board.getPieceAt(r, f);
-                setPieceAt(r, f, p == null ? null : p.copy());
-            }
-        }
+        this.board.copyFrom(snap.board);
         this.specialMoveHandler.copyFrom(snap.specialMoveHandler);
         this.halfmoveClock = snap.halfmoveClock;
         this.fullmoveNumber = snap.fullmoveNumber;
-        this.positionHistory.clear();
-        this.positionHistory.addAll(snap.positionHistory);
+        this.positionKeys = snap.positionKeys;
+        this.positionCount = snap.positionCount;
+        this.ownsPositionKeys = false;
+        this.sharedPositionKeys = 0;
+        snap.sharedPositionKeys = Math.max(snap.sharedPositionKeys, snap.positionCount);
         this.resignedColor = snap.resignedColor;
         this.drawAgreed = snap.drawAgreed;
+        this.statusCached = false;
     }
 }
@@ -0,0 +1,52 @@
+package com.jeremyzay.zaychess.model.game;
+
+import com.jeremyzay.zaychess.model.move.Move;
+import com.jeremyzay.zaychess.model.move.PackedMove;
+import com.jeremyzay.zaychess.model.pieces.Piece;
+import com.jeremyzay.zaychess.model.util.Position;
+
+/**
+ * Compact record of everything {@link GameState#makeMove(int)} overwrites.
+ *
+ * Holds the moved and captured pieces plus the irreversible state
+ * (castling flags, en passant target, clocks) as it was before the move,
+ * so that {@link GameState#unmakeMove(UndoRecord)} can restore the
+ * position in constant time without copying the game state.
+ */
+public final class UndoRecord {
+    final int move; // packed, see PackedMove
+    final Piece mover; // original piece, e.g. the pawn before promotion
+    final Piece captured; // nullable
+    final int capturedSquare; // differs from move target for en passant
+    final int castlingFlags;
+    final Position enPassantTarget; // nullable
+    final int halfmoveClock;
+    final int fullmoveNumber;
+
+    UndoRecord(int move, Piece mover, Piece captured, int capturedSquare,
+            int castlingFlags, Position enPassantTarget, int halfmoveClock, int fullmoveNumber) {
+        this.move = move;
+        this.mover = mover;
+        this.captured = captured;
+        this.capturedSquare = capturedSquare;
+        this.castlingFlags = castlingFlags;
+        this.enPassantTarget = enPassantTarget;
+        this.halfmoveClock = halfmoveClock;
+        this.fullmoveNumber = fullmoveNumber;
+    }
+
+    /** @return the move this record undoes */
+    public Move getMove() {
+        return PackedMove.toMove(move);
+    }
+
+    /** @return the move this record undoes, in packed form */
+    public int getPackedMove() {
+        return move;
+    }
+
+    /** @return the captured piece, or null if the move was not a capture */
+    public Piece getCaptured() {
+        return captured;
+    }
+}
@@ -0,0 +1,243 @@
+package com.jeremyzay.zaychess.model.move;
+
+import com.jeremyzay.zaychess.model.board.Bitboards;
+import com.jeremyzay.zaychess.model.board.Board;
+import com.jeremyzay.zaychess.model.game.GameState;
+import com.jeremyzay.zaychess.model.pieces.PieceType;
+import com.jeremyzay.zaychess.model.util.PlayerColor;
+import com.jeremyzay.zaychess.model.util.Position;
+
+/**
+ * Generates legal moves without trying them on the board.
+ * 
+ * Finds the pieces giving check and the pieces pinned to the king once per
+ * position, then emits only legal moves:
+ * - in double check, only king moves;
+ * - in single check, moves that capture the checker or block its line;
+ * - pinned pieces only along the line through their king and pinner;
+ * - king moves only to squares that stay unattacked once the king has left
+ *   its square.
+ * En passant removes two pieces from the same rank, so it is checked against
+ * the occupancy after the capture. Castling is delegated to
+ * {@link SpecialMoveHandler}, which already tests every square the king
+ * crosses.
+ * 
+ * Produces the same moves as the make/unmake filtering in
+ * {@link MoveGenerator#generateLegalMoves(GameState, int, MoveList)},
+ * though not in the same order.
+ */
+public final class LegalMoveGenerator {
+    private LegalMoveGenerator() {
+    } // utility class
+
+    /** Non-pawn, non-king piece types, in generation order. */
+    private static final PieceType[] PIECE_TYPES = {
+            PieceType.KNIGHT, PieceType.BISHOP, PieceType.ROOK, PieceType.QUEEN
+    };
+
+    /**
+     * Appends every legal move for the side to move as packed moves.
+     * The state must contain a king of that color.
+     *
+     * @param state current game state (not modified)
+     * @param moves buffer to append to
+     */
+    public static void generate(GameState state, MoveList moves) {
+        generate(state, moves, false);
+    }
+
+    /**
+     * Tests whether the side to move has at least one legal move. Runs the
+     * same stages as {@link #generate(GameState, MoveList)}, cheapest first
+     * (king steps, then pawns, then pieces one by one), and returns as soon
+     * as any stage produces a move.
+     *
+     * @param state current game state (not modified)
+     * @return true if a legal move exists
+     */
+    public static boolean hasAnyLegalMove(GameState state) {
+        return generate(state, new MoveList(32), true);
+    }
+
+    /**
+     * Shared body of {@link #generate(GameState, MoveList)} and
+     * {@link #hasAnyLegalMove(GameState)}.
+     *
+     * @param firstOnly stop after the first stage that adds a move
+     * @return true if any move was added
+     */
+    private static boolean generate(GameState state, MoveList moves, boolean firstOnly) {
+        int start = moves.size();
+        Board board = state.getBoard();
+        PlayerColor us = state.getTurn();
+        PlayerColor them = us.getOpposite();
+        long own = board.getOccupancy(us);
+        long enemy = board.getOccupancy(them);
+        long occupied = own | enemy;
+        int king = Bitboards.firstSquare(board.getPieceBitboard(us, PieceType.KING));
+
+        addKingMoves(board, king, them, own, enemy, occupied, moves);
+        if (firstOnly && moves.size() > start)
+            return true;
+
+        long checkers = board.attackersTo(king, them);
+        if (Long.bitCount(checkers) > 1)
+            return moves.size() > start; // double check: only the king can move
+
+        long targetMask = ~own;
+        if (checkers != 0)
+            targetMask &= checkers | Bitboards.between(king, Bitboards.firstSquare(checkers));
+        long pinned = pinnedPieces(board, king, them, own, occupied);
+
+        addPawnMoves(board, us, king, pinned, enemy, targetMask, moves);
+        if (firstOnly && moves.size() > start)
+            return true;
+        for (PieceType type : PIECE_TYPES) {
+            long pieces = board.getPieceBitboard(us, type);
+            while (pieces != 0) {
+                int from = Bitboards.firstSquare(pieces);
+                pieces &= pieces - 1;
+                long targets = attacks(type, from, occupied) & targetMask;
+                if ((pinned & Bitboards.bit(from)) != 0)
+                    targets &= Bitboards.line(king, from);
+                addTargets(from, targets, enemy, moves);
+                if (firstOnly && moves.size() > start)
+                    return true;
+            }
+        }
+        addEnPassantMoves(state, board, us, king, occupied, moves);
+        if (checkers == 0)
+            state.getSpecialMoveHandler().addCastlingMoves(state, king, moves);
+        return moves.size() > start;
+    }
+
+    /** @return attack mask of a knight or slider of the given type */
+    private static long attacks(PieceType type, int from, long occupied) {
+        return switch (type) {
+            case KNIGHT -> Bitboards.knightAttacks(from);
+            case BISHOP -> Bitboards.bishopAttacks(from, occupied);
+            case ROOK -> Bitboards.rookAttacks(from, occupied);
+            case QUEEN -> Bitboards.queenAttacks(from, occupied);
+            default -> 0L;
+        };
+    }
+
+    /** Appends a NORMAL or CAPTURE move to every square in {@code targets}. */
+    private static void addTargets(int from, long targets, long enemy, MoveList moves) {
+        while (targets != 0) {
+            int to = Bitboards.firstSquare(targets);
+            targets &= targets - 1;
+            MoveType type = (enemy & Bitboards.bit(to)) != 0 ? MoveType.CAPTURE : MoveType.NORMAL;
+            moves.add(PackedMove.encode(from, to, type));
+        }
+    }
+
+    /**
+     * Adds king steps to squares that are not attacked. The king is removed
+     * from the occupancy so that it cannot hide behind itself on a checking ray.
+     */
+    private static void addKingMoves(Board board, int king, PlayerColor them, long own, long enemy,
+            long occupied, MoveList moves) {
+        long withoutKing = occupied & ~Bitboards.bit(king);
+        long targets = Bitboards.kingAttacks(king) & ~own;
+        while (targets != 0) {
+            int to = Bitboards.firstSquare(targets);
+            targets &= targets - 1;
+            if (!MoveValidator.isSquareAttacked(board, to, them, withoutKing)) {
+                MoveType type = (enemy & Bitboards.bit(to)) != 0 ? MoveType.CAPTURE : MoveType.NORMAL;
+                moves.add(PackedMove.encode(king, to, type));
+            }
+        }
+    }
+
+    /**
+     * Finds pieces of the king's side that are the only piece between the
+     * king and an enemy slider on the same line.
+     *
+     * @return mask of pinned pieces
+     */
+    private static long pinnedPieces(Board board, int king, PlayerColor them, long own, long occupied) {
+        long queens = board.getPieceBitboard(them, PieceType.QUEEN);
+        long snipers = (Bitboards.rookAttacks(king, 0L)
+                & (board.getPieceBitboard(them, PieceType.ROOK) | queens))
+                | (Bitboards.bishopAttacks(king, 0L)
+                        & (board.getPieceBitboard(them, PieceType.BISHOP) | queens));
+        long pinned = 0L;
+        while (snipers != 0) {
+            int sniper = Bitboards.firstSquare(snipers);
+            snipers &= snipers - 1;
+            long blockers = Bitboards.between(king, sniper) & occupied;
+            if (blockers != 0 && (blockers & (blockers - 1)) == 0)
+                pinned |= blockers & own;
+        }
+        return pinned;
+    }
+
+    /**
+     * Adds pawn pushes, double pushes and diagonal captures. Moves onto the
+     * last rank are emitted once as {@link MoveType#PROMOTION} with no piece
+     * chosen, as the piece generators do.
+     */
+    private static void addPawnMoves(Board board, PlayerColor us, int king, long pinned, long enemy,
+            long targetMask, MoveList moves) {
+        boolean white = us == PlayerColor.WHITE;
+        int push = white ? -8 : 8;
+        int startRank = white ? 6 : 1;
+        int promotionRank = white ? 0 : 7;
+
+        long pawns = board.getPieceBitboard(us, PieceType.PAWN);
+        while (pawns != 0) {
+            int from = Bitboards.firstSquare(pawns);
+            pawns &= pawns - 1;
+            long allowed = targetMask;
+            if ((pinned & Bitboards.bit(from)) != 0)
+                allowed &= Bitboards.line(king, from);
+
+            int one = from + push;
+            if (one >= 0 && one < 64 && board.getPieceAt(one) == null) {
+                if ((allowed & Bitboards.bit(one)) != 0)
+                    moves.add(PackedMove.encode(from, one,
+                            one / 8 == promotionRank ? MoveType.PROMOTION : MoveType.NORMAL));
+                int two = one + push;
+                if (from / 8 == startRank && board.getPieceAt(two) == null
+                        && (allowed & Bitboards.bit(two)) != 0)
+                    moves.add(PackedMove.encode(from, two, MoveType.NORMAL));
+            }
+
+            long captures = Bitboards.pawnAttacks(us, from) & enemy & allowed;
+            while (captures != 0) {
+                int to = Bitboards.firstSquare(captures);
+                captures &= captures - 1;
+                moves.add(PackedMove.encode(from, to,
+                        to / 8 == promotionRank ? MoveType.PROMOTION : MoveType.CAPTURE));
+            }
+        }
+    }
+
+    /**
+     * Adds en passant captures that do not expose the king. Both the moving
+     * and the captured pawn leave the occupancy, which also catches the
+     * horizontal discovered check along the capturing rank.
+     */
+    private static void addEnPassantMoves(GameState state, Board board, PlayerColor us, int king,
+            long occupied, MoveList moves) {
+        SpecialMoveHandler smHandler = state.getSpecialMoveHandler();
+        Position target = smHandler.getEnPassantTarget();
+        if (target == null)
+            return;
+
+        int to = target.getIndex();
+        long candidates = Bitboards.pawnAttacks(us.getOpposite(), to)
+                & board.getPieceBitboard(us, PieceType.PAWN);
+        while (candidates != 0) {
+            int from = Bitboards.firstSquare(candidates);
+            candidates &= candidates - 1;
+            if (!smHandler.isEnPassantValid(state, from, to))
+                continue;
+            int captured = (from / 8) * 8 + to % 8;
+            long after = (occupied & ~Bitboards.bit(from) & ~Bitboards.bit(captured)) | Bitboards.bit(to);
+            if (!MoveValidator.isSquareAttacked(board, king, us.getOpposite(), after))
+                moves.add(PackedMove.encode(from, to, MoveType.EN_PASSANT));
+        }
+    }
+}
@@ -1,7 +1,6 @@
 package com.jeremyzay.zaychess.model.move;
 
 import java.util.List;
-import java.util.ArrayList;
 
 import com.jeremyzay.zaychess.model.game.GameState;
 import com.jeremyzay.zaychess.model.util.Position;
@@ -18,29 +17,47 @@ public abstract class MoveGenerator {
     /**
      * Generates all legal moves for the piece at a given position.
      * 
-     * Includes pseudo-legal moves from the piece itself, then augments
-     * with special moves (castling, en passant), and finally filters out
-     * those leaving the king in check.
+     * Adapter over {@link #generateLegalMoves(GameState, int, MoveList)} for
+     * callers that work with {@link Move} objects.
      *
      * @param s   the game state
      * @param pos the position of the piece to move
      * @return list of fully legal moves
      */
     public static List<Move> generateLegalMoves(GameState s, Position pos) {
-        List<Move> pseudoLegalMoves = s.getPieceAt(pos).generatePseudoLegalMoves(s, pos);
-        List<Move> legalMoves = new ArrayList<>();
+        MoveList moves = new MoveList(32);
+        generateLegalMoves(s, pos.getIndex(), moves);
+        return moves.toMoves();
+    }
+
+    /**
+     * Appends all legal moves for the piece on a square as packed moves.
+     * 
+     * Includes pseudo-legal moves from the piece itself, then augments
+     * with special moves (castling, en passant), and finally filters out
+     * those leaving the king in check. Filtering compacts the list in place,
+     * so moves already in {@code moves} are left untouched.
+     *
+     * @param s     the game state
+     * @param from  square index of the piece to move
+     * @param moves buffer to append to
+     */
+    public static void generateLegalMoves(GameState s, int from, MoveList moves) {
+        int start = moves.size();
         SpecialMoveHandler smHandler = s.getSpecialMoveHandler();
 
-        smHandler.addEnPassantMoves(s, pos, pseudoLegalMoves);
-        smHandler.addCastlingMoves(s, pos, pseudoLegalMoves);
+        s.getBoard().getPieceAt(from).addPseudoLegalMoves(s, from, moves);
+        smHandler.addEnPassantMoves(s, from, moves);
+        smHandler.addCastlingMoves(s, from, moves);
 
-        for (Move move : pseudoLegalMoves) {
-            if (MoveValidator.isValidMove(s, move)) {
-                legalMoves.add(move);
+        int kept = start;
+        for (int i = start; i < moves.size(); i++) {
+            int move = moves.get(i);
+            if (!MoveValidator.leavesKingInCheck(s, move)) {
+                moves.set(kept++, move);
             }
         }
-
-        return legalMoves;
+        moves.truncate(kept);
     }
 
     /**
@@ -50,12 +67,31 @@ public abstract class MoveGenerator {
      * @return list of all fully legal moves for the active color
      */
     public static List<Move> generateAllLegalMovesInTurn(GameState gameState) {
-        List<Move> allMoves = new ArrayList<>();
-        List<com.jeremyzay.zaychess.model.pieces.Piece> pieces = gameState.getPiecesOfColor(gameState.getTurn());
-        for (com.jeremyzay.zaychess.model.pieces.Piece piece : pieces) {
-            allMoves.addAll(generateLegalMoves(gameState, piece.getPos()));
-        }
-        return allMoves;
+        MoveList moves = new MoveList();
+        generateAllLegalMovesInTurn(gameState, moves);
+        return moves.toMoves();
+    }
+
+    /**
+     * Appends all legal moves for the player whose turn it is as packed moves.
+     * Uses {@link LegalMoveGenerator}, which needs no make/unmake probes.
+     *
+     * @param gameState current state
+     * @param moves     buffer to append to
+     */
+    public static void generateAllLegalMovesInTurn(GameState gameState, MoveList moves) {
+        LegalMoveGenerator.generate(gameState, moves);
+    }
+
+    /**
+     * Tests whether the player whose turn it is has any legal move,
+     * stopping at the first one found.
+     *
+     * @param gameState current state
+     * @return true if at least one legal move exists
+     */
+    public static boolean hasAnyLegalMove(GameState gameState) {
+        return LegalMoveGenerator.hasAnyLegalMove(gameState);
     }
 
     /**
@@ -0,0 +1,71 @@
+package com.jeremyzay.zaychess.model.move;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Growable buffer of {@link PackedMove packed moves}.
+ *
+ * Move generators append to a caller-supplied list, so one instance can be
+ * cleared and reused across many positions without allocating per move.
+ */
+public final class MoveList {
+    private int[] moves;
+    private int size;
+
+    /** Creates an empty list with room for a typical position's moves. */
+    public MoveList() {
+        this(256);
+    }
+
+    /** Creates an empty list with the given initial capacity. */
+    public MoveList(int capacity) {
+        moves = new int[capacity];
+    }
+
+    /** Appends a packed move. */
+    public void add(int move) {
+        if (size == moves.length)
+            moves = Arrays.copyOf(moves, size * 2);
+        moves[size++] = move;
+    }
+
+    /** @return the packed move at {@code index} */
+    public int get(int index) {
+        return moves[index];
+    }
+
+    /** Overwrites the packed move at {@code index}. */
+    public void set(int index, int move) {
+        moves[index] = move;
+    }
+
+    /** @return number of moves in the list */
+    public int size() {
+        return size;
+    }
+
+    /** @return true if the list holds no moves */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /** Removes all moves, keeping the backing array. */
+    public void clear() {
+        size = 0;
+    }
+
+    /** Drops every move from {@code newSize} onwards. */
+    public void truncate(int newSize) {
+        size = newSize;
+    }
+
+    /** @return the moves converted to {@link Move} objects, in order */
+    public List<Move> toMoves() {
+        List<Move> list = new ArrayList<>(size);
+        for (int i = 0; i < size; i++)
+            list.add(PackedMove.toMove(moves[i]));
+        return list;
+    }
+}
@@ -1,11 +1,18 @@
 package com.jeremyzay.zaychess.model.move;
 
+import com.jeremyzay.zaychess.model.board.Bitboards;
+import com.jeremyzay.zaychess.model.board.Board;
 import com.jeremyzay.zaychess.model.game.GameState;
+import com.jeremyzay.zaychess.model.game.UndoRecord;
+import com.jeremyzay.zaychess.model.pieces.PieceType;
+import com.jeremyzay.zaychess.model.util.PlayerColor;
+import com.jeremyzay.zaychess.model.util.Position;
 
 /**
  * Provides static methods to validate moves against chess rules.
  * 
- * Currently ensures that a move does not leave the player's king in check.
+ * Ensures that a move does not leave the player's king in check, and
+ * provides the square-attack test used for check and castling detection.
  */
 public class MoveValidator {
 
@@ -23,16 +30,96 @@ public class MoveValidator {
     /**
      * Tests whether a move would leave the mover's king in check.
      * 
-     * Simulates the move on a copy of the game state and checks the result.
+     * Makes the move on the given state, checks the result, and takes the
+     * move back again, leaving the state unchanged.
      *
      * @param gameState current game state
      * @param move      the move to test
      * @return true if the king is in check after the move
      */
     public static boolean leavesKingInCheck(GameState gameState, Move move) {
-        GameState probe = gameState.copy();
-        probe.applyMove(move);     // simulate the move
-        probe.changeTurn();        // switch back to mover's perspective
-        return probe.isInCheck();
+        return leavesKingInCheck(gameState, PackedMove.fromMove(move));
+    }
+
+    /**
+     * Tests whether a {@link PackedMove packed move} would leave the mover's
+     * king in check, leaving the state unchanged.
+     *
+     * @param gameState current game state
+     * @param move      the packed move to test
+     * @return true if the king is in check after the move
+     */
+    public static boolean leavesKingInCheck(GameState gameState, int move) {
+        Board board = gameState.getBoard();
+        PlayerColor mover = board.getPieceAt(PackedMove.from(move)).getColor();
+        UndoRecord undo = gameState.makeMove(move); // simulate the move
+        try {
+            int king = Bitboards.firstSquare(board.getPieceBitboard(mover, PieceType.KING));
+            return isSquareAttacked(board, king, mover.getOpposite());
+        } finally {
+            gameState.unmakeMove(undo);
+        }
+    }
+
+    /**
+     * Checks whether a square is attacked by any piece of the given color.
+     *
+     * @param board   the board to inspect
+     * @param square  the target square
+     * @param byColor the attacking side
+     * @return true if at least one piece of {@code byColor} attacks the square
+     */
+    public static boolean isSquareAttacked(Board board, Position square, PlayerColor byColor) {
+        return isSquareAttacked(board, square.getIndex(), byColor);
+    }
+
+    /**
+     * Checks whether a square is attacked by any piece of the given color.
+     * 
+     * Looks outward from the target square: a pawn, knight or king attacks
+     * it exactly when it stands on a square that the same piece type (of the
+     * other color, for pawns) would attack from the target. Sliders are found
+     * by casting rook and bishop rays from the target up to the first
+     * blocker. Cheap leaper tests run first and the method returns as soon
+     * as one attacker is found.
+     *
+     * @param board   the board to inspect
+     * @param square  target board index 0..63
+     * @param byColor the attacking side
+     * @return true if at least one piece of {@code byColor} attacks the square
+     */
+    public static boolean isSquareAttacked(Board board, int square, PlayerColor byColor) {
+        return isSquareAttacked(board, square, byColor, board.getOccupancy());
+    }
+
+    /**
+     * Checks whether a square would be attacked by the given color if only
+     * the squares in {@code occupied} held pieces. Attackers outside the mask
+     * are ignored and sliders see through vacated squares, which lets callers
+     * test a position after pieces leave squares without making the move.
+     *
+     * @param board    the board to inspect
+     * @param square   target board index 0..63
+     * @param byColor  the attacking side
+     * @param occupied squares treated as occupied
+     * @return true if at least one remaining piece of {@code byColor} attacks the square
+     */
+    public static boolean isSquareAttacked(Board board, int square, PlayerColor byColor, long occupied) {
+        if ((Bitboards.pawnAttacks(byColor.getOpposite(), square)
+                & board.getPieceBitboard(byColor, PieceType.PAWN) & occupied) != 0)
+            return true;
+        if ((Bitboards.knightAttacks(square)
+                & board.getPieceBitboard(byColor, PieceType.KNIGHT) & occupied) != 0)
+            return true;
+        if ((Bitboards.kingAttacks(square)
+                & board.getPieceBitboard(byColor, PieceType.KING) & occupied) != 0)
+            return true;
+
+        long queens = board.getPieceBitboard(byColor, PieceType.QUEEN);
+        long straight = (board.getPieceBitboard(byColor, PieceType.ROOK) | queens) & occupied;
+        if (straight != 0 && (Bitboards.rookAttacks(square, occupied) & straight) != 0)
+            return true;
+        long diagonal = (board.getPieceBitboard(byColor, PieceType.BISHOP) | queens) & occupied;
+        return diagonal != 0 && (Bitboards.bishopAttacks(square, occupied) & diagonal) != 0;
     }
 }
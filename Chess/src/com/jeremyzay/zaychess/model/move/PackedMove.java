@@ -0,0 +1,95 @@
+package com.jeremyzay.zaychess.model.move;
+
+import com.jeremyzay.zaychess.model.util.Position;
+
+/**
+ * Utility class for encoding moves as primitive {@code int}s.
+ *
+ * Move generation works on packed moves so that no {@link Move} or
+ * {@link Position} objects are created per candidate move. The
+ * {@link #toMove(int)} and {@link #fromMove(Move)} adapters convert at the
+ * UI and network boundary.
+ *
+ * Layout (low to high bits):
+ * - bits 0..5:   origin square index (rank * 8 + file)
+ * - bits 6..11:  destination square index
+ * - bits 12..14: {@link MoveType} ordinal
+ * - bits 15..17: promotion piece ordinal + 1, or 0 if none chosen
+ */
+public final class PackedMove {
+    private PackedMove() {
+    } // utility class
+
+    private static final MoveType[] MOVE_TYPES = MoveType.values();
+    private static final PromotionPiece[] PROMOTIONS = PromotionPiece.values();
+
+    /**
+     * Encodes a move without promotion payload.
+     *
+     * @param from origin square index
+     * @param to   destination square index
+     * @param type move type
+     * @return packed move
+     */
+    public static int encode(int from, int to, MoveType type) {
+        return from | (to << 6) | (type.ordinal() << 12);
+    }
+
+    /**
+     * Encodes a move with an optional promotion payload.
+     *
+     * @param promotion promotion piece, or null if none (yet)
+     * @return packed move
+     */
+    public static int encode(int from, int to, MoveType type, PromotionPiece promotion) {
+        int move = encode(from, to, type);
+        return promotion == null ? move : withPromotion(move, promotion);
+    }
+
+    /** @return origin square index */
+    public static int from(int move) {
+        return move & 0x3F;
+    }
+
+    /** @return destination square index */
+    public static int to(int move) {
+        return (move >>> 6) & 0x3F;
+    }
+
+    /** @return the move type */
+    public static MoveType type(int move) {
+        return MOVE_TYPES[(move >>> 12) & 0x7];
+    }
+
+    /** @return the promotion piece, or null if none is encoded */
+    public static PromotionPiece promotion(int move) {
+        int p = (move >>> 15) & 0x7;
+        return p == 0 ? null : PROMOTIONS[p - 1];
+    }
+
+    /** @return the same move with the given promotion payload */
+    public static int withPromotion(int move, PromotionPiece promotion) {
+        return (move & ~(0x7 << 15)) | ((promotion.ordinal() + 1) << 15);
+    }
+
+    /**
+     * Converts a packed move into a {@link Move} object.
+     *
+     * @param move packed move
+     * @return equivalent move object
+     */
+    public static Move toMove(int move) {
+        return new Move(Position.of(from(move)), Position.of(to(move)), type(move), promotion(move));
+    }
+
+    /**
+     * Converts a {@link Move} object into its packed form.
+     *
+     * @param m move object
+     * @return packed move
+     */
+    public static int fromMove(Move m) {
+        Position from = m.getFromPos(), to = m.getToPos();
+        return encode(from.getIndex(), to.getIndex(), m.getMoveType(), m.getPromotion());
+    }
+}
@@ -2,6 +2,7 @@ package com.jeremyzay.zaychess.model.move;
 
 import java.util.List;
 
+import com.jeremyzay.zaychess.model.board.Board;
 import com.jeremyzay.zaychess.model.game.GameState;
 import com.jeremyzay.zaychess.model.pieces.*;
 import com.jeremyzay.zaychess.model.pieces.King;
@@ -56,12 +57,25 @@ public class SpecialMoveHandler {
      * @param pseudoLegalMoves list to append moves to
      */
     public void addEnPassantMoves(GameState s, Position pos, List<Move> pseudoLegalMoves) {
+        MoveList moves = new MoveList(1);
+        addEnPassantMoves(s, pos.getIndex(), moves);
+        pseudoLegalMoves.addAll(moves.toMoves());
+    }
+
+    /**
+     * Adds the en passant capture, as a packed move, if available and valid.
+     *
+     * @param s     current game state
+     * @param from  the pawn's square index
+     * @param moves buffer to append to
+     */
+    public void addEnPassantMoves(GameState s, int from, MoveList moves) {
         if (enPassantTarget == null)
             return;
 
-        Move epMove = new Move(pos, enPassantTarget, MoveType.EN_PASSANT);
-        if (isEnPassantValid(s, epMove)) {
-            pseudoLegalMoves.add(epMove);
+        int to = enPassantTarget.getIndex();
+        if (isEnPassantValid(s, from, to)) {
+            moves.add(PackedMove.encode(from, to, MoveType.EN_PASSANT));
         }
     }
 
@@ -73,27 +87,39 @@ public class SpecialMoveHandler {
      * @return true if it represents a valid en passant capture
      */
     public boolean isEnPassantValid(GameState s, Move m) {
+        Position from = m.getFromPos();
+        Position to = m.getToPos();
+        return isEnPassantValid(s, from.getIndex(), to.getIndex());
+    }
+
+    /**
+     * Checks if an en passant capture between two squares is valid.
+     *
+     * @param s    game state
+     * @param from origin square index
+     * @param to   destination square index
+     * @return true if it represents a valid en passant capture
+     */
+    public boolean isEnPassantValid(GameState s, int from, int to) {
         if (enPassantTarget == null)
             return false;
 
-        Position from = m.getFromPos();
-        Position to = m.getToPos();
-        Piece mover = s.getPieceAt(from);
+        Board board = s.getBoard();
+        Piece mover = board.getPieceAt(from);
         if (!(mover instanceof Pawn))
             return false;
-        if (!to.equals(enPassantTarget))
+        if (to != enPassantTarget.getIndex())
             return false;
 
         int dir = getDir(mover.getColor());
-        if (to.getRank() - from.getRank() != dir)
+        if (to / 8 - from / 8 != dir)
             return false;
-        if (Math.abs(to.getFile() - from.getFile()) != 1)
+        if (Math.abs(to % 8 - from % 8) != 1)
             return false;
-        if (s.getPieceAt(to) != null)
+        if (board.getPieceAt(to) != null)
             return false;
 
-        Position capturedPos = new Position(from.getRank(), to.getFile());
-        Piece captured = s.getPieceAt(capturedPos);
+        Piece captured = board.getPieceAt((from / 8) * 8 + to % 8);
         if (!(captured instanceof Pawn))
             return false;
         if (captured.getColor() == mover.getColor())
@@ -111,24 +137,24 @@ public class SpecialMoveHandler {
      * Updates the en passant target square after a pawn's move.
      * If the pawn advanced two squares from its start rank,
      * sets the midpoint square as the target.
+     *
+     * @param mover the piece that moved
+     * @param from  origin square index
+     * @param to    destination square index
      */
-    public void updateEnPassantTarget(GameState s, Move m) {
+    public void updateEnPassantTarget(Piece mover, int from, int to) {
         this.enPassantTarget = null;
 
-        Position from = m.getFromPos();
-        Position to = m.getToPos();
-
-        Piece mover = s.getPieceAt(from);
         if (!(mover instanceof Pawn))
             return;
 
-        int fromRank = from.getRank();
-        int toRank = to.getRank();
-        int file = from.getFile();
+        int fromRank = from / 8;
+        int toRank = to / 8;
+        int file = from % 8;
 
         if (Math.abs(toRank - fromRank) == 2 && fromRank == pawnStartRank(mover.getColor())) {
             int midRank = (fromRank + toRank) / 2;
-            this.enPassantTarget = new Position(midRank, file);
+            this.enPassantTarget = Position.of(midRank, file);
         }
     }
 
@@ -148,23 +174,33 @@ public class SpecialMoveHandler {
      * @param pseudoLegalMoves list to append moves to
      */
     public void addCastlingMoves(GameState s, Position from, List<Move> pseudoLegalMoves) {
-        Piece p = s.getPieceAt(from);
+        MoveList moves = new MoveList(2);
+        addCastlingMoves(s, from.getIndex(), moves);
+        pseudoLegalMoves.addAll(moves.toMoves());
+    }
+
+    /**
+     * Adds castling moves, as packed moves, for a king at its home square
+     * if conditions allow. Queenside is added before kingside.
+     *
+     * @param s     game state
+     * @param from  king's square index
+     * @param moves buffer to append to
+     */
+    public void addCastlingMoves(GameState s, int from, MoveList moves) {
+        Piece p = s.getBoard().getPieceAt(from);
         if (!(p instanceof King))
             return;
 
-        if (from.getFile() != 4)
+        if (from % 8 != 4)
             return;
-        if (from.getRank() != kingRookStartRank(p.getColor()))
+        if (from / 8 != kingRookStartRank(p.getColor()))
             return;
 
-        Move queenside = new Move(from, new Position(from.getRank(), 2), MoveType.CASTLE);
-        Move kingside = new Move(from, new Position(from.getRank(), 6), MoveType.CASTLE);
-
-        for (Move m : new Move[] { queenside, kingside }) {
-            if (isCastlingValid(s, m)) {
-                pseudoLegalMoves.add(m);
-            }
-        }
+        if (isCastlingValid(s, from, from - 2))
+            moves.add(PackedMove.encode(from, from - 2, MoveType.CASTLE));
+        if (isCastlingValid(s, from, from + 2))
+            moves.add(PackedMove.encode(from, from + 2, MoveType.CASTLE));
     }
 
     /**
@@ -177,28 +213,42 @@ public class SpecialMoveHandler {
     public boolean isCastlingValid(GameState s, Move m) {
         Position from = m.getFromPos();
         Position to = m.getToPos();
+        return isCastlingValid(s, from.getIndex(), to.getIndex());
+    }
 
-        Piece mover = s.getPieceAt(from);
+    /**
+     * Validates a castling move between two squares according to chess rules.
+     *
+     * @param s    current game state
+     * @param from king's square index
+     * @param to   king's destination square index
+     * @return true if castling is legal
+     */
+    public boolean isCastlingValid(GameState s, int from, int to) {
+        Board board = s.getBoard();
+        Piece mover = board.getPieceAt(from);
         if (!(mover instanceof King))
             return false;
 
         PlayerColor us = mover.getColor();
         PlayerColor them = us.getOpposite();
 
-        if (from.getRank() != kingRookStartRank(us))
+        int rank = from / 8;
+        int fromFile = from % 8;
+        if (rank != kingRookStartRank(us))
             return false;
-        if (from.getFile() != 4)
+        if (fromFile != 4)
             return false;
 
-        int toFile = to.getFile();
-        if (to.getRank() != from.getRank())
+        int toFile = to % 8;
+        if (to / 8 != rank)
             return false;
         boolean kingSide = (toFile == 6);
         boolean queenSide = (toFile == 2);
         if (!(kingSide || queenSide))
             return false;
 
-        if (s.getPieceAt(to) != null)
+        if (board.getPieceAt(to) != null)
             return false;
 
         if (us == PlayerColor.WHITE) {
@@ -218,39 +268,27 @@ public class SpecialMoveHandler {
         }
 
         int rookFile = kingSide ? 7 : 0;
-        Position rookPos = new Position(from.getRank(), rookFile);
-        Piece rook = s.getPieceAt(rookPos);
+        Piece rook = board.getPieceAt(rank * 8 + rookFile);
         if (!(rook instanceof Rook) || rook.getColor() != us)
             return false;
 
-        int stepKR = (rookFile > from.getFile()) ? 1 : -1;
-        for (int f = from.getFile() + stepKR; f != rookFile; f += stepKR) {
-            if (s.getPieceAt(new Position(from.getRank(), f)) != null)
+        int stepKR = (rookFile > fromFile) ? 1 : -1;
+        for (int f = fromFile + stepKR; f != rookFile; f += stepKR) {
+            if (board.getPieceAt(rank * 8 + f) != null)
                 return false;
         }
 
-        if (s.getKingOfColor(us).isInCheck(s))
+        if (MoveValidator.isSquareAttacked(board, from, them))
             return false;
-        int stepK = (toFile > from.getFile()) ? 1 : -1;
-        for (int f = from.getFile() + stepK; f != toFile + stepK; f += stepK) {
-            Position sq = new Position(from.getRank(), f);
-            if (isSquareAttacked(s, sq, them))
+        int stepK = (toFile > fromFile) ? 1 : -1;
+        for (int f = fromFile + stepK; f != toFile + stepK; f += stepK) {
+            if (MoveValidator.isSquareAttacked(board, rank * 8 + f, them))
                 return false;
         }
 
         return true;
     }
 
-    /** Helper: checks whether a square is attacked by the opponent. */
-    private boolean isSquareAttacked(GameState s, Position sq, PlayerColor them) {
-        GameState probe = s.copy();
-        King king = probe.getKingOfColor(them.getOpposite());
-        Move m = new Move(king.getPos(), sq, MoveType.NORMAL);
-        probe.applyMove(m);
-        probe.changeTurn();
-        return king.isInCheck(probe);
-    }
-
     /** Prints internal flags (debug helper). */
     public void printHasMovedFlags() {
         System.out.println(
@@ -315,16 +353,103 @@ public class SpecialMoveHandler {
         enPassantTarget = target;
     }
 
+    // --- Packed flags for make/unmake ---
+
+    /**
+     * Returns the castling rights as a 4-bit mask in FEN order: K=1, Q=2,
+     * k=4, q=8. A right needs the has-moved flags clear and the king and
+     * rook on their home squares, so equal positions get equal rights
+     * however they were reached.
+     *
+     * @param board the board the flags belong to
+     * @return castling rights mask
+     */
+    public int getCastlingRights(Board board) {
+        int rights = 0;
+        if (!whiteKingMoved && !whiteKingsideRookMoved)
+            rights |= 1;
+        if (!whiteKingMoved && !whiteQueensideRookMoved)
+            rights |= 2;
+        if (!blackKingMoved && !blackKingsideRookMoved)
+            rights |= 4;
+        if (!blackKingMoved && !blackQueensideRookMoved)
+            rights |= 8;
+
+        if (!isAt(board, 60, PlayerColor.WHITE, PieceType.KING))
+            rights &= ~3;
+        if (!isAt(board, 63, PlayerColor.WHITE, PieceType.ROOK))
+            rights &= ~1;
+        if (!isAt(board, 56, PlayerColor.WHITE, PieceType.ROOK))
+            rights &= ~2;
+        if (!isAt(board, 4, PlayerColor.BLACK, PieceType.KING))
+            rights &= ~12;
+        if (!isAt(board, 7, PlayerColor.BLACK, PieceType.ROOK))
+            rights &= ~4;
+        if (!isAt(board, 0, PlayerColor.BLACK, PieceType.ROOK))
+            rights &= ~8;
+        return rights;
+    }
+
     /**
-     * Updates has-moved flags after a move is applied.
+     * Sets the has-moved flags of every right that
+     * {@link #getCastlingRights(Board)} does not grant, e.g. after setting
+     * up a position whose castling field names a missing rook.
      *
-     * @param s game state
-     * @param m move that was just made
+     * @param board the board the flags belong to
      */
-    public void updateHasMovedFlags(GameState s, Move m) {
-        Position from = m.getFromPos();
-        Piece mover = s.getPieceAt(from);
+    public void dropUnavailableRights(Board board) {
+        int rights = getCastlingRights(board);
+        whiteKingsideRookMoved |= (rights & 1) == 0;
+        whiteQueensideRookMoved |= (rights & 2) == 0;
+        blackKingsideRookMoved |= (rights & 4) == 0;
+        blackQueensideRookMoved |= (rights & 8) == 0;
+        whiteKingMoved |= (rights & 3) == 0;
+        blackKingMoved |= (rights & 12) == 0;
+    }
 
+    private static boolean isAt(Board board, int square, PlayerColor color, PieceType type) {
+        Piece p = board.getPieceAt(square);
+        return p != null && p.getColor() == color && p.getType() == type;
+    }
+
+    /**
+     * Packs the six has-moved flags into one int (bit set = has moved).
+     * Bit order: white king, white kingside rook, white queenside rook,
+     * black king, black kingside rook, black queenside rook.
+     *
+     * @return packed castling flags
+     */
+    public int getCastlingFlags() {
+        return (whiteKingMoved ? 1 : 0)
+                | (whiteKingsideRookMoved ? 1 << 1 : 0)
+                | (whiteQueensideRookMoved ? 1 << 2 : 0)
+                | (blackKingMoved ? 1 << 3 : 0)
+                | (blackKingsideRookMoved ? 1 << 4 : 0)
+                | (blackQueensideRookMoved ? 1 << 5 : 0);
+    }
+
+    /**
+     * Restores the has-moved flags from a value returned by
+     * {@link #getCastlingFlags()}.
+     *
+     * @param flags packed castling flags
+     */
+    public void setCastlingFlags(int flags) {
+        whiteKingMoved = (flags & 1) != 0;
+        whiteKingsideRookMoved = (flags & (1 << 1)) != 0;
+        whiteQueensideRookMoved = (flags & (1 << 2)) != 0;
+        blackKingMoved = (flags & (1 << 3)) != 0;
+        blackKingsideRookMoved = (flags & (1 << 4)) != 0;
+        blackQueensideRookMoved = (flags & (1 << 5)) != 0;
+    }
+
+    /**
+     * Updates has-moved flags after a move is applied.
+     *
+     * @param mover the piece that moved
+     * @param from  origin square index of the move
+     */
+    public void updateHasMovedFlags(Piece mover, int from) {
         PlayerColor us = mover.getColor();
         boolean isWhite = (us == PlayerColor.WHITE);
 
@@ -335,13 +460,13 @@ public class SpecialMoveHandler {
                 blackKingMoved = true;
         }
 
-        if (mover instanceof Rook && from.getRank() == kingRookStartRank(mover.getColor())) {
-            if (from.getFile() == 0) {
+        if (mover instanceof Rook && from / 8 == kingRookStartRank(mover.getColor())) {
+            if (from % 8 == 0) {
                 if (isWhite)
                     whiteQueensideRookMoved = true;
                 else
                     blackQueensideRookMoved = true;
-            } else if (from.getFile() == 7) {
+            } else if (from % 8 == 7) {
                 if (isWhite)
                     whiteKingsideRookMoved = true;
                 else
@@ -350,16 +475,43 @@ public class SpecialMoveHandler {
         }
     }
 
-    /** Moves the rook to its correct square after castling. */
-    public void moveRookDuringCastle(GameState state, Move m) {
-        int r = m.getFromPos().getRank();
-        if (m.getToPos().getFile() == 6) {
+    /**
+     * Drops the castling right of a rook captured on its home square, so
+     * the flags match the board after e.g. {@code Bxh1}.
+     *
+     * @param to destination square index of the move
+     */
+    public void updateCapturedRookFlags(int to) {
+        switch (to) {
+            case 63 -> whiteKingsideRookMoved = true;
+            case 56 -> whiteQueensideRookMoved = true;
+            case 7 -> blackKingsideRookMoved = true;
+            case 0 -> blackQueensideRookMoved = true;
+            default -> {
+            }
+        }
+    }
+
+    /** Moves the rook to its correct square after the king castles to {@code kingTo}. */
+    public void moveRookDuringCastle(GameState state, int kingTo) {
+        int r = kingTo / 8;
+        if (kingTo % 8 == 6) {
             movePieceFromTo(state, r, 7, r, 5);
-        } else if (m.getToPos().getFile() == 2) {
+        } else if (kingTo % 8 == 2) {
             movePieceFromTo(state, r, 0, r, 3);
         }
     }
 
+    /** Moves the rook back to its corner when a castle to {@code kingTo} is taken back. */
+    public void restoreRookAfterCastle(GameState state, int kingTo) {
+        int r = kingTo / 8;
+        if (kingTo % 8 == 6) {
+            movePieceFromTo(state, r, 5, r, 7);
+        } else if (kingTo % 8 == 2) {
+            movePieceFromTo(state, r, 3, r, 0);
+        }
+    }
+
     /** Helper: moves a piece between coordinates. */
     public void movePieceFromTo(GameState state, int from_rank, int from_file, int to_rank, int to_file) {
         state.setPieceAt(to_rank, to_file, state.getPieceAt(from_rank, from_file));
@@ -396,8 +548,7 @@ public class SpecialMoveHandler {
      * @param other the handler to copy from
      */
     public void copyFrom(SpecialMoveHandler other) {
-        this.enPassantTarget = (other.enPassantTarget == null ? null
-                : new Position(other.enPassantTarget));
+        this.enPassantTarget = other.enPassantTarget; // immutable
         this.whiteKingMoved = other.whiteKingMoved;
         this.blackKingMoved = other.blackKingMoved;
         this.whiteKingsideRookMoved = other.whiteKingsideRookMoved;
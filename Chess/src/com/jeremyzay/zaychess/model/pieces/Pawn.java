@@ -1,14 +1,12 @@
 package com.jeremyzay.zaychess.model.pieces;
 
-import java.util.List;
-import java.util.ArrayList;
-
+import com.jeremyzay.zaychess.model.board.Bitboards;
 import com.jeremyzay.zaychess.model.board.Board;
 import com.jeremyzay.zaychess.model.game.GameState;
-import com.jeremyzay.zaychess.model.move.Move;
+import com.jeremyzay.zaychess.model.move.MoveList;
 import com.jeremyzay.zaychess.model.move.MoveType;
+import com.jeremyzay.zaychess.model.move.PackedMove;
 import com.jeremyzay.zaychess.model.util.PlayerColor;
-import com.jeremyzay.zaychess.model.util.Position;
 
 /**
  * Pawn piece implementation.
@@ -17,9 +15,9 @@ import com.jeremyzay.zaychess.model.util.Position;
  * and promotions. En passant is handled by SpecialMoveHandler.
  */
 public class Pawn extends Piece {
-    /** Creates a pawn of the given color and position. */
-    public Pawn(PlayerColor color, Position pos) {
-        super(color, pos);
+    /** Creates a pawn of the given color. Use {@link Piece#of(PlayerColor, PieceType)}. */
+    Pawn(PlayerColor color) {
+        super(color);
     }
 
     /** @return forward direction (+1 for black, -1 for white) */
@@ -38,16 +36,14 @@ public class Pawn extends Piece {
      * Promotions are marked with MoveType.PROMOTION.
      */
     @Override
-    public List<Move> generatePseudoLegalMoves(GameState gameState, Position from) {
-        List<Move> moves = new ArrayList<>();
-        int r = from.getRank();
-        int f = from.getFile();
+    public void addPseudoLegalMoves(GameState gameState, int from, MoveList moves) {
+        int r = from / 8;
+        int f = from % 8;
         int dir = dir();
 
         Board board = gameState.getBoard();
-        addForwardMoves(board, moves, r, f, dir);
-        addCaptureMoves(board, moves, r, f, dir);
-        return moves;
+        addForwardMoves(board, moves, from, r, f, dir);
+        addCaptureMoves(board, moves, from);
     }
 
     /** Checks if rank is promotion rank for this pawn's color. */
@@ -56,22 +52,21 @@ public class Pawn extends Piece {
     }
 
     /** Adds forward one- and two-step moves if path is empty. */
-    private void addForwardMoves(Board board, List<Move> moves, int r, int f, int dir) {
+    private void addForwardMoves(Board board, MoveList moves, int from, int r, int f, int dir) {
         int oneStepRank = r + dir;
         if (!board.isInside(oneStepRank, f)) return;
 
         if (board.isEmpty(oneStepRank, f)) {
-            Position from = new Position(r, f);
-            Position to   = new Position(oneStepRank, f);
+            int to = oneStepRank * 8 + f;
 
             if (isPromotionRank(oneStepRank)) {
-                moves.add(new Move(from, to, MoveType.PROMOTION));
+                moves.add(PackedMove.encode(from, to, MoveType.PROMOTION));
             } else {
-                moves.add(new Move(from, to, MoveType.NORMAL));
+                moves.add(PackedMove.encode(from, to, MoveType.NORMAL));
                 if (r == startRank()) {
                     int twoStepRank = r + 2 * dir;
                     if (board.isInside(twoStepRank, f) && board.isEmpty(twoStepRank, f)) {
-                        moves.add(new Move(from, new Position(twoStepRank, f), MoveType.NORMAL));
+                        moves.add(PackedMove.encode(from, twoStepRank * 8 + f, MoveType.NORMAL));
                     }
                 }
             }
@@ -79,20 +74,17 @@ public class Pawn extends Piece {
     }
 
     /** Adds diagonal capture moves (promotion if on last rank). */
-    private void addCaptureMoves(Board board, List<Move> moves, int r, int f, int dir) {
-        for (int df : new int[] { -1, 1 }) {
-            int rank = r + dir, file = f + df;
-            if (!board.isInside(rank, file)) continue;
-
-            if (!board.isEmpty(rank, file) && getColor().isOpposite(board.getPieceAt(rank, file).getColor())) {
-                Position from = new Position(r, f);
-                Position to   = new Position(rank, file);
-
-                if (isPromotionRank(rank)) {
-                    moves.add(new Move(from, to, MoveType.PROMOTION));
-                } else {
-                    moves.add(new Move(from, to, MoveType.CAPTURE));
-                }
+    private void addCaptureMoves(Board board, MoveList moves, int from) {
+        long captures = Bitboards.pawnAttacks(getColor(), from)
+                & board.getOccupancy(getColor().getOpposite());
+        while (captures != 0) {
+            int to = Bitboards.firstSquare(captures);
+            captures &= captures - 1;
+
+            if (isPromotionRank(to / 8)) {
+                moves.add(PackedMove.encode(from, to, MoveType.PROMOTION));
+            } else {
+                moves.add(PackedMove.encode(from, to, MoveType.CAPTURE));
             }
         }
     }
@@ -108,15 +100,10 @@ public class Pawn extends Piece {
     public String getName() {
         return "pawn";
     }
-    
-    /** Copy constructor for Pawn. */
-    protected Pawn(Pawn other) {
-        super(other);
-    }
-        
-    /** @return deep copy of this pawn */
+
+    /** @return {@link PieceType#PAWN} */
     @Override
-    public Piece copy() {
-        return new Pawn(this);
+    public PieceType getType() {
+        return PieceType.PAWN;
     }
 }
@@ -5,51 +5,113 @@ import com.jeremyzay.zaychess.model.util.Position;
 
 import java.util.List;
 
+import com.jeremyzay.zaychess.model.board.Bitboards;
 import com.jeremyzay.zaychess.model.board.Board;
 import com.jeremyzay.zaychess.model.game.GameState;
 import com.jeremyzay.zaychess.model.move.Move;
+import com.jeremyzay.zaychess.model.move.MoveList;
 import com.jeremyzay.zaychess.model.move.MoveType;
 import com.jeremyzay.zaychess.model.move.MoveValidator;
+import com.jeremyzay.zaychess.model.move.PackedMove;
 
 /**
  * Abstract base class for all chess pieces.
  * 
- * Stores color and position, and defines the core API
- * for generating pseudo-legal moves, copying pieces, and
+ * Pieces are immutable flyweights: there is exactly one shared instance per
+ * color and type, obtained via {@link #of(PlayerColor, PieceType)}. A piece
+ * does not know its square; the board index it sits on is passed to move
+ * generation instead, so copying a board only copies references.
+ * 
+ * Defines the core API for generating pseudo-legal moves and
  * retrieving metadata such as symbol and name.
  */
 public abstract class Piece {
     
     private final PlayerColor color;
-    private Position pos;
     
-    /** Creates a piece of the given color at a position. */
-    protected Piece(PlayerColor color, Position pos) {
+    /** Creates a piece of the given color. */
+    protected Piece(PlayerColor color) {
         this.color = color;
-        this.pos = pos;
     }
-    
-    /** Creates a piece of the given color at a specific rank/file. */
-    protected Piece(PlayerColor color, int rank, int file) {
-        this.color = color;
-        this.pos = new Position(rank, file);
+
+    /**
+     * Returns the shared instance for a color and type.
+     *
+     * @param color piece color
+     * @param type  piece type
+     * @return the flyweight piece
+     */
+    public static Piece of(PlayerColor color, PieceType type) {
+        return Flyweights.PIECES[color.ordinal() * Flyweights.TYPES + type.ordinal()];
+    }
+
+    /** Lazily built table of the twelve shared pieces, indexed like {@link Board}'s bitboards. */
+    private static final class Flyweights {
+        static final int TYPES = PieceType.values().length;
+        static final Piece[] PIECES = new Piece[PlayerColor.values().length * TYPES];
+
+        static {
+            for (PlayerColor c : PlayerColor.values()) {
+                int base = c.ordinal() * TYPES;
+                PIECES[base + PieceType.PAWN.ordinal()] = new Pawn(c);
+                PIECES[base + PieceType.ROOK.ordinal()] = new Rook(c);
+                PIECES[base + PieceType.KNIGHT.ordinal()] = new Knight(c);
+                PIECES[base + PieceType.BISHOP.ordinal()] = new Bishop(c);
+                PIECES[base + PieceType.QUEEN.ordinal()] = new Queen(c);
+                PIECES[base + PieceType.KING.ordinal()] = new King(c);
+            }
+        }
     }
     
     /** @return the piece's color */
     public PlayerColor getColor() { return color; }
     
-    /** @return the piece's current position */
-    public Position getPos() { return pos; }
-    
     /**
      * Returns all pseudo-legal moves for this piece, ignoring checks.
      * Legal filtering is performed by {@link MoveValidator}.
+     * 
+     * Adapter over {@link #addPseudoLegalMoves(GameState, int, MoveList)}
+     * for callers that work with {@link Move} objects.
      *
      * @param gameState current game state
      * @param fromPos   position of this piece
      * @return list of pseudo-legal moves
      */
-    public abstract List<Move> generatePseudoLegalMoves(GameState gameState, Position fromPos);
+    public List<Move> generatePseudoLegalMoves(GameState gameState, Position fromPos) {
+        MoveList moves = new MoveList(32);
+        addPseudoLegalMoves(gameState, fromPos.getIndex(), moves);
+        return moves.toMoves();
+    }
+
+    /**
+     * Appends all pseudo-legal moves for this piece, ignoring checks, to
+     * {@code moves} as {@link PackedMove packed moves}.
+     *
+     * @param gameState current game state
+     * @param from      square index (rank * 8 + file) of this piece
+     * @param moves     buffer to append to
+     */
+    public abstract void addPseudoLegalMoves(GameState gameState, int from, MoveList moves);
+
+    /**
+     * Appends a move to every square in {@code attacks} that is empty or
+     * holds an enemy piece: NORMAL onto empty squares, CAPTURE otherwise.
+     *
+     * @param board   current board
+     * @param from    origin square index
+     * @param attacks attack mask of this piece on {@code from} (see {@link Bitboards})
+     * @param moves   buffer to append to
+     */
+    protected void addTargetMoves(Board board, int from, long attacks, MoveList moves) {
+        long enemy = board.getOccupancy(getColor().getOpposite());
+        long targets = attacks & ~board.getOccupancy(getColor());
+        while (targets != 0) {
+            int to = Bitboards.firstSquare(targets);
+            targets &= targets - 1;
+            MoveType type = (enemy & Bitboards.bit(to)) != 0 ? MoveType.CAPTURE : MoveType.NORMAL;
+            moves.add(PackedMove.encode(from, to, type));
+        }
+    }
 
     /**
      * Checks if it is this piece's turn to move.
@@ -60,20 +122,14 @@ public abstract class Piece {
         return (gameState.getTurn() == getColor()) ;
     }
     
-    /** Copy constructor performing a deep copy of position. */
-    protected Piece(Piece other) {
-        this.color = other.color;
-        this.pos   = new Position(other.pos.getRank(), other.pos.getFile());
-    }
-    
-    /** @return a deep copy of this piece */
-    public abstract Piece copy();
-    
     /** @return one-character symbol used in FEN/PGN notation */
     public abstract char getSymbol();
     
     /** @return lowercase string name (e.g. "pawn", "bishop") */
     public abstract String getName();
+
+    /** @return the piece type, used to index per-type bitboards */
+    public abstract PieceType getType();
     
     /**
      * @return filename-friendly name of piece for assets
@@ -102,14 +158,4 @@ public abstract class Piece {
         }
         return;
     }
-    
-    /** Updates this piece's coordinates. */
-    public void updateCoords(Position newPos) {
-        pos = newPos;
-    }
-    
-    /** Updates this piece's coordinates. */
-    public void updateCoords(int rank, int file) {
-        pos = new Position(rank, file);
-    }
 }
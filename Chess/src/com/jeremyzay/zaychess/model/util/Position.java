@@ -7,8 +7,18 @@ package com.jeremyzay.zaychess.model.util;
  * file 0 is column 'a' (left), file 7 is column 'h' (right).
  * 
  * Instances are validated at construction to always lie inside the board.
+ * Prefer {@link #of(int, int)}, which returns one of 64 shared instances,
+ * over the constructor on hot paths.
  */
 public final class Position {
+    /** Canonical instances, indexed by rank * 8 + file. */
+    private static final Position[] SQUARES = new Position[64];
+
+    static {
+        for (int i = 0; i < 64; i++)
+            SQUARES[i] = new Position(i / 8, i % 8);
+    }
+
     private final int rank, file;
 
     /**
@@ -26,6 +36,31 @@ public final class Position {
         this.file = file;
     }
 
+    /**
+     * Returns the shared instance for the given rank and file.
+     *
+     * @param rank rank index (0..7)
+     * @param file file index (0..7)
+     * @return canonical position
+     * @throws IllegalArgumentException if the coordinates are out of range
+     */
+    public static Position of(int rank, int file) {
+        if (rank < 0 || rank > 7 || file < 0 || file > 7)
+            throw new IllegalArgumentException("Coords out of range");
+        return SQUARES[rank * 8 + file];
+    }
+
+    /**
+     * Returns the shared instance for a board index.
+     *
+     * @param square board index (rank * 8 + file, 0..63)
+     * @return canonical position
+     * @throws ArrayIndexOutOfBoundsException if the index is out of range
+     */
+    public static Position of(int square) {
+        return SQUARES[square];
+    }
+
     /** Deep-copy constructor. */
     public Position(Position other) {
         this.rank = other.rank;
@@ -38,6 +73,9 @@ public final class Position {
     /** @return the file index (0..7) */
     public int getFile() { return file; }
 
+    /** @return the board index rank * 8 + file (0..63) */
+    public int getIndex() { return rank * 8 + file; }
+
     /**
      * Encodes the position into a simple integer of the form rank*10 + file.
      * 
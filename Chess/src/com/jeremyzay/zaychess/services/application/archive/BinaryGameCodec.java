@@ -0,0 +1,248 @@
+package com.jeremyzay.zaychess.services.application.archive;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.LongConsumer;
+import java.util.zip.CRC32;
+
+import com.jeremyzay.zaychess.model.game.GameState;
+import com.jeremyzay.zaychess.model.move.Move;
+import com.jeremyzay.zaychess.model.move.MoveGenerator;
+import com.jeremyzay.zaychess.model.move.MoveList;
+import com.jeremyzay.zaychess.model.move.MoveType;
+import com.jeremyzay.zaychess.model.move.PackedMove;
+import com.jeremyzay.zaychess.model.move.PromotionPiece;
+import com.jeremyzay.zaychess.services.application.notation.NotationFEN;
+
+/**
+ * Compact binary encoding of one game.
+ *
+ * Each ply is stored as a single byte: the index of the move in the
+ * position's legal moves, sorted by origin square, destination square and
+ * promotion piece. No position has more than 218 legal moves, so the index
+ * always fits, and decoding needs no text parsing or move type inference.
+ *
+ * Layout (big-endian):
+ * - magic "ZCG" and format {@link #VERSION}
+ * - flags: {@link #FLAG_FEN}, {@link #FLAG_FINAL_HASH}
+ * - if {@code FLAG_FEN}: 2-byte length and the UTF-8 FEN of the start position
+ * - 4-byte ply count, then one byte per ply
+ * - if {@code FLAG_FINAL_HASH}: the Zobrist key of the final position
+ * - CRC32 of all preceding bytes
+ *
+ * The CRC lets {@link #verify(byte[])} reject damaged data without
+ * replaying; the final hash lets {@link #decode(byte[])} confirm that the
+ * replay reached the position that was saved.
+ */
+public final class BinaryGameCodec {
+    private BinaryGameCodec() {
+    } // utility class
+
+    /** Format version written after the magic bytes. */
+    public static final int VERSION = 1;
+
+    /** The start position is stored as a FEN; otherwise it is the standard one. */
+    public static final int FLAG_FEN = 1;
+    /** The Zobrist key of the final position is stored. */
+    public static final int FLAG_FINAL_HASH = 2;
+
+    private static final byte[] MAGIC = { 'Z', 'C', 'G' };
+    /** Magic, version and flags. */
+    private static final int HEADER_LENGTH = 5;
+    private static final int CRC_LENGTH = 4;
+
+    /** A decoded game: its start position and its moves. */
+    public record Game(GameState start, List<Move> moves) {
+    }
+
+    /**
+     * Encodes a game.
+     *
+     * @param start         position before the first move
+     * @param moves         legal moves in playing order
+     * @param withFinalHash whether to store the final position's Zobrist key
+     * @return the encoded game
+     * @throws IllegalArgumentException if a move is not legal where it is played
+     */
+    public static byte[] encode(GameState start, List<Move> moves, boolean withFinalHash) {
+        String fen = NotationFEN.toFEN(start);
+        byte[] fenBytes = fen.equals(NotationFEN.toFEN(new GameState()))
+                ? null
+                : fen.getBytes(StandardCharsets.UTF_8);
+        int flags = (fenBytes != null ? FLAG_FEN : 0) | (withFinalHash ? FLAG_FINAL_HASH : 0);
+        int length = HEADER_LENGTH + (fenBytes != null ? 2 + fenBytes.length : 0)
+                + 4 + moves.size() + (withFinalHash ? 8 : 0) + CRC_LENGTH;
+
+        ByteBuffer out = ByteBuffer.allocate(length);
+        out.put(MAGIC).put((byte) VERSION).put((byte) flags);
+        if (fenBytes != null)
+            out.putShort((short) fenBytes.length).put(fenBytes);
+        out.putInt(moves.size());
+
+        // replay from the position decode() will rebuild, so the final hashes agree
+        GameState gs = fenBytes != null ? NotationFEN.fromFEN(fen) : new GameState();
+        MoveList legal = new MoveList();
+        long[] sorted = new long[256];
+        for (int ply = 0; ply < moves.size(); ply++) {
+            int move = PackedMove.fromMove(moves.get(ply));
+            int n = canonicalMoves(gs, legal, sorted);
+            int index = indexOf(sorted, n, sortKey(move));
+            if (index < 0)
+                throw new IllegalArgumentException("Illegal move at ply " + ply);
+            out.put((byte) index);
+            gs.makeMove((int) sorted[index]);
+        }
+        if (withFinalHash)
+            out.putLong(gs.getZobristKey());
+        out.putInt((int) crc(out.array(), out.position()));
+        return out.array();
+    }
+
+    /**
+     * Decodes a game, checking the CRC and, if stored, the final position.
+     *
+     * @param data an encoded game
+     * @return the start position and moves
+     * @throws IOException if the data is damaged or not in this format
+     */
+    public static Game decode(byte[] data) throws IOException {
+        return decode(data, null);
+    }
+
+    /**
+     * Decodes a game and reports the Zobrist key of every position it
+     * passes through, the start position first, in one replay.
+     *
+     * @param positions receives each position's key, or null
+     */
+    static Game decode(byte[] data, LongConsumer positions) throws IOException {
+        ByteBuffer in = checkedBody(data);
+        int flags = in.get(HEADER_LENGTH - 1);
+        in.position(HEADER_LENGTH);
+
+        GameState start = new GameState();
+        if ((flags & FLAG_FEN) != 0) {
+            int fenLength = in.getShort() & 0xFFFF;
+            if (fenLength > in.remaining())
+                throw new IOException("Truncated game data");
+            String fen = new String(data, in.position(), fenLength, StandardCharsets.UTF_8);
+            in.position(in.position() + fenLength);
+            try {
+                start = NotationFEN.fromFEN(fen);
+            } catch (IllegalArgumentException e) {
+                throw new IOException("Invalid start position: " + fen, e);
+            }
+        }
+
+        int plies = in.getInt();
+        int trailer = (flags & FLAG_FINAL_HASH) != 0 ? 8 : 0;
+        if (plies < 0 || plies + trailer != in.remaining())
+            throw new IOException("Truncated game data");
+
+        GameState gs = start.copy();
+        List<Move> moves = new ArrayList<>(plies);
+        MoveList legal = new MoveList();
+        long[] sorted = new long[256];
+        if (positions != null)
+            positions.accept(gs.getZobristKey());
+        for (int ply = 0; ply < plies; ply++) {
+            int index = in.get() & 0xFF;
+            int n = canonicalMoves(gs, legal, sorted);
+            if (index >= n)
+                throw new IOException("Invalid move index " + index + " at ply " + ply);
+            int move = (int) sorted[index];
+            moves.add(PackedMove.toMove(move));
+            gs.makeMove(move);
+            if (positions != null)
+                positions.accept(gs.getZobristKey());
+        }
+        if (trailer != 0 && in.getLong() != gs.getZobristKey())
+            throw new IOException("Final position does not match");
+        return new Game(start, moves);
+    }
+
+    /**
+     * Checks the header and CRC without replaying the moves.
+     *
+     * @param data bytes to check
+     * @return true if the data looks like an undamaged encoded game
+     */
+    public static boolean verify(byte[] data) {
+        try {
+            checkedBody(data);
+            return true;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /** @return the data without its CRC, after checking header and CRC */
+    private static ByteBuffer checkedBody(byte[] data) throws IOException {
+        if (data.length < HEADER_LENGTH + 4 + CRC_LENGTH
+                || data[0] != MAGIC[0] || data[1] != MAGIC[1] || data[2] != MAGIC[2])
+            throw new IOException("Not a binary game");
+        if (data[3] != VERSION)
+            throw new IOException("Unsupported binary game version " + data[3]);
+        int bodyLength = data.length - CRC_LENGTH;
+        if ((int) crc(data, bodyLength) != ByteBuffer.wrap(data, bodyLength, CRC_LENGTH).getInt())
+            throw new IOException("Checksum mismatch");
+        return ByteBuffer.wrap(data, 0, bodyLength);
+    }
+
+    private static long crc(byte[] data, int length) {
+        CRC32 crc = new CRC32();
+        crc.update(data, 0, length);
+        return crc.getValue();
+    }
+
+    // =====================================================
+    // Canonical move order
+    // =====================================================
+
+    /**
+     * Fills {@code sorted} with the legal moves of {@code gs} in canonical
+     * order, promotions expanded to every piece. Each entry holds the sort
+     * key in its high half and the packed move in its low half.
+     *
+     * @return number of moves
+     */
+    private static int canonicalMoves(GameState gs, MoveList legal, long[] sorted) {
+        legal.clear();
+        MoveGenerator.generateAllLegalMovesInTurn(gs, legal);
+        int n = 0;
+        for (int i = 0; i < legal.size(); i++) {
+            int move = legal.get(i);
+            if (PackedMove.type(move) == MoveType.PROMOTION && PackedMove.promotion(move) == null) {
+                for (PromotionPiece piece : PromotionPiece.values())
+                    sorted[n++] = entry(PackedMove.withPromotion(move, piece));
+            } else {
+                sorted[n++] = entry(move);
+            }
+        }
+        Arrays.sort(sorted, 0, n);
+        return n;
+    }
+
+    private static long entry(int move) {
+        return ((long) sortKey(move) << 32) | (move & 0xFFFFFFFFL);
+    }
+
+    /** @return origin, destination and promotion piece, ignoring the move type */
+    private static int sortKey(int move) {
+        PromotionPiece promotion = PackedMove.promotion(move);
+        return (PackedMove.from(move) << 9) | (PackedMove.to(move) << 3)
+                | (promotion == null ? 0 : promotion.ordinal() + 1);
+    }
+
+    private static int indexOf(long[] sorted, int n, int key) {
+        for (int i = 0; i < n; i++) {
+            if ((int) (sorted[i] >>> 32) == key)
+                return i;
+        }
+        return -1;
+    }
+}
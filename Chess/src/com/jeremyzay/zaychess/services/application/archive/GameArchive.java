@@ -0,0 +1,375 @@
+package com.jeremyzay.zaychess.services.application.archive;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import com.jeremyzay.zaychess.model.game.GameState;
+import com.jeremyzay.zaychess.model.move.Move;
+
+/**
+ * Append-only archive of many games in one file, read through a memory
+ * mapping.
+ *
+ * Layout (big-endian):
+ * - header: magic "ZCA", {@link #VERSION}, game count, index offset
+ * - one record per game: record length, ply count, tag length, the tags
+ *   as UTF-8 name/value pairs, then the game in {@link BinaryGameCodec}
+ *   form
+ * - index: the offset of every record, followed by a CRC32 of the offsets
+ *
+ * Opening maps the file and reads only the header, so {@link #count()} is
+ * immediate whatever the number of games. {@link #header(int)} reads a
+ * game's tags and ply count without touching its moves, and
+ * {@link #get(int)} decodes one game through the index.
+ *
+ * {@link #append(List)} encodes the new records first, writes them over the
+ * old index, then a new index, and only then the header. If that is interrupted the header
+ * still names the old index, its CRC no longer matches, and the next
+ * {@link #open(Path)} rebuilds the index by walking the records, keeping
+ * every one whose game data passes {@link BinaryGameCodec#verify(byte[])}.
+ * A damaged record with a plausible length is skipped; the walk stops at
+ * the first length that does not fit, and the new index goes right after
+ * the last record kept.
+ *
+ * Reads use absolute positions only, so several threads may read at once;
+ * appends must not run concurrently with anything else. The mapping limits
+ * an archive to 2 GiB.
+ */
+public final class GameArchive implements Closeable {
+
+    /** Format version written after the magic bytes. */
+    public static final int VERSION = 1;
+
+    private static final byte[] MAGIC = { 'Z', 'C', 'A' };
+    /** Magic and version, game count, index offset. */
+    private static final int HEADER_LENGTH = 16;
+    /** Record length, ply count, tag length. */
+    private static final int RECORD_HEADER_LENGTH = 12;
+
+    /** Tags and ply count of one archived game. */
+    public record Header(Map<String, String> tags, int plies) {
+        /** @return the value of a tag, or null if absent */
+        public String tag(String name) {
+            return tags.get(name);
+        }
+    }
+
+    /** A game to append: its tags, start position and moves. */
+    public record Entry(Map<String, String> tags, GameState start, List<Move> moves) {
+    }
+
+    private final FileChannel channel;
+    private MappedByteBuffer map;
+    private int count;
+    private long indexOffset;
+
+    private GameArchive(FileChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Opens an archive for reading and appending, creating it if missing.
+     *
+     * @param file archive file
+     * @return the open archive
+     * @throws IOException if the file cannot be opened or is not an archive
+     */
+    public static GameArchive open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        GameArchive archive = new GameArchive(channel);
+        try {
+            archive.load();
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        return archive;
+    }
+
+    /** @return number of games in the archive */
+    public int count() {
+        return count;
+    }
+
+    /**
+     * Reads the tags and ply count of a game without decoding its moves.
+     *
+     * @param i game index, from 0
+     * @return the game's header
+     */
+    public Header header(int i) {
+        int offset = recordOffset(i);
+        int plies = map.getInt(offset + 4);
+        int tagLength = map.getInt(offset + 8);
+        return new Header(readTags(offset + RECORD_HEADER_LENGTH, tagLength), plies);
+    }
+
+    /** @return the headers of all games in archive order, read lazily */
+    public Stream<Header> headers() {
+        return IntStream.range(0, count).mapToObj(this::header);
+    }
+
+    /**
+     * Decodes one game.
+     *
+     * @param i game index, from 0
+     * @return the game's start position and moves
+     * @throws IOException if the game data is damaged
+     */
+    public BinaryGameCodec.Game get(int i) throws IOException {
+        return BinaryGameCodec.decode(gameBytes(i));
+    }
+
+    /**
+     * @param i game index, from 0
+     * @return the game in {@link BinaryGameCodec} form
+     */
+    public byte[] gameBytes(int i) {
+        int offset = recordOffset(i);
+        int length = map.getInt(offset);
+        int tagLength = map.getInt(offset + 8);
+        byte[] data = new byte[length - (RECORD_HEADER_LENGTH - 4) - tagLength];
+        map.get(offset + RECORD_HEADER_LENGTH + tagLength, data);
+        return data;
+    }
+
+    /**
+     * Appends one game.
+     *
+     * @return index of the new game
+     * @throws IOException if writing fails
+     * @see #append(List)
+     */
+    public int append(Map<String, String> tags, GameState start, List<Move> moves) throws IOException {
+        return append(List.of(new Entry(tags, start, moves)));
+    }
+
+    /**
+     * Appends games with one index rewrite and one header update, which
+     * makes batches much cheaper than single appends.
+     *
+     * Every game is encoded before anything is written, so a game that
+     * cannot be encoded leaves the archive untouched. If writing fails, the
+     * old index is put back where the new records began.
+     *
+     * @param games games to append, in order
+     * @return index of the first new game
+     * @throws IOException if writing fails
+     * @throws IllegalArgumentException if a game has an illegal move or an
+     *                                  overlong tag; nothing is appended
+     */
+    public int append(List<Entry> games) throws IOException {
+        List<ByteBuffer> records = new ArrayList<>(games.size());
+        for (Entry game : games)
+            records.add(encodeRecord(game.tags(),
+                    BinaryGameCodec.encode(game.start(), game.moves(), true), game.moves().size()));
+
+        int first = count;
+        long[] offsets = new long[count + games.size()];
+        for (int i = 0; i < count; i++)
+            offsets[i] = recordOffset(i);
+        long oldIndexOffset = indexOffset;
+        byte[] oldIndex = new byte[8 * count + 4];
+        map.get((int) oldIndexOffset, oldIndex);
+
+        long pos = oldIndexOffset;
+        try {
+            for (int i = 0; i < records.size(); i++) {
+                offsets[count + i] = pos;
+                pos += writeFully(records.get(i), pos);
+            }
+            writeIndex(offsets, pos);
+        } catch (IOException | RuntimeException e) {
+            if (indexOffset == oldIndexOffset) // the header still names the old index
+                restoreIndex(oldIndex, oldIndexOffset, e);
+            throw e;
+        }
+        return first;
+    }
+
+    @Override
+    public void close() throws IOException {
+        map = null;
+        channel.close();
+    }
+
+    // =====================================================
+    // Reading
+    // =====================================================
+
+    private void load() throws IOException {
+        if (channel.size() == 0) {
+            writeIndex(new long[0], HEADER_LENGTH);
+            return;
+        }
+        if (channel.size() > Integer.MAX_VALUE)
+            throw new IOException("Archive larger than 2 GiB");
+        remap();
+        if (map.limit() < HEADER_LENGTH || map.get(0) != MAGIC[0] || map.get(1) != MAGIC[1] || map.get(2) != MAGIC[2])
+            throw new IOException("Not a game archive");
+        if (map.get(3) != VERSION)
+            throw new IOException("Unsupported archive version " + map.get(3));
+        count = map.getInt(4);
+        indexOffset = map.getLong(8);
+        if (!isIndexValid())
+            rebuildIndex();
+    }
+
+    private boolean isIndexValid() {
+        long end = indexOffset + 8L * count + 4;
+        if (count < 0 || indexOffset < HEADER_LENGTH || end != map.limit())
+            return false;
+        CRC32 crc = new CRC32();
+        crc.update(map.slice((int) indexOffset, 8 * count));
+        return (int) crc.getValue() == map.getInt((int) indexOffset + 8 * count);
+    }
+
+    /**
+     * Walks the records from the start and rewrites index and header.
+     * Records whose game data is damaged are left out but stepped over, so
+     * the games after them survive.
+     */
+    private void rebuildIndex() throws IOException {
+        List<Long> offsets = new ArrayList<>();
+        int pos = HEADER_LENGTH;
+        int end = HEADER_LENGTH; // just past the last record kept
+        while (pos + RECORD_HEADER_LENGTH <= map.limit()) {
+            int length = map.getInt(pos);
+            int tagLength = map.getInt(pos + 8);
+            int gameLength = length - (RECORD_HEADER_LENGTH - 4) - tagLength;
+            if (length <= 0 || tagLength < 0 || gameLength <= 0 || pos + 4L + length > map.limit())
+                break; // torn record, or the old index
+            byte[] data = new byte[gameLength];
+            map.get(pos + RECORD_HEADER_LENGTH + tagLength, data);
+            if (BinaryGameCodec.verify(data)) {
+                offsets.add((long) pos);
+                end = pos + 4 + length;
+            }
+            pos += 4 + length;
+        }
+        long[] index = new long[offsets.size()];
+        for (int i = 0; i < index.length; i++)
+            index[i] = offsets.get(i);
+        writeIndex(index, end);
+    }
+
+    private int recordOffset(int i) {
+        if (i < 0 || i >= count)
+            throw new IndexOutOfBoundsException("game " + i + " of " + count);
+        return (int) map.getLong((int) indexOffset + 8 * i);
+    }
+
+    private Map<String, String> readTags(int offset, int length) {
+        Map<String, String> tags = new LinkedHashMap<>();
+        int end = offset + length;
+        while (offset < end) {
+            int nameLength = map.getShort(offset) & 0xFFFF;
+            String name = readString(offset + 2, nameLength);
+            offset += 2 + nameLength;
+            int valueLength = map.getShort(offset) & 0xFFFF;
+            tags.put(name, readString(offset + 2, valueLength));
+            offset += 2 + valueLength;
+        }
+        return Collections.unmodifiableMap(tags);
+    }
+
+    private String readString(int offset, int length) {
+        byte[] bytes = new byte[length];
+        map.get(offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    // =====================================================
+    // Writing
+    // =====================================================
+
+    private static ByteBuffer encodeRecord(Map<String, String> tags, byte[] game, int plies) {
+        List<byte[]> strings = new ArrayList<>(tags.size() * 2);
+        int tagLength = 0;
+        for (Map.Entry<String, String> tag : tags.entrySet()) {
+            for (String s : new String[] { tag.getKey(), tag.getValue() }) {
+                byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+                if (bytes.length > 0xFFFF)
+                    throw new IllegalArgumentException("Tag too long: " + tag.getKey());
+                strings.add(bytes);
+                tagLength += 2 + bytes.length;
+            }
+        }
+        ByteBuffer record = ByteBuffer.allocate(RECORD_HEADER_LENGTH + tagLength + game.length);
+        record.putInt(record.capacity() - 4).putInt(plies).putInt(tagLength);
+        for (byte[] bytes : strings)
+            record.putShort((short) bytes.length).put(bytes);
+        record.put(game).flip();
+        return record;
+    }
+
+    /**
+     * Writes the index at {@code pos}, forces the data to disk, then
+     * updates and forces the header, and maps the file again.
+     */
+    private void writeIndex(long[] offsets, long pos) throws IOException {
+        if (pos + 8L * offsets.length + 4 > Integer.MAX_VALUE)
+            throw new IOException("Archive larger than 2 GiB");
+        ByteBuffer index = ByteBuffer.allocate(8 * offsets.length + 4);
+        for (long offset : offsets)
+            index.putLong(offset);
+        CRC32 crc = new CRC32();
+        crc.update(index.array(), 0, 8 * offsets.length);
+        index.putInt((int) crc.getValue()).flip();
+        writeFully(index, pos);
+        channel.truncate(pos + index.limit());
+        channel.force(false);
+
+        ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+        header.put(MAGIC).put((byte) VERSION).putInt(offsets.length).putLong(pos).flip();
+        writeFully(header, 0);
+        channel.force(false);
+
+        count = offsets.length;
+        indexOffset = pos;
+        remap();
+    }
+
+    /**
+     * Writes a saved index back at {@code pos} after a failed append and
+     * maps the file again. A failure here is added to {@code cause}; the
+     * next {@link #open(Path)} then rebuilds the index from the records.
+     */
+    private void restoreIndex(byte[] index, long pos, Exception cause) {
+        try {
+            writeFully(ByteBuffer.wrap(index), pos);
+            channel.truncate(pos + index.length);
+            channel.force(false);
+            remap();
+        } catch (IOException e) {
+            cause.addSuppressed(e);
+        }
+    }
+
+    /** @return number of bytes written */
+    private int writeFully(ByteBuffer buffer, long pos) throws IOException {
+        int length = buffer.remaining();
+        while (buffer.hasRemaining())
+            pos += channel.write(buffer, pos);
+        return length;
+    }
+
+    private void remap() throws IOException {
+        map = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+    }
+}
@@ -0,0 +1,352 @@
+package com.jeremyzay.zaychess.services.application.archive;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.stream.IntStream;
+
+import com.jeremyzay.zaychess.model.game.GameState;
+
+/**
+ * Index from positions to the archived games that reached them.
+ *
+ * The index file is a flat array of {@code long} pairs, sorted by the
+ * first: a position's Zobrist key, and a posting packing the game index
+ * (bits 32..63), the game's result (bits 16..17) and the ply (bits
+ * 0..15). It starts with a magic word and the number of pairs. The file
+ * is memory-mapped in 1 GiB segments, and {@link #find(long)} binary
+ * searches it without loading anything into the heap.
+ *
+ * {@link #build(GameArchive, Path)} replays the archive's games in parallel,
+ * a chunk at a time, sorts each chunk into a run file and merges the runs,
+ * so memory use depends on the chunk size rather than the archive size.
+ */
+public final class PositionIndex implements Closeable {
+
+    /** Version 2: keys hash the en passant file only when the capture is possible. */
+    private static final long MAGIC = 0x5A43_5049_0000_0002L; // "ZCPI", version 2
+    private static final int HEADER_LENGTH = 16;
+    private static final int ENTRY_LENGTH = 16;
+    private static final int SEGMENT_SHIFT = 30;
+    private static final int SEGMENT_MASK = (1 << SEGMENT_SHIFT) - 1;
+    /** Default number of games replayed, sorted and written as one run while building. */
+    private static final int CHUNK_GAMES = 1 << 15;
+
+    /** Result codes stored in postings. */
+    private static final int UNKNOWN = 0, WHITE_WINS = 1, DRAW = 2, BLACK_WINS = 3;
+
+    /** One archived game that reached a position, first time only. */
+    public record Hit(int game, int ply) {
+    }
+
+    /**
+     * Games that reached a position, and how those games ended.
+     * Games without a known result are counted only in {@link #hits()}.
+     */
+    public record Result(List<Hit> hits, int whiteWins, int draws, int blackWins) {
+    }
+
+    private final FileChannel channel;
+    private final MappedByteBuffer[] segments;
+    private final long size;
+
+    private PositionIndex(FileChannel channel, MappedByteBuffer[] segments, long size) {
+        this.channel = channel;
+        this.segments = segments;
+        this.size = size;
+    }
+
+    /**
+     * Opens an index file for lookups.
+     *
+     * @param file file written by {@link #build(GameArchive, Path)}
+     * @return the open index
+     * @throws IOException if the file cannot be read or is not an index
+     */
+    public static PositionIndex open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                    Math.min(HEADER_LENGTH, channel.size()));
+            if (header.limit() < HEADER_LENGTH || header.getLong(0) != MAGIC)
+                throw new IOException("Not a position index");
+            long size = header.getLong(8);
+            long bytes = size * ENTRY_LENGTH;
+            if (size < 0 || HEADER_LENGTH + bytes != channel.size())
+                throw new IOException("Truncated position index");
+
+            MappedByteBuffer[] segments = new MappedByteBuffer[(int) ((bytes + SEGMENT_MASK) >>> SEGMENT_SHIFT)];
+            for (int s = 0; s < segments.length; s++) {
+                long start = (long) s << SEGMENT_SHIFT;
+                segments[s] = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_LENGTH + start,
+                        Math.min(1L << SEGMENT_SHIFT, bytes - start));
+            }
+            return new PositionIndex(channel, segments, size);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /** @return number of (position, game, ply) postings */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * Finds the archived games that reached the position of {@code gs}.
+     *
+     * @param gs the position to look up
+     * @return matching games in archive order, with result totals
+     */
+    public Result find(GameState gs) {
+        return find(gs.getZobristKey());
+    }
+
+    /**
+     * Finds the archived games that reached a position.
+     *
+     * @param key Zobrist key of the position
+     * @return matching games in archive order, with result totals
+     */
+    public Result find(long key) {
+        // lower bound of the key
+        long lo = 0, hi = size;
+        while (lo < hi) {
+            long mid = (lo + hi) >>> 1;
+            if (Long.compareUnsigned(key(mid), key) < 0)
+                lo = mid + 1;
+            else
+                hi = mid;
+        }
+        List<Hit> hits = new ArrayList<>();
+        int[] results = new int[4];
+        int lastGame = -1;
+        for (long i = lo; i < size && key(i) == key; i++) {
+            long posting = posting(i);
+            int game = (int) (posting >>> 32);
+            if (game == lastGame)
+                continue; // repeated within a game; postings are sorted by game and ply
+            lastGame = game;
+            hits.add(new Hit(game, (int) (posting & 0xFFFF)));
+            results[(int) (posting >>> 16) & 3]++;
+        }
+        return new Result(hits, results[WHITE_WINS], results[DRAW], results[BLACK_WINS]);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private long key(long i) {
+        long at = i * ENTRY_LENGTH;
+        return segments[(int) (at >>> SEGMENT_SHIFT)].getLong((int) (at & SEGMENT_MASK));
+    }
+
+    private long posting(long i) {
+        long at = i * ENTRY_LENGTH + 8;
+        return segments[(int) (at >>> SEGMENT_SHIFT)].getLong((int) (at & SEGMENT_MASK));
+    }
+
+    // =====================================================
+    // Building
+    // =====================================================
+
+    /**
+     * Builds the index of every position in an archive, start positions
+     * included, and writes it to {@code out}.
+     *
+     * @param archive archive to index; must not be appended to meanwhile
+     * @param out     index file to create or replace
+     * @throws IOException if an archived game is damaged or writing fails
+     */
+    public static void build(GameArchive archive, Path out) throws IOException {
+        build(archive, out, CHUNK_GAMES);
+    }
+
+    /**
+     * Builds the index, holding the postings of at most {@code chunkGames}
+     * games in memory at a time.
+     *
+     * @see #build(GameArchive, Path)
+     */
+    public static void build(GameArchive archive, Path out, int chunkGames) throws IOException {
+        List<Path> runs = new ArrayList<>();
+        try {
+            for (int first = 0; first < archive.count(); first += chunkGames) {
+                int end = Math.min(archive.count(), first + chunkGames);
+                long[][] postings;
+                try {
+                    postings = IntStream.range(first, end).parallel()
+                            .mapToObj(i -> postings(archive, i))
+                            .toArray(long[][]::new);
+                } catch (UncheckedIOException e) {
+                    throw e.getCause();
+                }
+                runs.add(writeRun(postings, out));
+            }
+            merge(runs, out);
+        } finally {
+            for (Path run : runs)
+                Files.deleteIfExists(run);
+        }
+    }
+
+    /** @return (key, posting) pairs for every position of one game */
+    private static long[] postings(GameArchive archive, int game) {
+        GameArchive.Header header = archive.header(game);
+        long head = ((long) game << 32) | ((long) resultCode(header.tag("Result")) << 16);
+        long[] pairs = new long[2 * (header.plies() + 1)];
+        int[] ply = { 0 };
+        try {
+            BinaryGameCodec.decode(archive.gameBytes(game), key -> {
+                if (ply[0] <= 0xFFFF) {
+                    pairs[2 * ply[0]] = key;
+                    pairs[2 * ply[0] + 1] = head | ply[0];
+                }
+                ply[0]++;
+            });
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return ply[0] > 0x10000 ? Arrays.copyOf(pairs, 2 * 0x10000) : pairs;
+    }
+
+    private static int resultCode(String result) {
+        if (result == null)
+            return UNKNOWN;
+        return switch (result) {
+            case "1-0" -> WHITE_WINS;
+            case "0-1" -> BLACK_WINS;
+            case "1/2-1/2" -> DRAW;
+            default -> UNKNOWN;
+        };
+    }
+
+    /** Sorts one chunk of postings and writes it next to {@code out}. */
+    private static Path writeRun(long[][] postings, Path out) throws IOException {
+        int length = 0;
+        for (long[] p : postings)
+            length += p.length;
+        long[] pairs = new long[length];
+        int at = 0;
+        for (long[] p : postings) {
+            System.arraycopy(p, 0, pairs, at, p.length);
+            at += p.length;
+        }
+        sortPairs(pairs, 0, length / 2 - 1);
+
+        Path dir = out.toAbsolutePath().getParent();
+        Path run = Files.createTempFile(dir, out.getFileName().toString(), ".run");
+        try (DataOutputStream os = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(run), 1 << 16))) {
+            for (long value : pairs)
+                os.writeLong(value);
+        }
+        return run;
+    }
+
+    /** One run being merged, positioned at its next pair. */
+    private static final class RunReader {
+        final DataInputStream in;
+        long remaining;
+        long key, posting;
+
+        RunReader(Path run) throws IOException {
+            in = new DataInputStream(new BufferedInputStream(Files.newInputStream(run), 1 << 16));
+            remaining = Files.size(run) / ENTRY_LENGTH;
+        }
+
+        boolean advance() throws IOException {
+            if (remaining == 0)
+                return false;
+            remaining--;
+            key = in.readLong();
+            posting = in.readLong();
+            return true;
+        }
+    }
+
+    /** Merges sorted runs into the final index file. */
+    private static void merge(List<Path> runs, Path out) throws IOException {
+        PriorityQueue<RunReader> queue = new PriorityQueue<>((a, b) -> comparePairs(a.key, a.posting, b.key, b.posting));
+        List<RunReader> readers = new ArrayList<>();
+        long total = 0;
+        try (DataOutputStream os = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(out), 1 << 16))) {
+            for (Path run : runs) {
+                RunReader reader = new RunReader(run);
+                readers.add(reader);
+                total += reader.remaining;
+                if (reader.advance())
+                    queue.add(reader);
+            }
+            os.writeLong(MAGIC);
+            os.writeLong(total);
+            while (!queue.isEmpty()) {
+                RunReader reader = queue.poll();
+                os.writeLong(reader.key);
+                os.writeLong(reader.posting);
+                if (reader.advance())
+                    queue.add(reader);
+            }
+        } finally {
+            for (RunReader reader : readers)
+                reader.in.close();
+        }
+    }
+
+    private static int comparePairs(long keyA, long postingA, long keyB, long postingB) {
+        int c = Long.compareUnsigned(keyA, keyB);
+        return c != 0 ? c : Long.compare(postingA, postingB);
+    }
+
+    /** Quicksorts pairs {@code lo..hi} (pair indices, inclusive) of {@code a}. */
+    private static void sortPairs(long[] a, int lo, int hi) {
+        while (hi - lo > 16) {
+            int mid = (lo + hi) >>> 1;
+            long pivotKey = a[2 * mid], pivotPosting = a[2 * mid + 1];
+            int i = lo, j = hi;
+            while (i <= j) {
+                while (comparePairs(a[2 * i], a[2 * i + 1], pivotKey, pivotPosting) < 0)
+                    i++;
+                while (comparePairs(a[2 * j], a[2 * j + 1], pivotKey, pivotPosting) > 0)
+                    j--;
+                if (i <= j)
+                    swap(a, i++, j--);
+            }
+            // recurse into the smaller side, loop on the larger
+            if (j - lo < hi - i) {
+                sortPairs(a, lo, j);
+                lo = i;
+            } else {
+                sortPairs(a, i, hi);
+                hi = j;
+            }
+        }
+        for (int i = lo + 1; i <= hi; i++) {
+            for (int j = i; j > lo && comparePairs(a[2 * j - 2], a[2 * j - 1], a[2 * j], a[2 * j + 1]) > 0; j--)
+                swap(a, j, j - 1);
+        }
+    }
+
+    private static void swap(long[] a, int i, int j) {
+        long k = a[2 * i], p = a[2 * i + 1];
+        a[2 * i] = a[2 * j];
+        a[2 * i + 1] = a[2 * j + 1];
+        a[2 * j] = k;
+        a[2 * j + 1] = p;
+    }
+}
@@ -0,0 +1,210 @@
+package com.jeremyzay.zaychess.services.application.history;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.jeremyzay.zaychess.model.game.GameState;
+import com.jeremyzay.zaychess.model.game.UndoRecord;
+import com.jeremyzay.zaychess.model.move.Move;
+
+/**
+ * Delta-based implementation of {@link MoveHistoryService}.
+ *
+ * Instead of a full {@link GameState} snapshot per ply, each entry is the
+ * {@link UndoRecord} of the move: the packed move, moved and captured
+ * pieces, and the castling flags, en passant target and clocks from before
+ * the move. Undo and redo are constant-time
+ * {@link GameState#unmakeMove(UndoRecord)} /
+ * {@link GameState#makeMove(int)} calls on the live state.
+ *
+ * A snapshot of the start position and of every position reached after a
+ * multiple of {@link #CHECKPOINT_INTERVAL} plies is kept as well, so
+ * {@link #seekToPly(GameState, int)} restores the nearest checkpoint and
+ * replays at most {@code CHECKPOINT_INTERVAL - 1} moves, whatever the
+ * length of the game.
+ *
+ * Entries are only valid for the state they were recorded on, so all
+ * calls must pass the same game state, and it must not be changed by
+ * other means between them (use {@link #clear()} after loading a
+ * position).
+ */
+public final class MoveHistoryDelta implements MoveHistoryService {
+
+    /** Plies between two checkpoints. */
+    static final int CHECKPOINT_INTERVAL = 16;
+
+    /** All recorded moves, oldest first; those from {@link #ply} on can be redone. */
+    private final List<UndoRecord> records = new ArrayList<>();
+    /** Snapshot at ply {@code i * CHECKPOINT_INTERVAL}, for each such ply reached. */
+    private final List<GameState> checkpoints = new ArrayList<>();
+    /** Number of recorded moves currently applied. */
+    private int ply;
+
+    /**
+     * Record a move that is about to be applied to {@code gs}.
+     * The move is made and taken back once to capture its undo record;
+     * the caller then applies it as usual. Callers that make the move
+     * themselves should pass its record to
+     * {@link #recordApplied(GameState, UndoRecord)} instead.
+     */
+    @Override
+    public void record(GameState gs, Move m) {
+        UndoRecord record = gs.makeMove(m);
+        recordApplied(gs, record);
+        gs.unmakeMove(record);
+    }
+
+    /**
+     * Record a move just made on {@code gs}, keeping the caller's undo
+     * record. Drops any redoable moves. The start position is checkpointed
+     * from a snapshot with the first move taken back, later checkpoints
+     * when the move reaches their ply.
+     */
+    @Override
+    public void recordApplied(GameState gs, UndoRecord undo) {
+        truncateAt(ply);
+        if (ply == 0) {
+            GameState before = gs.snapshot();
+            before.unmakeMove(undo);
+            checkpoints.add(before);
+        }
+        records.add(undo);
+        ply++;
+        if (ply % CHECKPOINT_INTERVAL == 0)
+            checkpoints.add(gs.snapshot());
+    }
+
+    /** The snapshot is not needed; see {@link #record(GameState, Move)}. */
+    @Override
+    public void record(GameState gs, Move m, GameState snap) {
+        record(gs, m);
+    }
+
+    /**
+     * Keeps the records as they are. The checkpoints are taken while
+     * unmaking the line on a snapshot of {@code gs}, which costs far less
+     * than making its moves again.
+     */
+    @Override
+    public void load(GameState gs, List<UndoRecord> undos) {
+        clear();
+        records.addAll(undos);
+        ply = records.size();
+        if (ply == 0)
+            return;
+        GameState[] taken = new GameState[ply / CHECKPOINT_INTERVAL + 1];
+        GameState at = gs.snapshot();
+        for (int i = ply; i >= 0; i--) {
+            if (i % CHECKPOINT_INTERVAL == 0)
+                taken[i / CHECKPOINT_INTERVAL] = at.snapshot();
+            if (i > 0)
+                at.unmakeMove(records.get(i - 1));
+        }
+        checkpoints.addAll(Arrays.asList(taken));
+    }
+
+    @Override
+    public void clear() {
+        records.clear();
+        checkpoints.clear();
+        ply = 0;
+    }
+
+    /** @return true if there is at least one move to undo. */
+    @Override
+    public boolean canUndo() {
+        return ply > 0;
+    }
+
+    /**
+     * Undo the most recent move by reversing its delta.
+     * The move stays available to redo.
+     */
+    @Override
+    public void undo(GameState gs) {
+        gs.unmakeMove(records.get(--ply));
+        // moves are only recorded while the game is running
+        gs.resign(null);
+        gs.setDrawAgreed(false);
+    }
+
+    /** @return true if there is at least one move to redo. */
+    @Override
+    public boolean canRedo() {
+        return ply < records.size();
+    }
+
+    /**
+     * Redo the most recently undone move. The state is back where the
+     * record was taken, so the same record stays valid for the next undo.
+     */
+    @Override
+    public void redo(GameState gs) {
+        gs.makeMove(records.get(ply++).getPackedMove());
+    }
+
+    @Override
+    public int getPly() {
+        return ply;
+    }
+
+    /** @return number of recorded moves, including those that can be redone */
+    public int getPlyCount() {
+        return records.size();
+    }
+
+    /**
+     * Moves {@code gs} to the position after {@code target} plies by
+     * restoring the nearest earlier checkpoint and replaying the moves
+     * after it. Recorded moves beyond the target stay available to redo.
+     */
+    @Override
+    public void seekToPly(GameState gs, int target) {
+        if (target < 0 || target > records.size())
+            throw new IndexOutOfBoundsException("ply " + target + " of " + records.size());
+        if (target == ply)
+            return;
+        if (target < ply && ply - target < CHECKPOINT_INTERVAL) {
+            while (ply > target)
+                undo(gs);
+            return;
+        }
+        int checkpoint = target / CHECKPOINT_INTERVAL;
+        int base = checkpoint * CHECKPOINT_INTERVAL;
+        if (target > ply && ply >= base) {
+            // the current position is closer than any checkpoint
+            base = ply;
+        } else {
+            gs.restoreFrom(checkpoints.get(checkpoint));
+        }
+        for (ply = base; ply < target; ply++)
+            gs.makeMove(records.get(ply).getPackedMove());
+    }
+
+    @Override
+    public Move peekRedoMove() {
+        return canRedo() ? records.get(ply).getMove() : null;
+    }
+
+    @Override
+    public Move peekLastMove() {
+        return canUndo() ? records.get(ply - 1).getMove() : null;
+    }
+
+    @Override
+    public List<Move> getMoves() {
+        List<Move> moves = new ArrayList<>(ply);
+        for (int i = 0; i < ply; i++)
+            moves.add(records.get(i).getMove());
+        return moves;
+    }
+
+    /** Drops recorded moves from {@code size} on, with the checkpoints after it. */
+    private void truncateAt(int size) {
+        records.subList(size, records.size()).clear();
+        int keep = size == 0 ? 0 : size / CHECKPOINT_INTERVAL + 1;
+        if (checkpoints.size() > keep)
+            checkpoints.subList(keep, checkpoints.size()).clear();
+    }
+}
@@ -91,6 +91,11 @@ public final class MoveHistoryInMemory implements MoveHistoryService {
         return undo.isEmpty() ? null : undo.peek().move;
     }
 
+    @Override
+    public int getPly() {
+        return undo.size();
+    }
+
     @Override
     public java.util.List<Move> getMoves() {
         // Convert stack to list in order (oldest first)
@@ -1,6 +1,7 @@
 package com.jeremyzay.zaychess.services.application.history;
 
 import com.jeremyzay.zaychess.model.game.GameState;
+import com.jeremyzay.zaychess.model.game.UndoRecord;
 import com.jeremyzay.zaychess.model.move.Move;
 
 /**
@@ -20,6 +21,51 @@ public interface MoveHistoryService {
      */
     void record(GameState gs, Move m, GameState snap);
 
+    /**
+     * Records a move before it is applied to {@code gs}. Implementations
+     * that do not need a full snapshot override this to skip taking one.
+     *
+     * @param gs current game state, before the move
+     * @param m  the move to record
+     */
+    default void record(GameState gs, Move m) {
+        record(gs, m, gs.snapshot());
+    }
+
+    /**
+     * Records a move the caller has just applied with
+     * {@link GameState#makeMove(Move)}. The default takes the move back,
+     * records it with {@link #record(GameState, Move)} and applies it
+     * again; implementations built on undo records keep {@code undo} as is.
+     *
+     * @param gs   current game state, after the move
+     * @param undo the record returned when the move was made
+     */
+    default void recordApplied(GameState gs, UndoRecord undo) {
+        gs.unmakeMove(undo);
+        record(gs, undo.getMove());
+        gs.makeMove(undo.getPackedMove());
+    }
+
+    /**
+     * Replaces the history with a line already played on another state,
+     * e.g. while loading a game off the EDT, leaving all of it applied.
+     * The default takes the line back on a snapshot of {@code gs} and
+     * records it move by move; implementations built on undo records keep
+     * {@code undos} as they are.
+     *
+     * @param gs    current game state, after the last move of the line
+     * @param undos the record of each move of the line, oldest first
+     */
+    default void load(GameState gs, java.util.List<UndoRecord> undos) {
+        clear();
+        GameState at = gs.snapshot();
+        for (int i = undos.size() - 1; i >= 0; i--)
+            at.unmakeMove(undos.get(i));
+        for (UndoRecord undo : undos)
+            recordApplied(at, at.makeMove(undo.getPackedMove()));
+    }
+
     /** Clears all history (undo/redo stacks). */
     void clear();
 
@@ -43,6 +89,26 @@ public interface MoveHistoryService {
      */
     void redo(GameState gs);
 
+    /** @return number of recorded moves currently applied */
+    default int getPly() {
+        return getMoves().size();
+    }
+
+    /**
+     * Moves {@code gs} to the position after the first {@code ply} recorded
+     * moves, keeping later moves available to redo. The default steps
+     * through {@link #undo(GameState)} and {@link #redo(GameState)}.
+     *
+     * @param gs  the game state to move
+     * @param ply target number of applied moves
+     */
+    default void seekToPly(GameState gs, int ply) {
+        while (getPly() > ply && canUndo())
+            undo(gs);
+        while (getPly() < ply && canRedo())
+            redo(gs);
+    }
+
     /**
      * Peek at the next redo move without consuming it.
      *
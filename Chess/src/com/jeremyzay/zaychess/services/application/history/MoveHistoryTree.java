@@ -0,0 +1,349 @@
+package com.jeremyzay.zaychess.services.application.history;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+
+import com.jeremyzay.zaychess.model.game.GameState;
+import com.jeremyzay.zaychess.model.game.UndoRecord;
+import com.jeremyzay.zaychess.model.move.Move;
+
+/**
+ * Variation tree implementation of {@link MoveHistoryService}.
+ *
+ * Every recorded move is a {@link Node} holding only its
+ * {@link UndoRecord}; moves that share an opening share the nodes of that
+ * prefix. Playing a different move after an undo adds a sibling branch
+ * instead of discarding the redo line. Each node remembers which child was
+ * visited last, and the {@link MoveHistoryService} methods work on this
+ * active line: undo walks up, redo follows the active child.
+ *
+ * As in {@link MoveHistoryDelta}, the root and every node whose ply is a
+ * multiple of {@link MoveHistoryDelta#CHECKPOINT_INTERVAL} keep a snapshot
+ * of their position, so {@link #seekToPly(GameState, int)} along the
+ * active line replays fewer than {@code CHECKPOINT_INTERVAL} moves.
+ * {@link #goTo(GameState, Node)} switches to any node in the tree by
+ * unmaking moves up to the common ancestor and making the moves down to
+ * the target, so its cost is the distance between the two nodes.
+ *
+ * As with {@link MoveHistoryDelta}, all calls must pass the same game state.
+ */
+public final class MoveHistoryTree implements MoveHistoryService {
+
+    /** One recorded move in the tree; the root holds no move. */
+    public static final class Node {
+        private final Node parent;
+        private final UndoRecord record; // null for the root
+        private final int ply;
+        private List<Node> children = Collections.emptyList();
+        private Node activeChild;
+        private GameState checkpoint; // position at this node, on checkpoint plies
+
+        private Node(Node parent, UndoRecord record) {
+            this.parent = parent;
+            this.record = record;
+            this.ply = parent == null ? 0 : parent.ply + 1;
+        }
+
+        /** @return the move leading to this node, or null for the root */
+        public Move getMove() {
+            return record == null ? null : record.getMove();
+        }
+
+        /** @return the previous node, or null for the root */
+        public Node getParent() {
+            return parent;
+        }
+
+        /** @return the continuations of this node, main line first */
+        public List<Node> getChildren() {
+            return Collections.unmodifiableList(children);
+        }
+
+        /** @return the continuation that redo follows from this node, or null */
+        public Node getActiveChild() {
+            return activeChild;
+        }
+
+        /** @return number of moves from the root to this node */
+        public int getPly() {
+            return ply;
+        }
+
+        /** Returns the child for a packed move, or null if not recorded yet. */
+        private Node findChild(int packedMove) {
+            for (Node child : children) {
+                if (child.record.getPackedMove() == packedMove)
+                    return child;
+            }
+            return null;
+        }
+
+        private Node addChild(UndoRecord record) {
+            Node child = new Node(this, record);
+            if (children.isEmpty())
+                children = new ArrayList<>(1);
+            children.add(child);
+            return child;
+        }
+    }
+
+    private Node root = new Node(null, null);
+    /** Node of the position the game state is currently in. */
+    private Node current = root;
+
+    /**
+     * Record a move that is about to be applied to {@code gs}. If the move
+     * was already played from this position its branch is reused, otherwise
+     * a new variation is added; either way it becomes the active line.
+     */
+    @Override
+    public void record(GameState gs, Move m) {
+        UndoRecord record = gs.makeMove(m);
+        recordApplied(gs, record);
+        gs.unmakeMove(record);
+    }
+
+    /**
+     * Record a move just made on {@code gs}, keeping the caller's undo
+     * record for a new branch; see {@link #record(GameState, Move)}.
+     */
+    @Override
+    public void recordApplied(GameState gs, UndoRecord undo) {
+        if (current == root && root.checkpoint == null) {
+            GameState before = gs.snapshot();
+            before.unmakeMove(undo);
+            root.checkpoint = before;
+        }
+        Node child = current.findChild(undo.getPackedMove());
+        if (child == null) {
+            child = current.addChild(undo);
+            if (child.ply % MoveHistoryDelta.CHECKPOINT_INTERVAL == 0)
+                child.checkpoint = gs.snapshot();
+        }
+        current.activeChild = child;
+        current = child;
+    }
+
+    /** The snapshot is not needed; see {@link #record(GameState, Move)}. */
+    @Override
+    public void record(GameState gs, Move m, GameState snap) {
+        record(gs, m);
+    }
+
+    /**
+     * Replaces the tree with the single line of {@code undos}, kept as they
+     * are. The checkpoints are taken while unmaking the line on a snapshot
+     * of {@code gs}.
+     */
+    @Override
+    public void load(GameState gs, List<UndoRecord> undos) {
+        clear();
+        for (UndoRecord undo : undos) {
+            Node child = current.addChild(undo);
+            current.activeChild = child;
+            current = child;
+        }
+        if (undos.isEmpty())
+            return;
+        GameState at = gs.snapshot();
+        for (Node n = current; n != null; n = n.parent) {
+            if (n.ply % MoveHistoryDelta.CHECKPOINT_INTERVAL == 0)
+                n.checkpoint = at.snapshot();
+            if (n.record != null)
+                at.unmakeMove(n.record);
+        }
+    }
+
+    @Override
+    public void clear() {
+        root = new Node(null, null);
+        current = root;
+    }
+
+    /** @return true if there is at least one move to undo. */
+    @Override
+    public boolean canUndo() {
+        return current != root;
+    }
+
+    /**
+     * Undo the most recent move by reversing its delta. The branch stays
+     * the active line, so a redo returns to it.
+     */
+    @Override
+    public void undo(GameState gs) {
+        gs.unmakeMove(current.record);
+        // moves are only recorded while the game is running
+        gs.resign(null);
+        gs.setDrawAgreed(false);
+        current = current.parent;
+    }
+
+    /** @return true if the active line continues past the current position. */
+    @Override
+    public boolean canRedo() {
+        return current.activeChild != null;
+    }
+
+    /** Redo the next move of the active line. */
+    @Override
+    public void redo(GameState gs) {
+        current = current.activeChild;
+        gs.makeMove(current.record.getPackedMove());
+    }
+
+    @Override
+    public int getPly() {
+        return current.ply;
+    }
+
+    /**
+     * Moves {@code gs} along the active line to the position after
+     * {@code target} plies, restoring the nearest checkpoint at or before
+     * it unless undoing or redoing from the current position is shorter.
+     */
+    @Override
+    public void seekToPly(GameState gs, int target) {
+        Node node = getLineNode(target);
+        if (node == current)
+            return;
+        if (target < current.ply && current.ply - target < MoveHistoryDelta.CHECKPOINT_INTERVAL) {
+            while (current != node)
+                undo(gs);
+            return;
+        }
+        Node base = node;
+        while (base.checkpoint == null)
+            base = base.parent;
+        if (target < current.ply || current.ply < base.ply) {
+            gs.restoreFrom(base.checkpoint);
+            current = base;
+        } // else the current position is closer than any checkpoint
+        while (current != node)
+            redo(gs);
+    }
+
+    /**
+     * @param ply number of moves from the start
+     * @return the node at {@code ply} on the active line
+     * @throws IndexOutOfBoundsException if the active line is shorter
+     */
+    public Node getLineNode(int ply) {
+        if (ply < 0)
+            throw new IndexOutOfBoundsException("ply " + ply);
+        Node n = current;
+        while (n.ply > ply)
+            n = n.parent;
+        while (n.ply < ply) {
+            n = n.activeChild;
+            if (n == null)
+                throw new IndexOutOfBoundsException("ply " + ply + " beyond the active line");
+        }
+        return n;
+    }
+
+    @Override
+    public Move peekRedoMove() {
+        return canRedo() ? current.activeChild.getMove() : null;
+    }
+
+    @Override
+    public Move peekLastMove() {
+        return current.getMove();
+    }
+
+    @Override
+    public List<Move> getMoves() {
+        Move[] moves = new Move[current.ply];
+        for (Node n = current; n != root; n = n.parent)
+            moves[n.ply - 1] = n.getMove();
+        return new ArrayList<>(List.of(moves));
+    }
+
+    /** @return the root node, before the first move */
+    public Node getRoot() {
+        return root;
+    }
+
+    /** @return the node of the current position */
+    public Node getCurrentNode() {
+        return current;
+    }
+
+    /**
+     * Makes {@code child} the continuation that {@link #redo(GameState)}
+     * follows from its parent, without moving the game state.
+     *
+     * @param child a node of this tree other than the root
+     */
+    public void selectVariation(Node child) {
+        child.parent.activeChild = child;
+    }
+
+    /**
+     * Makes the path from the root to {@code target} the active line,
+     * without moving the game state. The active continuation below
+     * {@code target} is kept.
+     *
+     * @param target a node of this tree
+     * @return true if the active line changed
+     */
+    public boolean selectLine(Node target) {
+        boolean changed = false;
+        for (Node n = target; n.parent != null; n = n.parent) {
+            changed |= n.parent.activeChild != n;
+            n.parent.activeChild = n;
+        }
+        return changed;
+    }
+
+    /**
+     * @param target a node of this tree
+     * @return the deepest node on both the path to the current position
+     *         and the path to {@code target}
+     */
+    public Node commonAncestor(Node target) {
+        Node a = current, b = target;
+        while (a.ply > b.ply)
+            a = a.parent;
+        while (b.ply > a.ply)
+            b = b.parent;
+        while (a != b) {
+            a = a.parent;
+            b = b.parent;
+        }
+        return a;
+    }
+
+    /**
+     * Moves {@code gs} to the position of {@code target}, which may lie on
+     * any branch. The path to the target becomes the active line.
+     *
+     * @param gs     the game state to move
+     * @param target a node of this tree
+     */
+    public void goTo(GameState gs, Node target) {
+        // unmake up to the common ancestor
+        Deque<Node> down = new ArrayDeque<>();
+        Node t = target;
+        while (t.ply > current.ply) {
+            down.push(t);
+            t = t.parent;
+        }
+        while (current.ply > t.ply)
+            undo(gs);
+        while (current != t) {
+            undo(gs);
+            down.push(t);
+            t = t.parent;
+        }
+        // make down to the target
+        while (!down.isEmpty()) {
+            current.activeChild = down.pop();
+            redo(gs);
+        }
+    }
+}
@@ -0,0 +1,308 @@
+package com.jeremyzay.zaychess.services.application.notation;
+
+import com.jeremyzay.zaychess.model.board.Board;
+import com.jeremyzay.zaychess.model.game.GameState;
+import com.jeremyzay.zaychess.model.move.SpecialMoveHandler;
+import com.jeremyzay.zaychess.model.pieces.Piece;
+import com.jeremyzay.zaychess.model.pieces.PieceType;
+import com.jeremyzay.zaychess.model.util.PlayerColor;
+import com.jeremyzay.zaychess.model.util.Position;
+
+/**
+ * Single-pass FEN writer and parser.
+ *
+ * Writing fills a per-thread reusable {@code char[]} and creates only the
+ * resulting {@link String}. Full FENs are also kept in a small cache keyed
+ * by the position's Zobrist hash, move clocks and en passant target, so
+ * repeated engine syncs of the same position return the same string
+ * without rebuilding it. The target is part of the cache key because the
+ * hash leaves it out when no pawn can capture, while the FEN still names it.
+ *
+ * Parsing walks the string once, without regular expressions or
+ * intermediate arrays, and sets up the board directly instead of clearing
+ * a default game.
+ *
+ * Castling letters are those of
+ * {@link SpecialMoveHandler#getCastlingRights(Board)}: the king and rook
+ * still stand on their home squares and have not moved.
+ */
+public final class FenCodec {
+    private FenCodec() {
+    } // utility class
+
+    /** Longest FEN this codec writes: 71 placement + 4 fields + clocks. */
+    private static final int MAX_LENGTH = 100;
+
+    private static final ThreadLocal<char[]> BUFFER = ThreadLocal.withInitial(() -> new char[MAX_LENGTH]);
+
+    /** FEN symbols indexed like {@link Piece#of}: color * 6 + type. */
+    private static final char[] SYMBOLS = {
+            'p', 'r', 'n', 'b', 'q', 'k', // black
+            'P', 'R', 'N', 'B', 'Q', 'K', // white
+    };
+    private static final PlayerColor[] COLORS = PlayerColor.values();
+    private static final PieceType[] TYPES = PieceType.values();
+
+    // =====================================================
+    // Cache
+    // =====================================================
+
+    private static final int CACHE_SIZE = 256; // power of two
+
+    /** One cached FEN; replaced as a whole, so racing readers stay consistent. */
+    private static final class Entry {
+        final long key;
+        final int clocks;
+        final int ep;
+        final String fen;
+
+        Entry(long key, int clocks, int ep, String fen) {
+            this.key = key;
+            this.clocks = clocks;
+            this.ep = ep;
+            this.fen = fen;
+        }
+    }
+
+    private static final Entry[] CACHE = new Entry[CACHE_SIZE];
+
+    // =====================================================
+    // Writing
+    // =====================================================
+
+    /**
+     * Generates the full FEN of a game state, including move clocks.
+     *
+     * @param gs the game state
+     * @return FEN string
+     */
+    public static String toFen(GameState gs) {
+        long key = gs.getZobristKey();
+        int clocks = (gs.getHalfmoveClock() << 16) | (gs.getFullmoveNumber() & 0xFFFF);
+        Position target = gs.getSpecialMoveHandler().getEnPassantTarget();
+        int ep = target == null ? -1 : target.getIndex();
+        int slot = (int) (key ^ (key >>> 32) ^ clocks ^ ep) & (CACHE_SIZE - 1);
+        Entry e = CACHE[slot];
+        if (e != null && e.key == key && e.clocks == clocks && e.ep == ep)
+            return e.fen;
+
+        char[] buf = BUFFER.get();
+        int len = writePosition(gs, buf);
+        buf[len++] = ' ';
+        len = writeInt(buf, len, gs.getHalfmoveClock());
+        buf[len++] = ' ';
+        len = writeInt(buf, len, gs.getFullmoveNumber());
+        String fen = new String(buf, 0, len);
+        CACHE[slot] = new Entry(key, clocks, ep, fen);
+        return fen;
+    }
+
+    /**
+     * Generates the first four FEN fields (placement, side to move,
+     * castling, en passant), without the move clocks.
+     *
+     * @param gs the game state
+     * @return position part of the FEN
+     */
+    public static String toPositionFen(GameState gs) {
+        char[] buf = BUFFER.get();
+        return new String(buf, 0, writePosition(gs, buf));
+    }
+
+    /** Writes the first four fields into {@code buf}; returns their length. */
+    private static int writePosition(GameState gs, char[] buf) {
+        Board board = gs.getBoard();
+        int len = 0;
+        for (int rank = 0; rank < 8; rank++) {
+            if (rank > 0)
+                buf[len++] = '/';
+            int empty = 0;
+            for (int sq = rank * 8; sq < rank * 8 + 8; sq++) {
+                Piece piece = board.getPieceAt(sq);
+                if (piece == null) {
+                    empty++;
+                    continue;
+                }
+                if (empty > 0) {
+                    buf[len++] = (char) ('0' + empty);
+                    empty = 0;
+                }
+                buf[len++] = SYMBOLS[piece.getColor().ordinal() * 6 + piece.getType().ordinal()];
+            }
+            if (empty > 0)
+                buf[len++] = (char) ('0' + empty);
+        }
+
+        buf[len++] = ' ';
+        buf[len++] = gs.getTurn() == PlayerColor.WHITE ? 'w' : 'b';
+
+        buf[len++] = ' ';
+        int rights = gs.getSpecialMoveHandler().getCastlingRights(board);
+        if (rights == 0)
+            buf[len++] = '-';
+        if ((rights & 1) != 0)
+            buf[len++] = 'K';
+        if ((rights & 2) != 0)
+            buf[len++] = 'Q';
+        if ((rights & 4) != 0)
+            buf[len++] = 'k';
+        if ((rights & 8) != 0)
+            buf[len++] = 'q';
+
+        buf[len++] = ' ';
+        Position ep = gs.getSpecialMoveHandler().getEnPassantTarget();
+        if (ep == null) {
+            buf[len++] = '-';
+        } else {
+            buf[len++] = (char) ('a' + ep.getFile());
+            buf[len++] = (char) ('8' - ep.getRank());
+        }
+        return len;
+    }
+
+    /** Writes a non-negative decimal number; returns the new length. */
+    private static int writeInt(char[] buf, int len, int value) {
+        if (value >= 10)
+            len = writeInt(buf, len, value / 10);
+        buf[len++] = (char) ('0' + value % 10);
+        return len;
+    }
+
+    // =====================================================
+    // Parsing
+    // =====================================================
+
+    /**
+     * Parses a FEN string. Only the piece placement is required; missing
+     * fields default to White to move, full castling rights, no en passant
+     * target and clocks 0 and 1.
+     *
+     * @param fen FEN string
+     * @return a new game state with a fresh repetition history
+     * @throws IllegalArgumentException if the placement or a field is malformed
+     */
+    public static GameState fromFen(String fen) {
+        int n = fen.length();
+        int i = skipSpaces(fen, 0);
+
+        // --- Piece placement: exactly 8 ranks of 8 files ---
+        Board board = new Board();
+        int rank = 0, file = 0;
+        for (; i < n && !Character.isWhitespace(fen.charAt(i)); i++) {
+            char ch = fen.charAt(i);
+            if (ch == '/') {
+                if (file != 8 || rank == 7)
+                    throw new IllegalArgumentException("Invalid FEN placement: " + fen);
+                rank++;
+                file = 0;
+            } else if (ch >= '1' && ch <= '8') {
+                file += ch - '0';
+                if (file > 8)
+                    throw new IllegalArgumentException("Invalid FEN placement: " + fen);
+            } else {
+                if (file > 7)
+                    throw new IllegalArgumentException("Invalid FEN placement: " + fen);
+                board.setPieceAt(rank * 8 + file, piece(ch));
+                file++;
+            }
+        }
+        if (rank != 7 || file != 8)
+            throw new IllegalArgumentException("Invalid FEN placement: " + fen);
+        GameState state = new GameState(board);
+        SpecialMoveHandler smh = state.getSpecialMoveHandler();
+
+        // --- Active color ---
+        i = skipSpaces(fen, i);
+        if (i < n) {
+            if (fen.charAt(i) == 'b')
+                state.changeTurn();
+            i = skipField(fen, i);
+        }
+
+        // --- Castling rights ---
+        // Mark rights as LOST (hasMoved = true) when the letter is absent
+        i = skipSpaces(fen, i);
+        if (i < n) {
+            int rights = 0;
+            for (; i < n && !Character.isWhitespace(fen.charAt(i)); i++) {
+                switch (fen.charAt(i)) {
+                    case 'K' -> rights |= 1;
+                    case 'Q' -> rights |= 2;
+                    case 'k' -> rights |= 4;
+                    case 'q' -> rights |= 8;
+                    default -> {
+                    }
+                }
+            }
+            smh.setWhiteKingsideRookMoved((rights & 1) == 0);
+            smh.setWhiteQueensideRookMoved((rights & 2) == 0);
+            smh.setBlackKingsideRookMoved((rights & 4) == 0);
+            smh.setBlackQueensideRookMoved((rights & 8) == 0);
+            // If neither side of a king can castle, mark king as moved too
+            smh.setWhiteKingMoved((rights & 3) == 0);
+            smh.setBlackKingMoved((rights & 12) == 0);
+        }
+        smh.dropUnavailableRights(board);
+
+        // --- En passant target ---
+        i = skipSpaces(fen, i);
+        if (i < n) {
+            int end = skipField(fen, i);
+            if (end - i == 2) {
+                int epFile = fen.charAt(i) - 'a';
+                int epRank = '8' - fen.charAt(i + 1);
+                if (epFile < 0 || epFile > 7 || epRank < 0 || epRank > 7)
+                    throw new IllegalArgumentException("Invalid FEN en passant square: " + fen);
+                smh.setEnPassantTarget(Position.of(epRank, epFile));
+            }
+            i = end;
+        }
+
+        // --- Move clocks ---
+        i = skipSpaces(fen, i);
+        if (i < n) {
+            int end = skipField(fen, i);
+            int halfmove = parseInt(fen, i, end);
+            i = skipSpaces(fen, end);
+            int fullmove = i < n ? parseInt(fen, i, skipField(fen, i)) : 1;
+            state.setMoveClocks(halfmove, Math.max(1, fullmove));
+        }
+
+        // Repetition history must start from the loaded position
+        state.resetPositionHistory();
+        return state;
+    }
+
+    /** @return the shared piece for a FEN symbol */
+    private static Piece piece(char ch) {
+        for (int i = 0; i < SYMBOLS.length; i++) {
+            if (SYMBOLS[i] == ch)
+                return Piece.of(COLORS[i / 6], TYPES[i % 6]);
+        }
+        throw new IllegalArgumentException("Unknown FEN piece: " + ch);
+    }
+
+    private static int skipSpaces(String s, int i) {
+        while (i < s.length() && Character.isWhitespace(s.charAt(i)))
+            i++;
+        return i;
+    }
+
+    /** @return index just past the field starting at {@code i} */
+    private static int skipField(String s, int i) {
+        while (i < s.length() && !Character.isWhitespace(s.charAt(i)))
+            i++;
+        return i;
+    }
+
+    private static int parseInt(String s, int from, int to) {
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (c < '0' || c > '9')
+                throw new IllegalArgumentException("Invalid FEN number: " + s);
+            value = value * 10 + (c - '0');
+        }
+        return value;
+    }
+}
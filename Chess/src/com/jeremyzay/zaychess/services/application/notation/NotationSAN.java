@@ -1,28 +1,39 @@
 package com.jeremyzay.zaychess.services.application.notation;
 
-import java.util.ArrayList;
-import java.util.List;
-
+import com.jeremyzay.zaychess.model.board.Bitboards;
 import com.jeremyzay.zaychess.model.board.Board;
 import com.jeremyzay.zaychess.model.game.GameState;
+import com.jeremyzay.zaychess.model.game.UndoRecord;
+import com.jeremyzay.zaychess.model.move.LegalMoveGenerator;
 import com.jeremyzay.zaychess.model.move.Move;
 import com.jeremyzay.zaychess.model.move.MoveType;
+import com.jeremyzay.zaychess.model.move.MoveValidator;
+import com.jeremyzay.zaychess.model.move.PackedMove;
 import com.jeremyzay.zaychess.model.move.PromotionPiece;
 import com.jeremyzay.zaychess.model.pieces.Piece;
-import com.jeremyzay.zaychess.model.pieces.King;
+import com.jeremyzay.zaychess.model.pieces.PieceType;
+import com.jeremyzay.zaychess.model.util.PlayerColor;
 import com.jeremyzay.zaychess.model.util.Position;
-import com.jeremyzay.zaychess.model.move.MoveGenerator;
-import com.jeremyzay.zaychess.model.rules.GameOverType;
 
 /**
- * Utility class for converting moves into SAN (Standard Algebraic Notation).
+ * Utility class for converting moves to and from SAN (Standard Algebraic
+ * Notation).
  *
  * Handles castling, captures, disambiguation, promotion, en passant,
  * and check/checkmate symbols.
+ *
+ * The move is made and taken back on the given state instead of on a copy.
+ * Check is read from attack tables, and mate needs only one early-exit
+ * search for a legal reply. Disambiguation tests the other pieces of the
+ * same type with their attack masks and checks pins only for those that
+ * reach the target.
  */
 public final class NotationSAN {
     private NotationSAN() {}
 
+    private static final long FILE_A = 0x0101010101010101L;
+    private static final long RANK_8 = 0xFFL; // rank index 0
+
     /** Convert a move to SAN string (without explicit "e.p." for en passant). */
     public static String toSAN(GameState before, Move m) {
         return toSAN(before, m, /*includeEpSuffix*/ false);
@@ -37,118 +48,322 @@ public final class NotationSAN {
      * @return SAN string for the move
      */
     public static String toSAN(GameState before, Move m, boolean includeEpSuffix) {
+        if (m.getMoveType() == MoveType.PROMOTION && m.getPromotion() == null)
+            throw new IllegalArgumentException("Promotion choice missing in move");
+        return toSAN(before, PackedMove.fromMove(m), includeEpSuffix);
+    }
+
+    /**
+     * Convert a {@link PackedMove packed move} to SAN string.
+     *
+     * @param before game state before the move; left unchanged
+     * @param move the packed move to convert
+     * @param includeEpSuffix whether to append " e.p." for en passant
+     * @return SAN string for the move
+     */
+    public static String toSAN(GameState before, int move, boolean includeEpSuffix) {
         Board board = before.getBoard();
-        Position from = m.getFromPos();
-        Position to   = m.getToPos();
-        Piece mover   = board.getPieceAt(from);
+        int from = PackedMove.from(move);
+        int to = PackedMove.to(move);
+        MoveType type = PackedMove.type(move);
+        Piece mover = board.getPieceAt(from);
         if (mover == null) throw new IllegalArgumentException("No piece at move.from");
+        StringBuilder san = new StringBuilder(8);
 
-        // 1) Handle castling by king movement geometry
-        if (mover instanceof King && Math.abs(to.getFile() - from.getFile()) == 2) {
-            String san = (to.getFile() > from.getFile()) ? "O-O" : "O-O-O";
-            return appendCheckSymbols(after(before, m), san);
-        }
+        if (mover.getType() == PieceType.KING && Math.abs(to % 8 - from % 8) == 2) {
+            // 1) Handle castling by king movement geometry
+            san.append(to % 8 > from % 8 ? "O-O" : "O-O-O");
+        } else {
+            // 2) Detect capture
+            boolean isEnPassant = type == MoveType.EN_PASSANT;
+            boolean isCapture = isEnPassant || board.getPieceAt(to) != null;
 
-        // 2) Detect capture
-        boolean isEnPassant = m.getMoveType() == MoveType.EN_PASSANT;
-        boolean isCapture   = isEnPassant || board.getPieceAt(to) != null;
+            // 3) Piece letter (pawns omit) and disambiguation, or pawn capture file
+            if (mover.getType() != PieceType.PAWN) {
+                san.append(mover.getSymbol());
+                appendDisambiguation(san, before, mover, from, to);
+            } else if (isCapture) {
+                san.append(fileChar(from % 8));
+            }
 
-        // 3) Piece letter (pawns omit)
-        char pieceChar = Character.toUpperCase(mover.getSymbol());
-        boolean isPawn = (pieceChar == 'P' || mover.getName().equalsIgnoreCase("pawn"));
-        StringBuilder san = new StringBuilder();
+            // 4) Capture marker
+            if (isCapture) san.append('x');
 
-        if (!isPawn) {
-            // Piece letter
-            san.append(pieceLetterForSAN(pieceChar));
-            // Disambiguation if multiple same pieces can move to the target
-            san.append(disambiguation(before, mover, from, to));
-        } else {
-            // Pawn captures include file of origin
-            if (isCapture) san.append(fileChar(from.getFile()));
+            // 5) Destination square
+            san.append(fileChar(to % 8)).append(rankDigit(to / 8));
+
+            // 6) Promotion handling
+            if (type == MoveType.PROMOTION) {
+                PromotionPiece pp = PackedMove.promotion(move);
+                if (pp == null) throw new IllegalArgumentException("Promotion choice missing in move");
+                san.append('=').append(promotionLetter(pp));
+            }
+
+            // 7) Optional "e.p." suffix
+            if (includeEpSuffix && isEnPassant) {
+                san.append(" e.p.");
+            }
         }
 
-        // 4) Capture marker
-        if (isCapture) san.append('x');
+        // 8) Check/mate symbols
+        appendCheckSymbol(san, before, move);
+        return san.toString();
+    }
 
-        // 5) Destination square
-        san.append(square(to));
+    /**
+     * Resolves a SAN string against a position.
+     *
+     * @param before game state the move is played from; left unchanged
+     * @param san move in SAN, e.g. "Nbd7", "exd6", "e8=Q+", "O-O"
+     * @return the legal move it denotes
+     * @throws IllegalArgumentException if the SAN is malformed, illegal or ambiguous
+     */
+    public static Move fromSAN(GameState before, String san) {
+        return PackedMove.toMove(parseSAN(before, san));
+    }
 
-        // 6) Promotion handling
-        if (m.getMoveType() == MoveType.PROMOTION) {
-            PromotionPiece pp = m.getPromotion();
-            if (pp == null) throw new IllegalArgumentException("Promotion choice missing in move");
-            san.append('=').append(promotionLetter(pp));
+    /**
+     * Resolves a SAN string against a position into a {@link PackedMove
+     * packed move}. Candidates are found by looking back from the target
+     * square with attack masks; only when several remain, or to reject
+     * a move that exposes the king, is a move made and taken back.
+     *
+     * Accepts "0-0" for castling, promotions with or without '=', and
+     * trailing check, mate and annotation marks ("+", "#", "!", "?").
+     *
+     * @param before game state the move is played from; left unchanged
+     * @param san move in SAN
+     * @return the legal packed move, with its promotion piece if any
+     * @throws IllegalArgumentException if the SAN is malformed, illegal or ambiguous
+     */
+    public static int parseSAN(GameState before, CharSequence san) {
+        int end = san.length();
+        while (end > 0 && "+#!? ".indexOf(san.charAt(end - 1)) >= 0)
+            end--;
+        if (end >= 4 && san.charAt(end - 1) == '.') // " e.p." suffix
+            end = trimEnd(san, end - 4);
+
+        Board board = before.getBoard();
+        PlayerColor us = before.getTurn();
+
+        // castling
+        if (end >= 3 && (san.charAt(0) == 'O' || san.charAt(0) == '0')) {
+            int from = board.getKingSquare(us);
+            boolean kingSide = end == 3;
+            if (from < 0 || (end != 3 && end != 5))
+                throw illegal(san);
+            int to = kingSide ? from + 2 : from - 2;
+            if (!before.getSpecialMoveHandler().isCastlingValid(before, from, to))
+                throw illegal(san);
+            return PackedMove.encode(from, to, MoveType.CASTLE);
         }
 
-        // 7) Optional "e.p." suffix
-        if (includeEpSuffix && isEnPassant) {
-            san.append(" e.p.");
+        // promotion suffix ("=Q" or "Q")
+        PromotionPiece promotion = null;
+        if (end >= 3) {
+            promotion = promotionPiece(san.charAt(end - 1));
+            if (promotion != null) {
+                end--;
+                if (san.charAt(end - 1) == '=')
+                    end--;
+            }
         }
 
-        // 8) Check/mate symbols
-        return appendCheckSymbols(after(before, m), san.toString());
-    }
+        // destination square
+        if (end < 2)
+            throw illegal(san);
+        int toFile = san.charAt(end - 2) - 'a';
+        int toRank = '8' - san.charAt(end - 1);
+        if (toFile < 0 || toFile > 7 || toRank < 0 || toRank > 7)
+            throw illegal(san);
+        int to = toRank * 8 + toFile;
+        end -= 2;
+        if (end > 0 && san.charAt(end - 1) == 'x')
+            end--;
 
-    /* ---------- helpers ---------- */
+        // piece letter and disambiguation
+        int i = 0;
+        PieceType type = PieceType.PAWN;
+        if (end > 0 && Character.isUpperCase(san.charAt(0))) {
+            type = pieceType(san.charAt(0));
+            i = 1;
+        }
+        long fromMask = ~0L;
+        for (; i < end; i++) {
+            char c = san.charAt(i);
+            if (c >= 'a' && c <= 'h')
+                fromMask &= FILE_A << (c - 'a');
+            else if (c >= '1' && c <= '8')
+                fromMask &= RANK_8 << (8 * ('8' - c));
+            else
+                throw illegal(san);
+        }
 
-    /** @return a new state after applying move m to before. */
-    private static GameState after(GameState before, Move m) {
-        GameState probe = before.copy();
-        probe.applyMove(m);
-        return probe;
-    }
+        long own = board.getOccupancy(us);
+        if ((own & Bitboards.bit(to)) != 0)
+            throw illegal(san);
+        boolean capture = (board.getOccupancy(us.getOpposite()) & Bitboards.bit(to)) != 0;
 
-    /** Append "+" for check or "#" for checkmate if applicable. */
-    private static String appendCheckSymbols(GameState after, String base) {
-        if (after.isGameOver()) {
-            if (after.getGameOverType() == GameOverType.CHECKMATE) {
-                return base + "#";
+        int move;
+        if (type == PieceType.PAWN) {
+            move = resolvePawn(before, us, to, fromMask, capture, promotion);
+        } else {
+            if (promotion != null)
+                throw illegal(san);
+            long candidates = board.getPieceBitboard(us, type) & fromMask
+                    & attacks(type, to, board.getOccupancy());
+            MoveType moveType = capture ? MoveType.CAPTURE : MoveType.NORMAL;
+            move = -1;
+            while (candidates != 0) {
+                int from = Bitboards.firstSquare(candidates);
+                candidates &= candidates - 1;
+                int m = PackedMove.encode(from, to, moveType);
+                if (MoveValidator.leavesKingInCheck(before, m))
+                    continue; // pinned
+                if (move >= 0)
+                    throw new IllegalArgumentException("Ambiguous SAN move: " + san);
+                move = m;
             }
-            return base;
         }
-        if (after.isInCheck()) return base + "+";
-        return base;
-    }
-
-    /** Compute SAN disambiguation if multiple identical pieces could move to same square. */
-    private static String disambiguation(GameState before, Piece mover, Position from, Position to) {
-        List<Position> conflicts = new ArrayList<>();
-        List<Piece> sameColor = before.getBoard().getPiecesOfColor(mover.getColor());
-        for (Piece p : sameColor) {
-            if (p == mover) continue;
-            if (!p.getClass().equals(mover.getClass())) continue;
-
-            List<Move> moves = MoveGenerator.generateLegalMoves(before, p.getPos());
-            for (Move cand : moves) {
-                if (cand.getToPos().equals(to)) {
-                    conflicts.add(p.getPos());
-                    break;
-                }
+        if (move < 0 || (type == PieceType.PAWN && MoveValidator.leavesKingInCheck(before, move)))
+            throw illegal(san);
+        return move;
+    }
+
+    /**
+     * Finds the pawn move to {@code to}: a diagonal capture (including en
+     * passant) if the SAN names an origin file, else a single or double push.
+     *
+     * @return the packed move, or -1 if no pawn can make it
+     */
+    private static int resolvePawn(GameState before, PlayerColor us, int to, long fromMask,
+            boolean capture, PromotionPiece promotion) {
+        Board board = before.getBoard();
+        long pawns = board.getPieceBitboard(us, PieceType.PAWN);
+        int back = us == PlayerColor.WHITE ? 8 : -8; // from target towards our side
+        boolean lastRank = to / 8 == (us == PlayerColor.WHITE ? 0 : 7);
+        if ((promotion != null) != lastRank)
+            return -1;
+
+        int from;
+        MoveType type;
+        if (fromMask != ~0L) {
+            // capture: origin file given, one rank behind the target
+            from = Bitboards.firstSquare(pawns & fromMask
+                    & Bitboards.pawnAttacks(us.getOpposite(), to));
+            if (from == 64)
+                return -1;
+            Position ep = before.getSpecialMoveHandler().getEnPassantTarget();
+            if (capture)
+                type = lastRank ? MoveType.PROMOTION : MoveType.CAPTURE;
+            else if (ep != null && ep.getIndex() == to)
+                type = MoveType.EN_PASSANT;
+            else
+                return -1;
+        } else {
+            if (capture)
+                return -1;
+            from = to + back;
+            if ((pawns & Bitboards.bit(from)) == 0) {
+                // double push from the starting rank over an empty square
+                boolean fromStart = (to + 2 * back) / 8 == (us == PlayerColor.WHITE ? 6 : 1);
+                if (!fromStart || board.getPieceAt(from) != null
+                        || (pawns & Bitboards.bit(to + 2 * back)) == 0)
+                    return -1;
+                from = to + 2 * back;
             }
+            type = lastRank ? MoveType.PROMOTION : MoveType.NORMAL;
         }
-        if (conflicts.isEmpty()) return "";
+        return PackedMove.encode(from, to, type, promotion);
+    }
 
-        boolean fileUnique = true, rankUnique = true;
-        for (Position other : conflicts) {
-            if (other.getFile() == from.getFile()) fileUnique = false;
-            if (other.getRank() == from.getRank()) rankUnique = false;
-        }
+    private static int trimEnd(CharSequence s, int end) {
+        while (end > 0 && s.charAt(end - 1) == ' ')
+            end--;
+        return end;
+    }
+
+    private static IllegalArgumentException illegal(CharSequence san) {
+        return new IllegalArgumentException("Illegal SAN move: " + san);
+    }
 
-        if (fileUnique) return String.valueOf(fileChar(from.getFile()));
-        if (rankUnique) return String.valueOf(rankDigit(from.getRank()));
-        return "" + fileChar(from.getFile()) + rankDigit(from.getRank());
+    private static PieceType pieceType(char letter) {
+        return switch (letter) {
+            case 'N' -> PieceType.KNIGHT;
+            case 'B' -> PieceType.BISHOP;
+            case 'R' -> PieceType.ROOK;
+            case 'Q' -> PieceType.QUEEN;
+            case 'K' -> PieceType.KING;
+            default -> throw new IllegalArgumentException("Unknown SAN piece: " + letter);
+        };
     }
 
-    /** Convert piece symbol to SAN letter (omit pawns). */
-    private static char pieceLetterForSAN(char symbol) {
-        char up = Character.toUpperCase(symbol);
-        return (up == 'P') ? '\0' : up;
+    /** @return the promotion piece for a SAN letter, or null if it is not one */
+    private static PromotionPiece promotionPiece(char letter) {
+        return switch (letter) {
+            case 'Q' -> PromotionPiece.QUEEN;
+            case 'R' -> PromotionPiece.ROOK;
+            case 'B' -> PromotionPiece.BISHOP;
+            case 'N' -> PromotionPiece.KNIGHT;
+            default -> null;
+        };
+    }
+
+    /* ---------- helpers ---------- */
+
+    /**
+     * Append "+" for check or "#" for checkmate if applicable. Makes the
+     * move on {@code before} and takes it back.
+     */
+    private static void appendCheckSymbol(StringBuilder san, GameState before, int move) {
+        UndoRecord undo = before.makeMove(move);
+        try {
+            if (before.isInCheck())
+                san.append(LegalMoveGenerator.hasAnyLegalMove(before) ? '+' : '#');
+        } finally {
+            before.unmakeMove(undo);
+        }
     }
 
-    /** Convert a position to square notation (e.g. e4). */
-    private static String square(Position p) {
-        return "" + fileChar(p.getFile()) + rankDigit(p.getRank());
+    /**
+     * Append SAN disambiguation if other identical pieces could move to the
+     * same square: the file if it is unique among them, else the rank,
+     * else both.
+     */
+    private static void appendDisambiguation(StringBuilder san, GameState before, Piece mover, int from, int to) {
+        Board board = before.getBoard();
+        long occupied = board.getOccupancy();
+        long others = board.getPieceBitboard(mover.getColor(), mover.getType()) & ~Bitboards.bit(from);
+        MoveType type = board.getPieceAt(to) != null ? MoveType.CAPTURE : MoveType.NORMAL;
+        boolean conflict = false, fileUnique = true, rankUnique = true;
+        while (others != 0) {
+            int square = Bitboards.firstSquare(others);
+            others &= others - 1;
+            if ((attacks(mover.getType(), square, occupied) & Bitboards.bit(to)) == 0)
+                continue;
+            if (MoveValidator.leavesKingInCheck(before, PackedMove.encode(square, to, type)))
+                continue; // pinned
+            conflict = true;
+            if (square % 8 == from % 8) fileUnique = false;
+            if (square / 8 == from / 8) rankUnique = false;
+        }
+        if (!conflict) return;
+
+        if (fileUnique) san.append(fileChar(from % 8));
+        else if (rankUnique) san.append(rankDigit(from / 8));
+        else san.append(fileChar(from % 8)).append(rankDigit(from / 8));
+    }
+
+    /** @return squares a non-pawn piece of {@code type} on {@code square} attacks */
+    private static long attacks(PieceType type, int square, long occupied) {
+        return switch (type) {
+            case KNIGHT -> Bitboards.knightAttacks(square);
+            case BISHOP -> Bitboards.bishopAttacks(square, occupied);
+            case ROOK -> Bitboards.rookAttacks(square, occupied);
+            case QUEEN -> Bitboards.queenAttacks(square, occupied);
+            case KING -> Bitboards.kingAttacks(square);
+            case PAWN -> 0L;
+        };
     }
 
     /** Files: 0..7 -> 'a'..'h'. */
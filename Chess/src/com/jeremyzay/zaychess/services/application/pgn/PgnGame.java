@@ -0,0 +1,125 @@
+package com.jeremyzay.zaychess.services.application.pgn;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.jeremyzay.zaychess.model.game.GameState;
+import com.jeremyzay.zaychess.model.move.Move;
+import com.jeremyzay.zaychess.model.move.PackedMove;
+import com.jeremyzay.zaychess.services.application.notation.NotationFEN;
+import com.jeremyzay.zaychess.services.application.notation.NotationSAN;
+
+/**
+ * One game of a PGN collection: its tag pairs, the SAN moves of the main
+ * line and the game termination marker.
+ *
+ * Comments, annotation glyphs and variations are not kept; the reader
+ * skips them and the writer emits only the main line.
+ */
+public final class PgnGame {
+    /** Termination marker for a game still in progress. */
+    public static final String UNKNOWN_RESULT = "*";
+
+    private final Map<String, String> tags;
+    private final List<String> moves;
+    private String result;
+
+    /** Creates an empty game with no tags and an unknown result. */
+    public PgnGame() {
+        this(new LinkedHashMap<>(), new ArrayList<>(), UNKNOWN_RESULT);
+    }
+
+    PgnGame(Map<String, String> tags, List<String> moves, String result) {
+        this.tags = tags;
+        this.moves = moves;
+        this.result = result;
+    }
+
+    /**
+     * Builds a game from moves played from {@code start}, writing each move
+     * in SAN. A {@code SetUp}/{@code FEN} tag pair is added when the start
+     * is not the standard position.
+     *
+     * @param start position before the first move; left unchanged
+     * @param played moves in playing order
+     * @return a new game with an unknown result
+     */
+    public static PgnGame fromMoves(GameState start, List<Move> played) {
+        PgnGame game = new PgnGame();
+        String fen = NotationFEN.toFEN(start);
+        if (!fen.equals(NotationFEN.toFEN(new GameState()))) {
+            game.setTag("SetUp", "1");
+            game.setTag("FEN", fen);
+        }
+        GameState gs = start.copy();
+        for (Move m : played) {
+            int move = PackedMove.fromMove(m);
+            game.moves.add(NotationSAN.toSAN(gs, move, false));
+            gs.makeMove(move);
+        }
+        return game;
+    }
+
+    /** @return the tag pairs in file order; changes write through */
+    public Map<String, String> getTags() {
+        return tags;
+    }
+
+    /** @return the value of a tag, or null if absent */
+    public String getTag(String name) {
+        return tags.get(name);
+    }
+
+    public void setTag(String name, String value) {
+        tags.put(name, value);
+    }
+
+    /** @return the SAN moves of the main line, read-only */
+    public List<String> getMoves() {
+        return Collections.unmodifiableList(moves);
+    }
+
+    /** Appends a SAN move to the main line. */
+    public void addMove(String san) {
+        moves.add(san);
+    }
+
+    /** @return "1-0", "0-1", "1/2-1/2" or {@link #UNKNOWN_RESULT} */
+    public String getResult() {
+        return result;
+    }
+
+    public void setResult(String result) {
+        this.result = result;
+    }
+
+    /**
+     * @return the position before the first move: the {@code FEN} tag if
+     *         present, otherwise the standard start position
+     * @throws IllegalArgumentException if the FEN tag is malformed
+     */
+    public GameState startPosition() {
+        String fen = tags.get("FEN");
+        return fen == null ? new GameState() : NotationFEN.fromFEN(fen);
+    }
+
+    /**
+     * Resolves the SAN moves against the position they are played from.
+     *
+     * @return the main line as fully typed moves
+     * @throws IllegalArgumentException if a move is malformed or illegal
+     */
+    public List<Move> resolveMoves() {
+        GameState gs = startPosition();
+        List<Move> out = new ArrayList<>(moves.size());
+        for (String san : moves) {
+            int move = NotationSAN.parseSAN(gs, san);
+            out.add(PackedMove.toMove(move));
+            gs.makeMove(move);
+        }
+        return out;
+    }
+}
@@ -0,0 +1,315 @@
+package com.jeremyzay.zaychess.services.application.pgn;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Streaming reader for PGN game collections.
+ *
+ * Bytes are pulled from a channel through one fixed-size buffer and
+ * tokenized in a single pass, so only the game being read is held in
+ * memory, whatever the size of the file. Games are returned one at a time
+ * by {@link #readGame()}, as an {@link Iterator}, or as a lazy
+ * {@link Stream} from {@link #stream(Path)}.
+ *
+ * Tag pairs and the main line are kept. Comments ({@code {...}} and
+ * {@code ;} to end of line), {@code %} escape lines, numeric annotation
+ * glyphs, move numbers and variations (nested to any depth) are skipped.
+ * A game ends at its termination marker, or at the first tag pair after
+ * its moves if the marker is missing.
+ *
+ * Moves are not checked here; see {@link PgnGame#resolveMoves()}.
+ */
+public final class PgnReader implements Iterator<PgnGame>, Closeable {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final ReadableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private boolean eof;
+    /** Last two bytes read, to recognize '%' at the start of a line. */
+    private int previous, current = '\n';
+
+    /** Bytes of the token being read. */
+    private byte[] token = new byte[64];
+    private int tokenLength;
+
+    /** Game read ahead by {@link #hasNext()}. */
+    private PgnGame next;
+
+    /**
+     * Creates a reader over a channel; the channel is closed with the reader.
+     *
+     * @param channel source of PGN text in UTF-8
+     */
+    public PgnReader(ReadableByteChannel channel) {
+        this.channel = channel;
+        buffer.flip(); // start empty
+    }
+
+    /**
+     * Opens a PGN file for reading.
+     *
+     * @param file PGN file
+     * @return a reader positioned before the first game
+     * @throws IOException if the file cannot be opened
+     */
+    public static PgnReader open(Path file) throws IOException {
+        return new PgnReader(FileChannel.open(file, StandardOpenOption.READ));
+    }
+
+    /**
+     * Returns the games of a PGN file as a lazy, sequential stream. The
+     * file stays open until the stream is closed, so use it in a
+     * try-with-resources statement.
+     *
+     * @param file PGN file
+     * @return stream of games in file order
+     * @throws IOException if the file cannot be opened
+     */
+    public static Stream<PgnGame> stream(Path file) throws IOException {
+        PgnReader reader = open(file);
+        return StreamSupport
+                .stream(Spliterators.spliteratorUnknownSize(reader, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(() -> {
+                    try {
+                        reader.close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    /**
+     * Reads the next game.
+     *
+     * @return the next game, or null at the end of the input
+     * @throws IOException if reading the channel fails
+     */
+    public PgnGame readGame() throws IOException {
+        if (next != null) {
+            PgnGame game = next;
+            next = null;
+            return game;
+        }
+        Map<String, String> tags = new LinkedHashMap<>();
+        List<String> moves = new ArrayList<>();
+        String result = null;
+        boolean inMoves = false;
+        int depth = 0; // variation nesting
+
+        for (int c = read(); c >= 0 && result == null; c = read()) {
+            if (c == ' ' || c == '\t' || c == '\n' || c == '\r' || c == '.')
+                continue;
+            switch (c) {
+                case '%' -> {
+                    if (previous == '\n')
+                        skipLine();
+                }
+                case ';' -> skipLine();
+                case '{' -> skipPast('}');
+                case '(' -> depth++;
+                case ')' -> depth = Math.max(0, depth - 1);
+                case '$' -> skipDigits(); // annotation glyph
+                case '[' -> {
+                    if (inMoves) { // missing termination marker
+                        unread();
+                        return new PgnGame(tags, moves, PgnGame.UNKNOWN_RESULT);
+                    }
+                    readTag(tags);
+                }
+                default -> {
+                    readToken(c);
+                    inMoves = true;
+                    if (depth == 0)
+                        result = addMovetext(moves);
+                }
+            }
+        }
+        if (result == null && !inMoves && tags.isEmpty())
+            return null;
+        return new PgnGame(tags, moves, result == null ? PgnGame.UNKNOWN_RESULT : result);
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null) {
+            try {
+                next = readGame();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        return next != null;
+    }
+
+    @Override
+    public PgnGame next() {
+        if (!hasNext())
+            throw new NoSuchElementException();
+        PgnGame game = next;
+        next = null;
+        return game;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    // =====================================================
+    // Tokens
+    // =====================================================
+
+    /**
+     * Handles one movetext token: a move number, a termination marker or
+     * a SAN move (which may follow a move number without a space).
+     *
+     * @return the termination marker, or null if the game goes on
+     */
+    private String addMovetext(List<String> moves) {
+        int i = 0;
+        while (i < tokenLength && token[i] >= '0' && token[i] <= '9')
+            i++;
+        if (i > 0 && i < tokenLength && token[i] == '.') {
+            while (i < tokenLength && token[i] == '.')
+                i++;
+        } else {
+            i = 0;
+        }
+        int end = tokenLength;
+        while (end > i && (token[end - 1] == '!' || token[end - 1] == '?'))
+            end--;
+        if (end == i)
+            return null;
+        String text = new String(token, i, end - i, StandardCharsets.US_ASCII);
+        if (i == 0 && (text.equals("1-0") || text.equals("0-1") || text.equals("1/2-1/2") || text.equals("*")))
+            return text;
+        moves.add(text);
+        return null;
+    }
+
+    /** Reads a tag pair after its opening '['. */
+    private void readTag(Map<String, String> tags) throws IOException {
+        int c = skipSpaces();
+        tokenLength = 0;
+        while (c >= 0 && c != '"' && c != ']' && !isSpace(c)) {
+            append(c);
+            c = read();
+        }
+        String name = new String(token, 0, tokenLength, StandardCharsets.US_ASCII);
+        if (isSpace(c))
+            c = skipSpaces();
+        tokenLength = 0;
+        if (c == '"') {
+            for (c = read(); c >= 0 && c != '"'; c = read()) {
+                if (c == '\\')
+                    c = read();
+                if (c >= 0)
+                    append(c);
+            }
+            c = read();
+        }
+        String value = new String(token, 0, tokenLength, StandardCharsets.UTF_8);
+        while (c >= 0 && c != ']' && c != '\n')
+            c = read();
+        if (!name.isEmpty())
+            tags.put(name, value);
+    }
+
+    /** Reads bytes from {@code first} up to the next space or delimiter into {@link #token}. */
+    private void readToken(int first) throws IOException {
+        tokenLength = 0;
+        append(first);
+        for (int c = read(); c >= 0; c = read()) {
+            if (isSpace(c) || c == '{' || c == '}' || c == '(' || c == ')' || c == '[' || c == ';' || c == '$') {
+                unread();
+                return;
+            }
+            append(c);
+        }
+    }
+
+    private void append(int c) {
+        if (tokenLength == token.length)
+            token = Arrays.copyOf(token, tokenLength * 2);
+        token[tokenLength++] = (byte) c;
+    }
+
+    private static boolean isSpace(int c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\r';
+    }
+
+    // =====================================================
+    // Buffer
+    // =====================================================
+
+    /** @return the next byte, or -1 at the end of the input */
+    private int read() throws IOException {
+        if (!buffer.hasRemaining() && !fill())
+            return -1;
+        previous = current;
+        current = buffer.get() & 0xFF;
+        return current;
+    }
+
+    /** Steps back over the byte just read; it is always still in the buffer. */
+    private void unread() {
+        buffer.position(buffer.position() - 1);
+    }
+
+    private boolean fill() throws IOException {
+        if (eof)
+            return false;
+        buffer.clear();
+        int n;
+        do {
+            n = channel.read(buffer);
+        } while (n == 0);
+        buffer.flip();
+        eof = n < 0;
+        return !eof;
+    }
+
+    private int skipSpaces() throws IOException {
+        int c = read();
+        while (isSpace(c))
+            c = read();
+        return c;
+    }
+
+    private void skipDigits() throws IOException {
+        int c = read();
+        while (c >= '0' && c <= '9')
+            c = read();
+        if (c >= 0)
+            unread();
+    }
+
+    private void skipLine() throws IOException {
+        for (int c = read(); c >= 0 && c != '\n'; c = read()) {
+        }
+    }
+
+    private void skipPast(int end) throws IOException {
+        for (int c = read(); c >= 0 && c != end; c = read()) {
+        }
+    }
+}
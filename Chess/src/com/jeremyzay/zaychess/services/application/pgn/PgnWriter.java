@@ -0,0 +1,180 @@
+package com.jeremyzay.zaychess.services.application.pgn;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Map;
+
+import com.jeremyzay.zaychess.model.game.GameState;
+import com.jeremyzay.zaychess.model.util.PlayerColor;
+
+/**
+ * Streaming writer for PGN game collections.
+ *
+ * Each game is formatted into a reused text buffer and encoded into one
+ * fixed-size byte buffer, which is written to the channel whenever it
+ * fills up, so writing any number of games needs constant memory.
+ *
+ * Games are written in export format: the Seven Tag Roster first (with
+ * "?" for missing values and the game's own result), then the other tags,
+ * then the main line wrapped at 79 columns and the termination marker.
+ */
+public final class PgnWriter implements Closeable, Flushable {
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int LINE_LENGTH = 79;
+
+    private static final String[] ROSTER = { "Event", "Site", "Date", "Round", "White", "Black", "Result" };
+
+    private final WritableByteChannel channel;
+    private final ByteBuffer buffer = ByteBuffer.allocate(BUFFER_SIZE);
+    private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder();
+    private final StringBuilder text = new StringBuilder(1024);
+
+    /**
+     * Creates a writer over a channel; the channel is closed with the writer.
+     *
+     * @param channel destination for PGN text in UTF-8
+     */
+    public PgnWriter(WritableByteChannel channel) {
+        this.channel = channel;
+    }
+
+    /**
+     * Creates or truncates a PGN file for writing.
+     *
+     * @param file PGN file
+     * @return a writer at the start of the file
+     * @throws IOException if the file cannot be opened
+     */
+    public static PgnWriter create(Path file) throws IOException {
+        return new PgnWriter(FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE));
+    }
+
+    /**
+     * Appends one game.
+     *
+     * @param game the game to write
+     * @throws IOException if writing the channel fails
+     */
+    public void write(PgnGame game) throws IOException {
+        text.setLength(0);
+        Map<String, String> tags = game.getTags();
+        for (String name : ROSTER) {
+            String value = name.equals("Result") ? game.getResult() : tags.get(name);
+            if (value == null)
+                value = name.equals("Date") ? "????.??.??" : "?";
+            appendTag(name, value);
+        }
+        for (Map.Entry<String, String> tag : tags.entrySet()) {
+            if (!isRoster(tag.getKey()))
+                appendTag(tag.getKey(), tag.getValue());
+        }
+        text.append('\n');
+
+        // Move numbers continue from the FEN tag, if any
+        int number = 1;
+        boolean white = true;
+        if (game.getTag("FEN") != null) {
+            GameState start = game.startPosition();
+            number = start.getFullmoveNumber();
+            white = start.getTurn() == PlayerColor.WHITE;
+        }
+        int lineStart = text.length();
+        boolean first = true;
+        for (String san : game.getMoves()) {
+            if (white)
+                lineStart = appendWord(number + ".", lineStart);
+            else if (first)
+                lineStart = appendWord(number + "...", lineStart);
+            lineStart = appendWord(san, lineStart);
+            if (!white)
+                number++;
+            white = !white;
+            first = false;
+        }
+        appendWord(game.getResult(), lineStart);
+        text.append("\n\n");
+        encode();
+    }
+
+    /** Writes buffered bytes to the channel. */
+    @Override
+    public void flush() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining())
+            channel.write(buffer);
+        buffer.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private static boolean isRoster(String name) {
+        for (String r : ROSTER) {
+            if (r.equals(name))
+                return true;
+        }
+        return false;
+    }
+
+    private void appendTag(String name, String value) {
+        text.append('[').append(name).append(" \"");
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\')
+                text.append('\\');
+            text.append(c);
+        }
+        text.append("\"]\n");
+    }
+
+    /**
+     * Appends a movetext word, starting a new line if it would not fit.
+     *
+     * @return start index of the current line
+     */
+    private int appendWord(String word, int lineStart) {
+        if (text.length() > lineStart) {
+            if (text.length() - lineStart + 1 + word.length() > LINE_LENGTH) {
+                text.append('\n');
+                lineStart = text.length();
+            } else {
+                text.append(' ');
+            }
+        }
+        text.append(word);
+        return lineStart;
+    }
+
+    /** Encodes {@link #text} into the byte buffer, flushing when it is full. */
+    private void encode() throws IOException {
+        CharBuffer in = CharBuffer.wrap(text);
+        encoder.reset();
+        for (;;) {
+            CoderResult result = encoder.encode(in, buffer, true);
+            if (result.isOverflow()) {
+                flush();
+            } else if (result.isError()) {
+                result.throwException();
+            } else {
+                break;
+            }
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package com.jeremyzay.zaychess.tests;
+
+import com.jeremyzay.zaychess.controller.saveload.AutosaveJournal;
+import com.jeremyzay.zaychess.model.game.GameState;
+import com.jeremyzay.zaychess.model.move.Move;
+import com.jeremyzay.zaychess.model.move.PackedMove;
+import com.jeremyzay.zaychess.model.util.PlayerColor;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Tests for {@link AutosaveJournal}.
+ * Records seeded random games with undos, redos and restarts, recovers
+ * them with their engine setup, checks that torn and damaged records end
+ * recovery, that open journals are neither found nor discarded, here or
+ * by another JVM, and
+ * reports the cost of recording a move.
+ */
+public class AutosaveJournalTest {
+
+    private static int testsRun = 0;
+    private static int testsPassed = 0;
+    private static int testsFailed = 0;
+
+    public static void main(String[] args) throws Exception {
+        if (args.length == 2 && args[0].equals("find")) { // see findInOtherInstance
+            System.out.println(AutosaveJournal.findUnfinished(Path.of(args[1])).size());
+            return;
+        }
+        System.out.println("=== AutosaveJournal Test ===\n");
+
+        Path dir = Files.createTempDirectory("test_journal");
+        dir.toFile().deleteOnExit();
+
+        testRecordAndRecover(dir);
+        testDamagedTail(dir);
+        testFinishAndFind(dir);
+        testEngineSetup(dir);
+        testRecordCost(dir);
+
+        System.out.println("\n=== Test Results ===");
+        System.out.println("Total: " + testsRun);
+        System.out.println("Passed: " + testsPassed);
+        System.out.println("Failed: " + testsFailed);
+
+        if (testsFailed > 0) {
+            System.exit(1);
+        }
+    }
+
+    // =====================================================
+    // Test Cases
+    // =====================================================
+
+    private static void testRecordAndRecover(Path dir) throws Exception {
+        System.out.println("TEST: Record and recover");
+        Random rnd = new Random(20240920L);
+        int mismatches = 0;
+        for (int round = 0; round < 50; round++) {
+            List<Move> game = TestGames.randomGame(rnd, 80);
+            AutosaveJournal journal = AutosaveJournal.create(dir);
+            List<Move> line = new ArrayList<>();
+            int ply = 0;
+            if (round % 5 == 0) {
+                // a restarted game: only what follows the reset counts
+                for (int i = 0; i < 10 && i < game.size(); i++)
+                    journal.recordMove(i, game.get(i));
+                journal.recordReset();
+            }
+            for (Move m : game) {
+                journal.recordMove(ply, m);
+                line.subList(ply, line.size()).clear();
+                line.add(m);
+                ply++;
+                if (rnd.nextInt(8) == 0 && ply > 2) {
+                    // take back two moves, then redo them or play them again
+                    ply -= 2;
+                    journal.recordPly(ply);
+                    if (rnd.nextBoolean()) {
+                        ply += 2;
+                        journal.recordPly(ply);
+                    } else {
+                        // the two moves are the end of the line, so it is unchanged
+                        for (int i = 0; i < 2; i++, ply++)
+                            journal.recordMove(ply, line.get(ply));
+                    }
+                }
+            }
+            if (round % 2 == 1 && ply > 0) {
+                // left mid-game after stepping back
+                ply = rnd.nextInt(ply);
+                journal.recordPly(ply);
+            }
+            journal.close();
+
+            AutosaveJournal.Recovered recovered = AutosaveJournal.recover(journal.getFile());
+            if (recovered.ply() != ply || !TestGames.packed(recovered.moves()).equals(TestGames.packed(line)))
+                mismatches++;
+            journal.finish();
+        }
+        assertEqual("Recovery mismatches", 0, mismatches);
+
+        AutosaveJournal journal = AutosaveJournal.create(dir);
+        List<Move> mate = foolsMate();
+        for (int i = 0; i < mate.size(); i++)
+            journal.recordMove(i, mate.get(i));
+        journal.close();
+        assertEqual("Finished game flagged", true, AutosaveJournal.recover(journal.getFile()).gameOver());
+        journal.recordPly(2); // ignored once closed
+        journal.finish();
+
+        // left after the mate, with an illegal move recorded past it
+        journal = AutosaveJournal.create(dir);
+        for (int i = 0; i < mate.size(); i++)
+            journal.recordMove(i, mate.get(i));
+        journal.recordMove(mate.size(), mate.get(0));
+        journal.close();
+        AutosaveJournal.Recovered past = AutosaveJournal.recover(journal.getFile());
+        assertEqual("Resumes at the legal prefix", mate.size(), past.ply());
+        assertEqual("Finished game flagged past the legal prefix", true, past.gameOver());
+        journal.finish();
+        passed("Record and recover");
+    }
+
+    private static void testDamagedTail(Path dir) throws Exception {
+        System.out.println("TEST: Torn and damaged records");
+        List<Move> game = TestGames.randomGame(new Random(7L), 40);
+        AutosaveJournal journal = AutosaveJournal.create(dir);
+        for (int i = 0; i < game.size(); i++)
+            journal.recordMove(i, game.get(i));
+        journal.close();
+        Path file = journal.getFile();
+        long length = Files.size(file);
+        assertEqual("File length", 4L + 12L * game.size(), length);
+
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.setLength(length - 5);
+        }
+        AutosaveJournal.Recovered torn = AutosaveJournal.recover(file);
+        assertEqual("Torn record dropped", game.size() - 1, torn.ply());
+        assertEqual("Torn moves kept", TestGames.packed(game.subList(0, game.size() - 1)),
+                TestGames.packed(torn.moves()));
+
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.seek(4 + 12 * 10 + 5);
+            raf.write(raf.read() ^ 0x10);
+        }
+        assertEqual("Damaged record ends recovery", 10, AutosaveJournal.recover(file).ply());
+
+        Files.writeString(file, "e2e4\ne7e5\n");
+        String result;
+        try {
+            AutosaveJournal.recover(file);
+            result = "recovered";
+        } catch (IOException e) {
+            result = "rejected";
+        }
+        assertEqual("Text file", "rejected", result);
+        journal.finish();
+        passed("Torn and damaged records");
+    }
+
+    private static void testFinishAndFind(Path dir) throws Exception {
+        System.out.println("TEST: Finish and find");
+        assertEqual("No leftovers", 0, AutosaveJournal.findUnfinished(dir).size());
+
+        AutosaveJournal unused = AutosaveJournal.create(dir);
+        assertEqual("Header only", 4L, Files.size(unused.getFile()));
+        unused.close();
+        assertEqual("No moves without records", 0, AutosaveJournal.recover(unused.getFile()).moves().size());
+        assertEqual("Discarded", true, AutosaveJournal.discard(unused.getFile()));
+        assertEqual("Discarded file gone", false, Files.exists(unused.getFile()));
+
+        AutosaveJournal kept = AutosaveJournal.create(dir);
+        kept.recordMove(0, foolsMate().get(0));
+        kept.flush();
+        assertEqual("Flushed to disk", 16L, Files.size(kept.getFile()));
+        // an open journal belongs to a game in progress
+        assertEqual("Open journal not found", 0, AutosaveJournal.findUnfinished(dir).size());
+        assertEqual("Open journal not discarded", false, AutosaveJournal.discard(kept.getFile()));
+        assertEqual("Open journal kept", true, Files.exists(kept.getFile()));
+        assertEqual("Still not found", 0, AutosaveJournal.findUnfinished(dir).size());
+        // looking at it from this instance must not drop its lock
+        assertEqual("Still locked for other instances", 0, findInOtherInstance(dir));
+        kept.close();
+        assertEqual("Closed journal found", List.of(kept.getFile()), AutosaveJournal.findUnfinished(dir));
+        kept.finish();
+        assertEqual("Finished journal deleted", 0, AutosaveJournal.findUnfinished(dir).size());
+        assertEqual("Discarding a missing file", true, AutosaveJournal.discard(kept.getFile()));
+        assertEqual("Missing directory", 0, AutosaveJournal.findUnfinished(dir.resolve("missing")).size());
+        passed("Finish and find");
+    }
+
+    private static void testEngineSetup(Path dir) throws Exception {
+        System.out.println("TEST: Engine setup");
+        List<Move> game = TestGames.randomGame(new Random(13L), 30);
+        AutosaveJournal journal = AutosaveJournal.create(dir);
+        for (int i = 0; i < 10; i++)
+            journal.recordMove(i, game.get(i));
+        journal.close();
+        AutosaveJournal.Recovered human = AutosaveJournal.recover(journal.getFile());
+        assertEqual("No engine", true, human.humanSide() == null);
+        journal.finish();
+
+        journal = AutosaveJournal.create(dir);
+        journal.recordEngineGame(PlayerColor.BLACK, 7);
+        for (int i = 0; i < 10; i++)
+            journal.recordMove(i, game.get(i));
+        journal.recordReset(); // a rematch keeps the setup
+        for (int i = 0; i < game.size(); i++)
+            journal.recordMove(i, game.get(i));
+        journal.close();
+        AutosaveJournal.Recovered engine = AutosaveJournal.recover(journal.getFile());
+        assertEqual("Human side", PlayerColor.BLACK, engine.humanSide());
+        assertEqual("Difficulty", 7, engine.difficulty());
+        assertEqual("Moves", TestGames.packed(game), TestGames.packed(engine.moves()));
+        journal.finish();
+        passed("Engine setup");
+    }
+
+    private static void testRecordCost(Path dir) throws Exception {
+        System.out.println("TEST: Recording does not wait for the disk");
+        List<Move> game = TestGames.randomGame(new Random(11L), 200);
+        int records = 100_000;
+        AutosaveJournal journal = AutosaveJournal.create(dir);
+        long start = System.nanoTime();
+        for (int i = 0; i < records; i++) {
+            int ply = i % game.size();
+            journal.recordMove(ply, game.get(ply));
+        }
+        long recordNanos = System.nanoTime() - start;
+        journal.flush();
+        long flushNanos = System.nanoTime() - start;
+        journal.finish();
+
+        // one force per record would take far longer than this
+        assertEqual("Recording is cheap", true, recordNanos / records < 20_000);
+        System.out.println("  " + records + " records: " + recordNanos / records + " ns per record, "
+                + flushNanos / 1_000_000 + " ms until on disk");
+        passed("Recording does not wait for the disk");
+    }
+
+    // =====================================================
+    // Helpers
+    // =====================================================
+
+    /** @return the number of journals another JVM finds in {@code dir} */
+    private static int findInOtherInstance(Path dir) throws IOException, InterruptedException {
+        Process process = new ProcessBuilder(
+                Path.of(System.getProperty("java.home"), "bin", "java").toString(),
+                "-cp", System.getProperty("java.class.path"),
+                AutosaveJournalTest.class.getName(), "find", dir.toString())
+                .redirectErrorStream(true).start();
+        String output = new String(process.getInputStream().readAllBytes()).trim();
+        process.waitFor();
+        return Integer.parseInt(output);
+    }
+
+    private static List<Move> foolsMate() {
+        List<Move> moves = new ArrayList<>();
+        GameState gs = new GameState();
+        for (String uci : new String[] { "f2f3", "e7e5", "g2g4", "d8h4" }) {
+            int move = TestGames.find(gs, uci);
+            moves.add(PackedMove.toMove(move));
+            gs.makeMove(move);
+        }
+        return moves;
+    }
+
+    private static void assertEqual(String testName, Object expected, Object actual) {
+        testsRun++;
+        if (expected.equals(actual)) {
+            testsPassed++;
+        } else {
+            testsFailed++;
+            System.out.println("  FAIL: " + testName + " - Expected: " + expected + ", Got: " + actual);
+        }
+    }
+
+    private static void passed(String testName) {
+        System.out.println("  ✓ " + testName + " passed\n");
+    }
+}
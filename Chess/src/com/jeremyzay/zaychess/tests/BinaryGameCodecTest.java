@@ -0,0 +1,146 @@
+package com.jeremyzay.zaychess.tests;
+
+import com.jeremyzay.zaychess.model.game.GameState;
+import com.jeremyzay.zaychess.model.move.Move;
+import com.jeremyzay.zaychess.services.application.archive.BinaryGameCodec;
+import com.jeremyzay.zaychess.services.application.notation.NotationFEN;
+import com.jeremyzay.zaychess.services.infrastructure.network.UciCodec;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.zip.CRC32;
+
+/**
+ * Tests for {@link BinaryGameCodec}.
+ * Round-trips seeded random games, compares the encoded size with UCI
+ * text, checks that damaged data is rejected, and reports decoding
+ * throughput in games per second.
+ */
+public class BinaryGameCodecTest {
+
+    private static int testsRun = 0;
+    private static int testsPassed = 0;
+    private static int testsFailed = 0;
+
+    private static final String SETUP_FEN = "r3k2r/8/8/8/8/8/PPPPPPPP/R3K2R b KQkq - 0 12";
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("=== BinaryGameCodec Test ===\n");
+
+        testRoundTrip();
+        testRejected();
+
+        System.out.println("\n=== Test Results ===");
+        System.out.println("Total: " + testsRun);
+        System.out.println("Passed: " + testsPassed);
+        System.out.println("Failed: " + testsFailed);
+
+        if (testsFailed > 0) {
+            System.exit(1);
+        }
+    }
+
+    // =====================================================
+    // Test Cases
+    // =====================================================
+
+    private static void testRoundTrip() throws Exception {
+        System.out.println("TEST: Round trip of random games");
+        Random rnd = new Random(20240815L);
+        int count = 1000;
+        List<List<Move>> games = new ArrayList<>();
+        List<byte[]> encoded = new ArrayList<>();
+        long binaryBytes = 0, uciBytes = 0;
+        for (int i = 0; i < count; i++) {
+            GameState start = i % 10 == 0 ? NotationFEN.fromFEN(SETUP_FEN) : new GameState();
+            List<Move> moves = TestGames.randomGame(start.copy(), rnd, 120);
+            byte[] data = BinaryGameCodec.encode(start, moves, true);
+            games.add(moves);
+            encoded.add(data);
+            binaryBytes += data.length;
+            for (Move m : moves)
+                uciBytes += UciCodec.toUci(m).length() + 1;
+        }
+
+        int mismatches = 0;
+        for (int i = 0; i < count; i++) {
+            BinaryGameCodec.Game game = BinaryGameCodec.decode(encoded.get(i));
+            if (!TestGames.packed(game.moves()).equals(TestGames.packed(games.get(i))))
+                mismatches++;
+            else if ((i % 10 == 0) != !NotationFEN.toFEN(game.start()).equals(NotationFEN.toFEN(new GameState())))
+                mismatches++;
+        }
+        assertEqual("Round trip mismatches", 0, mismatches);
+        assertEqual("Smaller than UCI text", true, binaryBytes * 4 < uciBytes);
+
+        long start = System.nanoTime();
+        for (byte[] data : encoded)
+            BinaryGameCodec.decode(data);
+        long nanos = System.nanoTime() - start;
+        System.out.println("  " + count + " games: " + binaryBytes / 1024 + " KiB binary vs "
+                + uciBytes / 1024 + " KiB UCI text, decode "
+                + (count * 1_000_000_000L / Math.max(1, nanos)) + " games/s");
+        passed("Round trip of random games");
+    }
+
+    private static void testRejected() throws Exception {
+        System.out.println("TEST: Damaged data is rejected");
+        List<Move> moves = TestGames.randomGame(new Random(3L), 120);
+        byte[] data = BinaryGameCodec.encode(new GameState(), moves, true);
+        assertEqual("Intact data verifies", true, BinaryGameCodec.verify(data));
+
+        byte[] flipped = data.clone();
+        flipped[10] ^= 0x01;
+        assertEqual("Flipped bit fails CRC", false, BinaryGameCodec.verify(flipped));
+        assertDecodeFails("Flipped bit", flipped);
+
+        byte[] truncated = Arrays.copyOf(data, data.length - 1);
+        assertDecodeFails("Truncated", truncated);
+
+        // a wrong final hash with a valid CRC is caught by the replay
+        byte[] wrongHash = data.clone();
+        int hashAt = data.length - 4 - 8;
+        wrongHash[hashAt] ^= 0x01;
+        CRC32 crc = new CRC32();
+        crc.update(wrongHash, 0, data.length - 4);
+        ByteBuffer.wrap(wrongHash).putInt(data.length - 4, (int) crc.getValue());
+        assertEqual("Rewritten CRC verifies", true, BinaryGameCodec.verify(wrongHash));
+        assertDecodeFails("Wrong final hash", wrongHash);
+
+        assertDecodeFails("Not a game", "e2e4\ne7e5\n".getBytes());
+        passed("Damaged data is rejected");
+    }
+
+    // =====================================================
+    // Helpers
+    // =====================================================
+
+    private static void assertDecodeFails(String testName, byte[] data) {
+        String result;
+        try {
+            BinaryGameCodec.decode(data);
+            result = "decoded";
+        } catch (IOException e) {
+            result = "rejected";
+        }
+        assertEqual(testName, "rejected", result);
+    }
+
+    private static void assertEqual(String testName, Object expected, Object actual) {
+        testsRun++;
+        if (expected.equals(actual)) {
+            testsPassed++;
+        } else {
+            testsFailed++;
+            System.out.println("  FAIL: " + testName + " - Expected: " + expected + ", Got: " + actual);
+        }
+    }
+
+    private static void passed(String testName) {
+        System.out.println("  ✓ " + testName + " passed\n");
+    }
+}
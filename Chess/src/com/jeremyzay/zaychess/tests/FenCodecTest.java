@@ -0,0 +1,164 @@
+package com.jeremyzay.zaychess.tests;
+
+import com.jeremyzay.zaychess.model.game.GameState;
+import com.jeremyzay.zaychess.model.game.UndoRecord;
+import com.jeremyzay.zaychess.model.move.Move;
+import com.jeremyzay.zaychess.services.application.notation.FenCodec;
+
+import java.util.Random;
+
+/**
+ * Tests for {@link FenCodec}.
+ * Round-trips hand-written FENs and the positions of random games, checks
+ * that cached FENs stay right across make/unmake and move clocks, and that
+ * malformed placements are rejected.
+ */
+public class FenCodecTest {
+
+    private static int testsRun = 0;
+    private static int testsPassed = 0;
+    private static int testsFailed = 0;
+
+    private static final String START = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    public static void main(String[] args) {
+        System.out.println("=== FenCodec Test ===\n");
+
+        testRoundTrip();
+        testRandomGames();
+        testCache();
+        testMalformedPlacement();
+
+        System.out.println("\n=== Test Results ===");
+        System.out.println("Total: " + testsRun);
+        System.out.println("Passed: " + testsPassed);
+        System.out.println("Failed: " + testsFailed);
+
+        if (testsFailed > 0) {
+            System.exit(1);
+        }
+    }
+
+    // =====================================================
+    // Test Cases
+    // =====================================================
+
+    private static void testRoundTrip() {
+        System.out.println("TEST: Round trip");
+        String[] fens = {
+                START,
+                "rnbqkbnr/pp1ppppp/8/2p5/4P3/8/PPPP1PPP/RNBQKBNR w KQkq c6 0 2",
+                "r3k2r/pp3ppp/8/3pP3/8/8/PPP2PPP/R3K2R w Kq d6 0 17",
+                "r3k3/8/8/8/4Pp2/8/8/4K2R b Kq e3 0 40",
+                "4k3/8/8/8/8/8/8/4K2R b K - 37 81",
+                "8/5k2/8/8/8/8/1K6/8 w - - 99 250",
+        };
+        for (String fen : fens)
+            assertEqual("Round trip " + fen, fen, FenCodec.toFen(FenCodec.fromFen(fen)));
+
+        GameState clocks = FenCodec.fromFen("4k3/8/8/8/8/8/8/4K2R b K - 37 81");
+        assertEqual("Halfmove clock", 37, clocks.getHalfmoveClock());
+        assertEqual("Fullmove number", 81, clocks.getFullmoveNumber());
+        assertEqual("Missing fields default", START, FenCodec.toFen(FenCodec.fromFen(START.substring(0, 43))));
+        passed("Round trip");
+    }
+
+    private static void testRandomGames() {
+        System.out.println("TEST: Positions of random games");
+        Random rnd = new Random(20240905L);
+        int mismatches = 0, positions = 0;
+        for (int round = 0; round < 50; round++) {
+            GameState gs = new GameState();
+            for (Move m : TestGames.randomGame(gs.copy(), rnd, 150)) {
+                gs.applyMove(m);
+                String fen = FenCodec.toFen(gs);
+                GameState loaded = FenCodec.fromFen(fen);
+                if (!fen.equals(FenCodec.toFen(loaded)) || loaded.getZobristKey() != gs.getZobristKey())
+                    mismatches++;
+                positions++;
+            }
+        }
+        assertEqual("Positions", true, positions > 1000);
+        assertEqual("Round trip mismatches", 0, mismatches);
+        passed("Positions of random games");
+    }
+
+    private static void testCache() {
+        System.out.println("TEST: Cached FENs");
+        GameState gs = new GameState();
+        String start = FenCodec.toFen(gs);
+        assertEqual("Start", START, start);
+        assertEqual("Cache hit", true, start == FenCodec.toFen(gs));
+
+        UndoRecord e4 = gs.makeMove(TestGames.find(gs, "e2e4"));
+        assertEqual("After make", "rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1",
+                FenCodec.toFen(gs));
+        gs.unmakeMove(e4);
+        assertEqual("After unmake", START, FenCodec.toFen(gs));
+        assertEqual("Cache hit after unmake", true, start == FenCodec.toFen(gs));
+
+        // same placement and key as the start, different clocks
+        for (String uci : new String[] { "g1f3", "g8f6", "f3g1", "f6g8" })
+            gs.makeMove(TestGames.find(gs, uci));
+        assertEqual("Same key", FenCodec.fromFen(START).getZobristKey(), gs.getZobristKey());
+        assertEqual("Clocks not taken from the cache",
+                "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 4 3", FenCodec.toFen(gs));
+
+        // an en passant target no pawn can take is left out of the key, not the FEN
+        String withTarget = "rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq e3 0 1";
+        String withoutTarget = "rnbqkbnr/pppppppp/8/8/4P3/8/PPPP1PPP/RNBQKBNR b KQkq - 0 1";
+        GameState a = FenCodec.fromFen(withTarget), b = FenCodec.fromFen(withoutTarget);
+        assertEqual("Same key without a capture", a.getZobristKey(), b.getZobristKey());
+        assertEqual("Target kept", withTarget, FenCodec.toFen(a));
+        assertEqual("No target", withoutTarget, FenCodec.toFen(b));
+        passed("Cached FENs");
+    }
+
+    private static void testMalformedPlacement() {
+        System.out.println("TEST: Malformed placements");
+        String[] placements = {
+                "8/8/8/8/8/8/8 w - - 0 1", // seven ranks
+                "8/8/8/8/8/8/8/8/8 w - - 0 1", // nine ranks
+                "4k3/8/8/8/8/8/8/4K35 w - - 0 1", // digit overruns the last rank
+                "4k3/8/8/8/8/8/44K/8 w - - 0 1", // piece after a full rank
+                "4k4/8/8/8/8/8/8/4K3 w - - 0 1", // digits overrun a rank
+                "4k3/7/8/8/8/8/8/4K3 w - - 0 1", // short rank
+                "4k3/8/8/8/8/8/8/4K2 w - - 0 1", // short last rank
+                "4k3/8/8/8/8/8/8/4K3/ w - - 0 1", // trailing separator
+                "4k3/8/8/8/8/8/8/4X3 w - - 0 1", // unknown piece
+                "", // nothing
+        };
+        int accepted = 0;
+        for (String fen : placements) {
+            try {
+                FenCodec.fromFen(fen);
+                accepted++;
+                System.out.println("  accepted: " + fen);
+            } catch (IllegalArgumentException e) {
+                // expected
+            }
+        }
+        assertEqual("Malformed placements accepted", 0, accepted);
+        assertEqual("Digits summing to a rank", "4k3/8/8/8/8/8/8/4K3 w - -",
+                FenCodec.toPositionFen(FenCodec.fromFen("4k12/8/8/8/8/8/8/4K3 w - - 0 1")));
+        passed("Malformed placements");
+    }
+
+    // =====================================================
+    // Helpers
+    // =====================================================
+
+    private static void assertEqual(String testName, Object expected, Object actual) {
+        testsRun++;
+        if (expected.equals(actual)) {
+            testsPassed++;
+        } else {
+            testsFailed++;
+            System.out.println("  FAIL: " + testName + " - Expected: " + expected + ", Got: " + actual);
+        }
+    }
+
+    private static void passed(String testName) {
+        System.out.println("  ✓ " + testName + " passed\n");
+    }
+}
@@ -0,0 +1,252 @@
+package com.jeremyzay.zaychess.tests;
+
+import com.jeremyzay.zaychess.model.game.GameState;
+import com.jeremyzay.zaychess.model.move.Move;
+import com.jeremyzay.zaychess.model.move.MoveType;
+import com.jeremyzay.zaychess.model.util.Position;
+import com.jeremyzay.zaychess.services.application.archive.GameArchive;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Tests for {@link GameArchive}.
+ * Appends seeded random games singly and in batches, reopens the archive
+ * and reads headers and games back, recovers from interrupted appends,
+ * checks that a batch with an illegal game leaves the archive as it was,
+ * and reports open and read times.
+ */
+public class GameArchiveTest {
+
+    private static int testsRun = 0;
+    private static int testsPassed = 0;
+    private static int testsFailed = 0;
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("=== GameArchive Test ===\n");
+
+        testAppendAndRead();
+        testRecovery();
+        testFailedBatch();
+        testRejected();
+
+        System.out.println("\n=== Test Results ===");
+        System.out.println("Total: " + testsRun);
+        System.out.println("Passed: " + testsPassed);
+        System.out.println("Failed: " + testsFailed);
+
+        if (testsFailed > 0) {
+            System.exit(1);
+        }
+    }
+
+    // =====================================================
+    // Test Cases
+    // =====================================================
+
+    private static void testAppendAndRead() throws Exception {
+        System.out.println("TEST: Append and read back");
+        Path file = tempFile();
+        Random rnd = new Random(20240901L);
+        List<List<Move>> games = new ArrayList<>();
+
+        try (GameArchive archive = GameArchive.open(file)) {
+            assertEqual("Empty archive", 0, archive.count());
+            // a few single appends, then batches
+            for (int i = 0; i < 5; i++) {
+                List<Move> moves = TestGames.randomGame(rnd, 120);
+                games.add(moves);
+                assertEqual("Single append index", i, archive.append(tags(i), new GameState(), moves));
+            }
+            for (int batch = 0; batch < 5; batch++) {
+                List<GameArchive.Entry> entries = new ArrayList<>();
+                for (int i = 0; i < 400; i++) {
+                    List<Move> moves = TestGames.randomGame(rnd, 120);
+                    entries.add(new GameArchive.Entry(tags(games.size()), new GameState(), moves));
+                    games.add(moves);
+                }
+                archive.append(entries);
+            }
+            assertEqual("Count after appends", games.size(), archive.count());
+        }
+
+        long start = System.nanoTime();
+        try (GameArchive archive = GameArchive.open(file)) {
+            long openNanos = System.nanoTime() - start;
+            assertEqual("Count after reopen", games.size(), archive.count());
+
+            start = System.nanoTime();
+            long whiteWins = archive.headers().filter(h -> "1-0".equals(h.tag("Result"))).count();
+            long scanNanos = System.nanoTime() - start;
+            assertEqual("Header scan", (long) (games.size() + 2) / 3, whiteWins);
+
+            int mismatches = 0;
+            start = System.nanoTime();
+            for (int i = 0; i < archive.count(); i++) {
+                GameArchive.Header header = archive.header(i);
+                if (header.plies() != games.get(i).size() || !header.tag("Round").equals(Integer.toString(i + 1))
+                        || !TestGames.packed(archive.get(i).moves()).equals(TestGames.packed(games.get(i))))
+                    mismatches++;
+            }
+            long readNanos = System.nanoTime() - start;
+            assertEqual("Read back mismatches", 0, mismatches);
+
+            System.out.println("  " + archive.count() + " games, " + Files.size(file) / 1024 + " KiB: open "
+                    + openNanos / 1000 + " us, header scan " + scanNanos / 1_000_000 + " ms, decode all "
+                    + readNanos / 1_000_000 + " ms");
+        }
+        passed("Append and read back");
+    }
+
+    private static void testRecovery() throws Exception {
+        System.out.println("TEST: Recovery from interrupted appends");
+        Path file = tempFile();
+        Random rnd = new Random(5L);
+        try (GameArchive archive = GameArchive.open(file)) {
+            for (int i = 0; i < 10; i++)
+                archive.append(tags(i), new GameState(), TestGames.randomGame(rnd, 120));
+        }
+        long fullLength = Files.size(file);
+
+        // index cut short: every record is still intact
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.setLength(fullLength - 3);
+        }
+        try (GameArchive archive = GameArchive.open(file)) {
+            assertEqual("Rebuilt from records", 10, archive.count());
+            assertEqual("Rebuilt header", "10", archive.header(9).tag("Round"));
+        }
+
+        // last record torn: the games before it survive
+        long lastRecordEnd = Files.size(file) - (8 * 10 + 4);
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            raf.setLength(lastRecordEnd - 5);
+        }
+        try (GameArchive archive = GameArchive.open(file)) {
+            assertEqual("Torn record dropped", 9, archive.count());
+            archive.append(tags(9), new GameState(), TestGames.randomGame(rnd, 120));
+            assertEqual("Append after recovery", 10, archive.count());
+            assertEqual("Decodes after recovery", true, archive.get(9).moves() != null);
+        }
+
+        // a damaged record in the middle: skipped, the games after it kept
+        try (RandomAccessFile raf = new RandomAccessFile(file.toFile(), "rw")) {
+            long pos = 16;
+            for (int i = 0; i < 4; i++) {
+                raf.seek(pos);
+                pos += 4 + raf.readInt();
+            }
+            raf.seek(pos);
+            long last = pos + 4 + raf.readInt() - 1; // last byte of game 5
+            raf.seek(last);
+            int b = raf.read();
+            raf.seek(last);
+            raf.write(b ^ 0x01);
+            raf.setLength(raf.length() - 3); // and the index
+        }
+        try (GameArchive archive = GameArchive.open(file)) {
+            assertEqual("Damaged record skipped", 9, archive.count());
+            assertEqual("Game before it", "4", archive.header(3).tag("Round"));
+            assertEqual("Game after it", "6", archive.header(4).tag("Round"));
+            assertEqual("Last game kept", "10", archive.header(8).tag("Round"));
+            assertEqual("Last game decodes", archive.header(8).plies(), archive.get(8).moves().size());
+        }
+        passed("Recovery from interrupted appends");
+    }
+
+    private static void testFailedBatch() throws Exception {
+        System.out.println("TEST: Failed batch");
+        Path file = tempFile();
+        Random rnd = new Random(31L);
+        List<List<Move>> games = new ArrayList<>();
+        try (GameArchive archive = GameArchive.open(file)) {
+            for (int i = 0; i < 3; i++) {
+                games.add(TestGames.randomGame(rnd, 120));
+                archive.append(tags(i), new GameState(), games.get(i));
+            }
+
+            // the last game of the batch plays a move from an empty square
+            List<GameArchive.Entry> entries = new ArrayList<>();
+            for (int i = 0; i < 30; i++)
+                entries.add(new GameArchive.Entry(tags(3 + i), new GameState(), TestGames.randomGame(rnd, 120)));
+            List<Move> illegal = new ArrayList<>(TestGames.randomGame(rnd, 10));
+            illegal.add(new Move(new Position(4, 4), new Position(3, 4), MoveType.NORMAL));
+            entries.add(new GameArchive.Entry(tags(33), new GameState(), illegal));
+            String result;
+            try {
+                archive.append(entries);
+                result = "appended";
+            } catch (IllegalArgumentException e) {
+                result = "rejected";
+            }
+            assertEqual("Illegal game", "rejected", result);
+            assertEqual("Count unchanged", 3, archive.count());
+            int mismatches = 0;
+            for (int i = 0; i < 3; i++) {
+                if (!TestGames.packed(archive.get(i).moves()).equals(TestGames.packed(games.get(i)))
+                        || !archive.header(i).tag("Round").equals(Integer.toString(i + 1)))
+                    mismatches++;
+            }
+            assertEqual("Games intact", 0, mismatches);
+            assertEqual("Append after the failed batch", 3,
+                    archive.append(tags(3), new GameState(), TestGames.randomGame(rnd, 120)));
+        }
+        try (GameArchive archive = GameArchive.open(file)) {
+            assertEqual("Count after reopen", 4, archive.count());
+            assertEqual("First game after reopen", TestGames.packed(games.get(0)),
+                    TestGames.packed(archive.get(0).moves()));
+        }
+        passed("Failed batch");
+    }
+
+    private static void testRejected() throws Exception {
+        System.out.println("TEST: Non-archive rejected");
+        Path file = tempFile();
+        Files.writeString(file, "e2e4\ne7e5\ng1f3\nb8c6\n");
+        String result;
+        try {
+            GameArchive.open(file).close();
+            result = "opened";
+        } catch (IOException e) {
+            result = "rejected";
+        }
+        assertEqual("Text file", "rejected", result);
+        passed("Non-archive rejected");
+    }
+
+    // =====================================================
+    // Helpers
+    // =====================================================
+
+    private static Path tempFile() throws IOException {
+        Path file = Files.createTempFile("test_archive", ".zca");
+        Files.delete(file);
+        file.toFile().deleteOnExit();
+        return file;
+    }
+
+    /** @return round number and a result, White winning every third game */
+    private static Map<String, String> tags(int i) {
+        return Map.of("Round", Integer.toString(i + 1), "Result", i % 3 == 0 ? "1-0" : "1/2-1/2");
+    }
+
+    private static void assertEqual(String testName, Object expected, Object actual) {
+        testsRun++;
+        if (expected.equals(actual)) {
+            testsPassed++;
+        } else {
+            testsFailed++;
+            System.out.println("  FAIL: " + testName + " - Expected: " + expected + ", Got: " + actual);
+        }
+    }
+
+    private static void passed(String testName) {
+        System.out.println("  ✓ " + testName + " passed\n");
+    }
+}
@@ -0,0 +1,156 @@
+package com.jeremyzay.zaychess.tests;
+
+import com.jeremyzay.zaychess.model.game.GameState;
+import com.jeremyzay.zaychess.model.move.LegalMoveGenerator;
+import com.jeremyzay.zaychess.model.move.MoveGenerator;
+import com.jeremyzay.zaychess.model.move.MoveList;
+import com.jeremyzay.zaychess.model.move.MoveType;
+import com.jeremyzay.zaychess.model.move.PackedMove;
+import com.jeremyzay.zaychess.model.move.PromotionPiece;
+import com.jeremyzay.zaychess.services.application.notation.NotationFEN;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Differential test for {@link LegalMoveGenerator}.
+ * Plays seeded random games from positions rich in pins, checks, en passant
+ * and castling, and at every ply compares the generated moves against the
+ * make/unmake filtering of {@link MoveGenerator}.
+ */
+public class LegalMoveGeneratorTest {
+
+    private static int testsRun = 0;
+    private static int testsPassed = 0;
+    private static int testsFailed = 0;
+
+    private static final String[] POSITIONS = {
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+            "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+            "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+            // en passant capture would expose the king along the rank
+            "8/8/8/K2pP2r/8/8/8/7k w - d6 0 1",
+            // en passant capture removes the checking pawn
+            "8/8/8/2k5/3Pp3/8/8/4K3 b - d3 0 1",
+            // double check: only king moves
+            "4k3/8/8/8/8/5n2/8/4r1K1 w - - 0 1",
+            // pinned pieces on file and diagonal
+            "4r2k/8/8/8/1b6/8/3N4/4K3 w - - 0 1",
+    };
+
+    public static void main(String[] args) {
+        System.out.println("=== LegalMoveGenerator Differential Test ===\n");
+
+        testReferencePositions();
+        testRandomGames();
+
+        System.out.println("\n=== Test Results ===");
+        System.out.println("Total: " + testsRun);
+        System.out.println("Passed: " + testsPassed);
+        System.out.println("Failed: " + testsFailed);
+
+        if (testsFailed > 0) {
+            System.exit(1);
+        }
+    }
+
+    // =====================================================
+    // Test Cases
+    // =====================================================
+
+    private static void testReferencePositions() {
+        System.out.println("TEST: Reference positions");
+        for (String fen : POSITIONS) {
+            compare(fen, NotationFEN.fromFEN(fen));
+        }
+        passed("Reference positions");
+    }
+
+    private static void testRandomGames() {
+        System.out.println("TEST: Random games");
+        Random rnd = new Random(20240601L);
+        int failedBefore = testsFailed;
+        int plies = 0;
+        for (String fen : POSITIONS) {
+            for (int game = 0; game < 40 && testsFailed == failedBefore; game++) {
+                GameState state = NotationFEN.fromFEN(fen);
+                for (int ply = 0; ply < 120; ply++) {
+                    int[] legal = compare(fen + " +" + ply, state);
+                    if (legal == null || legal.length == 0 || state.getHalfmoveClock() >= 100)
+                        break;
+                    int move = legal[rnd.nextInt(legal.length)];
+                    if (PackedMove.type(move) == MoveType.PROMOTION) {
+                        PromotionPiece[] pieces = PromotionPiece.values();
+                        move = PackedMove.withPromotion(move, pieces[rnd.nextInt(pieces.length)]);
+                    }
+                    state.makeMove(move);
+                    plies++;
+                }
+            }
+        }
+        System.out.println("  compared " + plies + " plies");
+        passed("Random games");
+    }
+
+    // =====================================================
+    // Helpers
+    // =====================================================
+
+    /**
+     * Compares both generators on one position.
+     *
+     * @return the sorted legal moves, or null if the generators disagree
+     */
+    private static int[] compare(String name, GameState state) {
+        long key = state.getZobristKey();
+
+        MoveList fast = new MoveList();
+        LegalMoveGenerator.generate(state, fast);
+        MoveList reference = new MoveList();
+        long pieces = state.getBoard().getOccupancy(state.getTurn());
+        while (pieces != 0) {
+            int from = Long.numberOfTrailingZeros(pieces);
+            pieces &= pieces - 1;
+            MoveGenerator.generateLegalMoves(state, from, reference);
+        }
+
+        int[] expected = sorted(reference);
+        int[] actual = sorted(fast);
+        testsRun++;
+        if (Arrays.equals(expected, actual) && key == state.getZobristKey()) {
+            testsPassed++;
+            return actual;
+        }
+        testsFailed++;
+        System.out.println("  FAIL: " + name + " - Expected: " + describe(expected) + ", Got: " + describe(actual));
+        return null;
+    }
+
+    private static int[] sorted(MoveList moves) {
+        int[] out = new int[moves.size()];
+        for (int i = 0; i < out.length; i++)
+            out[i] = moves.get(i);
+        Arrays.sort(out);
+        return out;
+    }
+
+    private static String describe(int[] moves) {
+        StringBuilder sb = new StringBuilder("[");
+        for (int m : moves) {
+            if (sb.length() > 1)
+                sb.append(' ');
+            sb.append(square(PackedMove.from(m))).append(square(PackedMove.to(m)));
+        }
+        return sb.append(']').toString();
+    }
+
+    private static String square(int sq) {
+        return "" + (char) ('a' + sq % 8) + (char) ('8' - sq / 8);
+    }
+
+    private static void passed(String testName) {
+        System.out.println("  ✓ " + testName + " passed\n");
+    }
+}
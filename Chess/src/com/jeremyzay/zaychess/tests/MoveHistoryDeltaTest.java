@@ -0,0 +1,279 @@
+package com.jeremyzay.zaychess.tests;
+
+import com.jeremyzay.zaychess.model.game.GameState;
+import com.jeremyzay.zaychess.model.game.UndoRecord;
+import com.jeremyzay.zaychess.model.move.Move;
+import com.jeremyzay.zaychess.model.move.PackedMove;
+import com.jeremyzay.zaychess.services.application.history.MoveHistoryDelta;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Tests for {@link MoveHistoryDelta}.
+ * Checks that undo and redo restore the exact position, including clocks,
+ * castling flags and en passant target, that a new move drops the redo
+ * tail, that seeking lands on the right position whichever checkpoint
+ * it starts from, that checkpoints of a dropped line are not reused, and
+ * that a line loaded from another state seeks like a recorded one.
+ */
+public class MoveHistoryDeltaTest {
+
+    private static int testsRun = 0;
+    private static int testsPassed = 0;
+    private static int testsFailed = 0;
+
+    /** Opening with an en passant capture and castling on both sides. */
+    private static final String[] OPENING = { "e2e4", "d7d5", "e4e5", "f7f5", "e5f6", "g8f6", "g1f3", "e7e6",
+            "f1c4", "f8e7", "e1g1", "e8g8" };
+
+    public static void main(String[] args) {
+        System.out.println("=== MoveHistoryDelta Test ===\n");
+
+        testUndoRedo();
+        testRedoTailDropped();
+        testSeekAcrossCheckpoints();
+        testCheckpointsOfDroppedLine();
+        testLoad();
+
+        System.out.println("\n=== Test Results ===");
+        System.out.println("Total: " + testsRun);
+        System.out.println("Passed: " + testsPassed);
+        System.out.println("Failed: " + testsFailed);
+
+        if (testsFailed > 0) {
+            System.exit(1);
+        }
+    }
+
+    // =====================================================
+    // Test Cases
+    // =====================================================
+
+    private static void testUndoRedo() {
+        System.out.println("TEST: Undo and redo restore the position");
+        GameState gs = new GameState();
+        MoveHistoryDelta history = new MoveHistoryDelta();
+        List<String> states = play(gs, history, opening(new Random(5L), 60));
+
+        int mismatches = 0;
+        while (history.canUndo()) {
+            history.undo(gs);
+            if (!describe(gs).equals(states.get(history.getPly())))
+                mismatches++;
+        }
+        assertEqual("Undo mismatches", 0, mismatches);
+        while (history.canRedo()) {
+            history.redo(gs);
+            if (!describe(gs).equals(states.get(history.getPly())))
+                mismatches++;
+        }
+        assertEqual("Redo mismatches", 0, mismatches);
+
+        // recorded before the move, then applied by the caller
+        GameState before = new GameState();
+        MoveHistoryDelta byMove = new MoveHistoryDelta();
+        for (Move m : history.getMoves()) {
+            byMove.record(before, m);
+            before.applyMove(m);
+        }
+        assertEqual("Same position when recorded before the move", describe(gs), describe(before));
+        while (byMove.canUndo())
+            byMove.undo(before);
+        assertEqual("Undone to the start", states.get(0), describe(before));
+        passed("Undo and redo restore the position");
+    }
+
+    private static void testRedoTailDropped() {
+        System.out.println("TEST: A new move drops the redo tail");
+        GameState gs = new GameState();
+        MoveHistoryDelta history = new MoveHistoryDelta();
+        List<Move> moves = opening(new Random(9L), 20);
+        play(gs, history, moves);
+        for (int i = 0; i < 3; i++)
+            history.undo(gs);
+        assertEqual("Redo available", true, history.canRedo());
+        assertEqual("Next redo", PackedMove.fromMove(moves.get(17)), PackedMove.fromMove(history.peekRedoMove()));
+
+        Random rnd = new Random(1L);
+        Move other;
+        do {
+            other = TestGames.randomGame(gs.copy(), rnd, 1).get(0);
+        } while (PackedMove.fromMove(other) == PackedMove.fromMove(moves.get(17)));
+        history.recordApplied(gs, gs.makeMove(other));
+        assertEqual("Redo dropped", false, history.canRedo());
+        assertEqual("Ply count", 18, history.getPlyCount());
+        List<Move> expected = new ArrayList<>(moves.subList(0, 17));
+        expected.add(other);
+        assertEqual("Line", TestGames.packed(expected), TestGames.packed(history.getMoves()));
+        passed("A new move drops the redo tail");
+    }
+
+    private static void testSeekAcrossCheckpoints() {
+        System.out.println("TEST: Seeking across checkpoints");
+        GameState gs = new GameState();
+        MoveHistoryDelta history = new MoveHistoryDelta();
+        List<String> states = play(gs, history, opening(new Random(13L), 70));
+        int end = history.getPlyCount();
+        // backward beyond an interval, to and around checkpoints, then
+        // forward from a checkpoint, within an interval and to the end
+        int[] targets = { end - 30, 5, 0, 32, 47, 48, 17, 16, 15, 31, 64, end, end - 1, 1 };
+        int mismatches = 0;
+        for (int target : targets) {
+            history.seekToPly(gs, target);
+            if (history.getPly() != target || !describe(gs).equals(states.get(target)))
+                mismatches++;
+        }
+        assertEqual("Seek mismatches", 0, mismatches);
+
+        // truncate inside an interval, then seek back and forth over it
+        history.seekToPly(gs, 40);
+        states.subList(41, states.size()).clear();
+        List<String> line = play(gs, history, TestGames.randomGame(gs.copy(), new Random(14L), 20));
+        states.addAll(line.subList(1, line.size()));
+        for (int target : new int[] { 0, 33, 48, 40, 41, states.size() - 1, 2 }) {
+            history.seekToPly(gs, target);
+            if (!describe(gs).equals(states.get(target)))
+                mismatches++;
+        }
+        assertEqual("Seek mismatches after truncation", 0, mismatches);
+
+        // a line ending on a checkpoint, seeking to its end and back
+        gs = new GameState();
+        history = new MoveHistoryDelta();
+        states = play(gs, history, opening(new Random(15L), 48));
+        history.seekToPly(gs, 48);
+        for (int target : new int[] { 0, 48, 32, 47, 16, 48, 31 }) {
+            history.seekToPly(gs, target);
+            if (!describe(gs).equals(states.get(target)))
+                mismatches++;
+        }
+        history.seekToPly(gs, 32);
+        history.recordApplied(gs, gs.makeMove(TestGames.randomGame(gs.copy(), new Random(16L), 1).get(0)));
+        states.subList(33, states.size()).clear();
+        states.add(describe(gs));
+        for (int target : new int[] { 0, 33, 32, 16, 33 }) {
+            history.seekToPly(gs, target);
+            if (!describe(gs).equals(states.get(target)))
+                mismatches++;
+        }
+        assertEqual("Seek mismatches on a checkpoint", 0, mismatches);
+        passed("Seeking across checkpoints");
+    }
+
+    private static void testCheckpointsOfDroppedLine() {
+        System.out.println("TEST: Checkpoints of a dropped line are not reused");
+        Random rnd = new Random(20240915L);
+        int mismatches = 0;
+        // branch inside a checkpoint interval and exactly on a checkpoint
+        for (int branch : new int[] { 20, 32 }) {
+            GameState gs = new GameState();
+            MoveHistoryDelta history = new MoveHistoryDelta();
+            List<String> states = play(gs, history, opening(rnd, 60));
+            history.seekToPly(gs, branch);
+            states.subList(branch + 1, states.size()).clear();
+            List<String> line = play(gs, history, TestGames.randomGame(gs.copy(), rnd, 40));
+            states.addAll(line.subList(1, line.size()));
+
+            for (int i = 0; i < 50; i++) {
+                int target = rnd.nextInt(history.getPlyCount() + 1);
+                history.seekToPly(gs, target);
+                if (!describe(gs).equals(states.get(target)))
+                    mismatches++;
+            }
+        }
+        assertEqual("Seek mismatches", 0, mismatches);
+        passed("Checkpoints of a dropped line are not reused");
+    }
+
+    private static void testLoad() {
+        System.out.println("TEST: Loading a line played elsewhere");
+        List<Move> moves = opening(new Random(17L), 75);
+        GameState elsewhere = new GameState();
+        List<UndoRecord> undos = new ArrayList<>();
+        List<String> states = new ArrayList<>();
+        states.add(describe(elsewhere));
+        for (Move m : moves) {
+            undos.add(elsewhere.makeMove(m));
+            states.add(describe(elsewhere));
+        }
+
+        GameState gs = new GameState();
+        MoveHistoryDelta history = new MoveHistoryDelta();
+        play(gs, history, TestGames.randomGame(gs.copy(), new Random(18L), 10)); // replaced by the load
+        gs.restoreFrom(elsewhere);
+        history.load(gs, undos);
+        assertEqual("Ply", moves.size(), history.getPly());
+        assertEqual("Nothing to redo", false, history.canRedo());
+        assertEqual("Line", TestGames.packed(moves), TestGames.packed(history.getMoves()));
+
+        int mismatches = 0;
+        for (int target : new int[] { 0, 48, 47, 16, moves.size(), 33, 1, moves.size() - 1, 64 }) {
+            history.seekToPly(gs, target);
+            if (!describe(gs).equals(states.get(target)))
+                mismatches++;
+        }
+        while (history.canUndo()) {
+            history.undo(gs);
+            if (!describe(gs).equals(states.get(history.getPly())))
+                mismatches++;
+        }
+        assertEqual("Seek mismatches", 0, mismatches);
+        passed("Loading a line played elsewhere");
+    }
+
+    // =====================================================
+    // Helpers
+    // =====================================================
+
+    /** @return {@link #OPENING} followed by random moves, {@code plies} in all */
+    private static List<Move> opening(Random rnd, int plies) {
+        GameState gs = new GameState();
+        List<Move> moves = new ArrayList<>();
+        for (String uci : OPENING) {
+            int move = TestGames.find(gs, uci);
+            moves.add(PackedMove.toMove(move));
+            gs.makeMove(move);
+        }
+        moves.addAll(TestGames.randomGame(gs, rnd, plies - moves.size()));
+        return moves;
+    }
+
+    /**
+     * Plays and records moves the way the controller does.
+     *
+     * @return {@link #describe(GameState)} of each position, starting with
+     *         the one before the first move
+     */
+    private static List<String> play(GameState gs, MoveHistoryDelta history, List<Move> moves) {
+        List<String> states = new ArrayList<>();
+        states.add(describe(gs));
+        for (Move m : moves) {
+            history.recordApplied(gs, gs.makeMove(m));
+            states.add(describe(gs));
+        }
+        return states;
+    }
+
+    /** @return the position key, raw castling flags, en passant target and clocks */
+    private static String describe(GameState gs) {
+        return Long.toHexString(gs.getZobristKey()) + " " + gs.getSpecialMoveHandler().getCastlingFlags() + " "
+                + gs.getSpecialMoveHandler().getEnPassantTarget() + " " + gs.getHalfmoveClock() + " "
+                + gs.getFullmoveNumber();
+    }
+
+    private static void assertEqual(String testName, Object expected, Object actual) {
+        testsRun++;
+        if (expected.equals(actual)) {
+            testsPassed++;
+        } else {
+            testsFailed++;
+            System.out.println("  FAIL: " + testName + " - Expected: " + expected + ", Got: " + actual);
+        }
+    }
+
+    private static void passed(String testName) {
+        System.out.println("  ✓ " + testName + " passed\n");
+    }
+}
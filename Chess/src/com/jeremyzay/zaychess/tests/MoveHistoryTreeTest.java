@@ -0,0 +1,272 @@
+package com.jeremyzay.zaychess.tests;
+
+import com.jeremyzay.zaychess.model.game.GameState;
+import com.jeremyzay.zaychess.model.game.UndoRecord;
+import com.jeremyzay.zaychess.model.move.Move;
+import com.jeremyzay.zaychess.model.move.PackedMove;
+import com.jeremyzay.zaychess.services.application.history.MoveHistoryTree;
+import com.jeremyzay.zaychess.services.application.notation.FenCodec;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Tests for {@link MoveHistoryTree}.
+ * Checks that a move played after an undo becomes a sibling branch, that
+ * redo follows the selected variation, that jumping between nodes of
+ * different branches lands on exactly the position of the target, and that
+ * seeking along a line through its checkpoints matches a replay.
+ */
+public class MoveHistoryTreeTest {
+
+    private static int testsRun = 0;
+    private static int testsPassed = 0;
+    private static int testsFailed = 0;
+
+    public static void main(String[] args) {
+        System.out.println("=== MoveHistoryTree Test ===\n");
+
+        testSiblingAfterUndo();
+        testRedoFollowsSelectedVariation();
+        testGoToAcrossBranches();
+        testSeekAcrossCheckpoints();
+
+        System.out.println("\n=== Test Results ===");
+        System.out.println("Total: " + testsRun);
+        System.out.println("Passed: " + testsPassed);
+        System.out.println("Failed: " + testsFailed);
+
+        if (testsFailed > 0) {
+            System.exit(1);
+        }
+    }
+
+    // =====================================================
+    // Test Cases
+    // =====================================================
+
+    private static void testSiblingAfterUndo() {
+        System.out.println("TEST: A move after an undo adds a sibling");
+        GameState gs = new GameState();
+        MoveHistoryTree history = new MoveHistoryTree();
+        play(gs, history, "e2e4", "e7e5", "g1f3");
+        history.undo(gs);
+        history.undo(gs);
+        play(gs, history, "c7c5");
+
+        MoveHistoryTree.Node e4 = history.getRoot().getChildren().get(0);
+        assertEqual("Shared prefix", 1, history.getRoot().getChildren().size());
+        assertEqual("Siblings", 2, e4.getChildren().size());
+        assertEqual("Main line kept", "e7e5", uci(e4.getChildren().get(0).getMove()));
+        assertEqual("Main line continues", 1, e4.getChildren().get(0).getChildren().size());
+        assertEqual("Active line", List.of("e2e4", "c7c5"), line(history.getMoves()));
+        assertEqual("Nothing to redo", false, history.canRedo());
+
+        // playing a recorded move again reuses its branch
+        history.undo(gs);
+        play(gs, history, "e7e5");
+        assertEqual("Branch reused", 2, e4.getChildren().size());
+        assertEqual("Its continuation can be redone", "g1f3", uci(history.peekRedoMove()));
+        passed("A move after an undo adds a sibling");
+    }
+
+    private static void testRedoFollowsSelectedVariation() {
+        System.out.println("TEST: Redo follows the selected variation");
+        GameState gs = new GameState();
+        MoveHistoryTree history = new MoveHistoryTree();
+        play(gs, history, "d2d4", "d7d5", "c2c4");
+        history.undo(gs);
+        play(gs, history, "g1f3");
+        history.undo(gs);
+        play(gs, history, "c1f4");
+        history.undo(gs);
+
+        List<MoveHistoryTree.Node> variations = history.getCurrentNode().getChildren();
+        assertEqual("Variations", 3, variations.size());
+        assertEqual("Last played is redone", "c1f4", uci(history.peekRedoMove()));
+        for (MoveHistoryTree.Node variation : variations) {
+            history.selectVariation(variation);
+            history.redo(gs);
+            assertEqual("Redone " + uci(variation.getMove()), key("d2d4", "d7d5", uci(variation.getMove())),
+                    gs.getZobristKey());
+            history.undo(gs);
+        }
+        assertEqual("Back at the fork", key("d2d4", "d7d5"), gs.getZobristKey());
+
+        // the selection holds along the whole line
+        history.selectVariation(variations.get(0));
+        history.undo(gs);
+        history.undo(gs);
+        while (history.canRedo())
+            history.redo(gs);
+        assertEqual("Redo to the end", List.of("d2d4", "d7d5", "c2c4"), line(history.getMoves()));
+        passed("Redo follows the selected variation");
+    }
+
+    private static void testGoToAcrossBranches() {
+        System.out.println("TEST: Jumping between branches");
+        Random rnd = new Random(20240910L);
+        GameState gs = new GameState();
+        MoveHistoryTree history = new MoveHistoryTree();
+        List<MoveHistoryTree.Node> nodes = new ArrayList<>();
+        Map<MoveHistoryTree.Node, Long> keys = new HashMap<>();
+        nodes.add(history.getRoot());
+        keys.put(history.getRoot(), gs.getZobristKey());
+
+        // grow branches from random points of random lines
+        for (int branch = 0; branch < 30; branch++) {
+            history.goTo(gs, nodes.get(rnd.nextInt(nodes.size())));
+            for (Move m : TestGames.randomGame(gs.copy(), rnd, 1 + rnd.nextInt(30))) {
+                history.recordApplied(gs, gs.makeMove(m));
+                if (keys.putIfAbsent(history.getCurrentNode(), gs.getZobristKey()) == null)
+                    nodes.add(history.getCurrentNode());
+            }
+        }
+
+        int mismatches = 0;
+        for (int i = 0; i < 300; i++) {
+            MoveHistoryTree.Node target = nodes.get(rnd.nextInt(nodes.size()));
+            history.goTo(gs, target);
+            if (history.getCurrentNode() != target || gs.getZobristKey() != keys.get(target)
+                    || gs.getZobristKey() != replay(history.getMoves()).getZobristKey())
+                mismatches++;
+            MoveHistoryTree.Node other = nodes.get(rnd.nextInt(nodes.size()));
+            if (history.commonAncestor(other) != commonAncestor(target, other))
+                mismatches++;
+        }
+        assertEqual("Nodes", true, nodes.size() > 100);
+        assertEqual("Position mismatches", 0, mismatches);
+        passed("Jumping between branches");
+    }
+
+    private static void testSeekAcrossCheckpoints() {
+        System.out.println("TEST: Seeking along branched lines");
+        Random rnd = new Random(20241017L);
+        GameState gs = new GameState();
+        MoveHistoryTree history = new MoveHistoryTree();
+        List<MoveHistoryTree.Node> ends = new ArrayList<>();
+        for (int branch = 0; branch < 8; branch++) {
+            history.seekToPly(gs, rnd.nextInt(history.getPly() + 1));
+            for (Move m : TestGames.randomGame(gs.copy(), rnd, 20 + rnd.nextInt(60)))
+                history.recordApplied(gs, gs.makeMove(m));
+            ends.add(history.getCurrentNode());
+        }
+
+        int mismatches = 0;
+        int end = history.getPly();
+        for (int i = 0; i < 300; i++) {
+            if (i % 30 == 0) {
+                MoveHistoryTree.Node node = ends.get(rnd.nextInt(ends.size()));
+                history.goTo(gs, node);
+                end = node.getPly();
+            }
+            int target = rnd.nextInt(end + 1);
+            history.seekToPly(gs, target);
+            if (history.getPly() != target || !FenCodec.toFen(gs).equals(FenCodec.toFen(replay(history.getMoves()))))
+                mismatches++;
+        }
+        assertEqual("Seek mismatches", 0, mismatches);
+
+        // a loaded line gets its checkpoints too
+        history.seekToPly(gs, end);
+        List<Move> moves = history.getMoves();
+        GameState elsewhere = new GameState();
+        List<UndoRecord> undos = new ArrayList<>();
+        for (Move m : moves)
+            undos.add(elsewhere.makeMove(m));
+        GameState loadedState = elsewhere.copy();
+        MoveHistoryTree loaded = new MoveHistoryTree();
+        loaded.load(loadedState, undos);
+        int loadedMismatches = 0;
+        for (int i = 0; i < 100; i++) {
+            int target = rnd.nextInt(moves.size() + 1);
+            loaded.seekToPly(loadedState, target);
+            if (!FenCodec.toFen(loadedState).equals(FenCodec.toFen(replay(moves.subList(0, target)))))
+                loadedMismatches++;
+        }
+        assertEqual("Loaded seek mismatches", 0, loadedMismatches);
+
+        boolean thrown = false;
+        try {
+            loaded.seekToPly(loadedState, moves.size() + 1);
+        } catch (IndexOutOfBoundsException e) {
+            thrown = true;
+        }
+        assertEqual("Seek beyond the line rejected", true, thrown);
+        passed("Seeking along branched lines");
+    }
+
+    // =====================================================
+    // Helpers
+    // =====================================================
+
+    /** Plays and records moves given in UCI squares. */
+    private static void play(GameState gs, MoveHistoryTree history, String... ucis) {
+        for (String uci : ucis)
+            history.recordApplied(gs, gs.makeMove(TestGames.find(gs, uci)));
+    }
+
+    /** @return the key of the position after the given moves */
+    private static long key(String... ucis) {
+        GameState gs = new GameState();
+        for (String uci : ucis)
+            gs.makeMove(TestGames.find(gs, uci));
+        return gs.getZobristKey();
+    }
+
+    /** @return the deepest node on both paths, found by comparing the paths from the root */
+    private static MoveHistoryTree.Node commonAncestor(MoveHistoryTree.Node a, MoveHistoryTree.Node b) {
+        List<MoveHistoryTree.Node> pathA = path(a), pathB = path(b);
+        int i = 0;
+        while (i + 1 < pathA.size() && i + 1 < pathB.size() && pathA.get(i + 1) == pathB.get(i + 1))
+            i++;
+        return pathA.get(i);
+    }
+
+    private static List<MoveHistoryTree.Node> path(MoveHistoryTree.Node node) {
+        List<MoveHistoryTree.Node> path = new ArrayList<>();
+        for (MoveHistoryTree.Node n = node; n != null; n = n.getParent())
+            path.add(0, n);
+        return path;
+    }
+
+    private static GameState replay(List<Move> moves) {
+        GameState gs = new GameState();
+        for (Move m : moves)
+            gs.applyMove(m);
+        return gs;
+    }
+
+    private static List<String> line(List<Move> moves) {
+        List<String> out = new ArrayList<>();
+        for (Move m : moves)
+            out.add(uci(m));
+        return out;
+    }
+
+    private static String uci(Move m) {
+        int move = PackedMove.fromMove(m);
+        return name(PackedMove.from(move)) + name(PackedMove.to(move));
+    }
+
+    private static String name(int square) {
+        return "" + (char) ('a' + square % 8) + (char) ('8' - square / 8);
+    }
+
+    private static void assertEqual(String testName, Object expected, Object actual) {
+        testsRun++;
+        if (expected.equals(actual)) {
+            testsPassed++;
+        } else {
+            testsFailed++;
+            System.out.println("  FAIL: " + testName + " - Expected: " + expected + ", Got: " + actual);
+        }
+    }
+
+    private static void passed(String testName) {
+        System.out.println("  ✓ " + testName + " passed\n");
+    }
+}
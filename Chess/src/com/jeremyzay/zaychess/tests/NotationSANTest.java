@@ -0,0 +1,220 @@
+package com.jeremyzay.zaychess.tests;
+
+import com.jeremyzay.zaychess.model.game.GameState;
+import com.jeremyzay.zaychess.model.move.MoveGenerator;
+import com.jeremyzay.zaychess.model.move.MoveList;
+import com.jeremyzay.zaychess.model.move.MoveType;
+import com.jeremyzay.zaychess.model.move.PackedMove;
+import com.jeremyzay.zaychess.model.move.PromotionPiece;
+import com.jeremyzay.zaychess.services.application.notation.NotationFEN;
+import com.jeremyzay.zaychess.services.application.notation.NotationSAN;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Tests for the SAN parser in {@link NotationSAN}.
+ * Round-trips every legal move of seeded random games through
+ * {@code toSAN} and {@code parseSAN}, checks accepted spellings and
+ * rejected moves, and reports parser throughput in moves per second.
+ */
+public class NotationSANTest {
+
+    private static int testsRun = 0;
+    private static int testsPassed = 0;
+    private static int testsFailed = 0;
+
+    private static final String[] POSITIONS = {
+            "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1",
+            "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+            "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+            "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+            // many same-type pieces: file, rank and square disambiguation
+            "4k3/8/8/2N1N3/8/2N1N3/8/4K3 w - - 0 1",
+            "4k3/8/8/8/8/Q1Q5/8/Q1Q1K3 w - - 0 1",
+    };
+
+    public static void main(String[] args) {
+        System.out.println("=== NotationSAN Parser Test ===\n");
+
+        testRoundTrip();
+        testSpellings();
+        testRejected();
+        benchmark();
+
+        System.out.println("\n=== Test Results ===");
+        System.out.println("Total: " + testsRun);
+        System.out.println("Passed: " + testsPassed);
+        System.out.println("Failed: " + testsFailed);
+
+        if (testsFailed > 0) {
+            System.exit(1);
+        }
+    }
+
+    // =====================================================
+    // Test Cases
+    // =====================================================
+
+    private static void testRoundTrip() {
+        System.out.println("TEST: Round trip of every legal move");
+        int moves = 0, mismatches = 0;
+        for (GameState state : randomPositions(new Random(20240715L), 20)) {
+            for (int move : legalMoves(state)) {
+                String san = NotationSAN.toSAN(state, move, false);
+                int parsed;
+                try {
+                    parsed = NotationSAN.parseSAN(state, san);
+                } catch (IllegalArgumentException e) {
+                    parsed = -1;
+                }
+                moves++;
+                if (parsed != move && mismatches++ < 10)
+                    System.out.println("  mismatch: " + NotationFEN.toFEN(state) + " " + san);
+            }
+        }
+        System.out.println("  parsed " + moves + " moves");
+        assertEqual("Round trip mismatches", 0, mismatches);
+        passed("Round trip");
+    }
+
+    private static void testSpellings() {
+        System.out.println("TEST: Accepted spellings");
+        GameState castle = NotationFEN.fromFEN("r3k2r/8/8/8/8/8/8/R3K2R w KQkq - 0 1");
+        assertParses(castle, "O-O", 60, 62, MoveType.CASTLE);
+        assertParses(castle, "0-0-0", 60, 58, MoveType.CASTLE);
+        assertParses(castle, "Rxa8+", 56, 0, MoveType.CAPTURE);
+
+        GameState promo = NotationFEN.fromFEN("1n2k3/P7/8/8/8/8/8/4K3 w - - 0 1");
+        assertParses(promo, "a8=Q", 8, 0, MoveType.PROMOTION);
+        assertParses(promo, "axb8N", 8, 1, MoveType.PROMOTION);
+        assertEqual("Promotion piece", PromotionPiece.KNIGHT,
+                PackedMove.promotion(NotationSAN.parseSAN(promo, "axb8=N+")));
+
+        GameState ep = NotationFEN.fromFEN("4k3/8/8/3pP3/8/8/8/4K3 w - d6 0 1");
+        assertParses(ep, "exd6 e.p.", 28, 19, MoveType.EN_PASSANT);
+
+        GameState knights = NotationFEN.fromFEN("4k3/8/8/2N1N3/8/2N1N3/8/4K3 w - - 0 1");
+        assertParses(knights, "Nc5d3!?", 26, 43, MoveType.NORMAL);
+        assertParses(knights, "N3e4", 42, 36, MoveType.NORMAL);
+        passed("Accepted spellings");
+    }
+
+    private static void testRejected() {
+        System.out.println("TEST: Rejected moves");
+        GameState start = new GameState();
+        assertRejected(start, "e5");
+        assertRejected(start, "Nf4");
+        assertRejected(start, "O-O");
+        assertRejected(start, "e8=Q");
+        assertRejected(start, "Zz9");
+        // ambiguous without disambiguation
+        assertRejected(NotationFEN.fromFEN("4k3/8/8/8/8/8/K7/R6R w - - 0 1"), "Rd1");
+        // pinned knight cannot move
+        assertRejected(NotationFEN.fromFEN("4r2k/8/8/8/8/8/4N3/4K3 w - - 0 1"), "Nd4");
+        passed("Rejected moves");
+    }
+
+    /** Times {@code parseSAN} over every legal move of random positions. */
+    private static void benchmark() {
+        System.out.println("BENCHMARK: parseSAN");
+        List<GameState> states = new ArrayList<>();
+        List<String> sans = new ArrayList<>();
+        for (GameState state : randomPositions(new Random(7L), 10)) {
+            for (int move : legalMoves(state)) {
+                states.add(state);
+                sans.add(NotationSAN.toSAN(state, move, false));
+            }
+        }
+        long checksum = 0;
+        long start = 0;
+        int rounds = 5;
+        for (int round = -2; round < rounds; round++) { // two warm-up rounds
+            if (round == 0)
+                start = System.nanoTime();
+            for (int i = 0; i < sans.size(); i++)
+                checksum += NotationSAN.parseSAN(states.get(i), sans.get(i));
+        }
+        long nanos = System.nanoTime() - start;
+        long parsed = (long) sans.size() * rounds;
+        System.out.println("  " + parsed + " moves in " + (nanos / 1_000_000) + " ms, "
+                + (parsed * 1_000_000_000L / Math.max(1, nanos)) + " moves/s (checksum " + checksum + ")\n");
+    }
+
+    // =====================================================
+    // Helpers
+    // =====================================================
+
+    /** @return positions reached in seeded random games from {@link #POSITIONS} */
+    private static List<GameState> randomPositions(Random rnd, int gamesPerPosition) {
+        List<GameState> out = new ArrayList<>();
+        for (String fen : POSITIONS) {
+            for (int game = 0; game < gamesPerPosition; game++) {
+                GameState state = NotationFEN.fromFEN(fen);
+                for (int ply = 0; ply < 80; ply++) {
+                    List<Integer> legal = legalMoves(state);
+                    if (legal.isEmpty() || state.isGameOver())
+                        break;
+                    out.add(state.copy());
+                    state.makeMove(legal.get(rnd.nextInt(legal.size())));
+                }
+            }
+        }
+        return out;
+    }
+
+    /** @return legal moves with promotions expanded to every piece */
+    private static List<Integer> legalMoves(GameState state) {
+        MoveList moves = new MoveList();
+        MoveGenerator.generateAllLegalMovesInTurn(state, moves);
+        List<Integer> out = new ArrayList<>();
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            if (PackedMove.type(move) == MoveType.PROMOTION) {
+                for (PromotionPiece piece : PromotionPiece.values())
+                    out.add(PackedMove.withPromotion(move, piece));
+            } else {
+                out.add(move);
+            }
+        }
+        return out;
+    }
+
+    private static void assertParses(GameState state, String san, int from, int to, MoveType type) {
+        int move;
+        try {
+            move = NotationSAN.parseSAN(state, san);
+        } catch (IllegalArgumentException e) {
+            assertEqual(san, "parsed", e.getMessage());
+            return;
+        }
+        assertEqual(san, from + "-" + to + " " + type,
+                PackedMove.from(move) + "-" + PackedMove.to(move) + " " + PackedMove.type(move));
+    }
+
+    private static void assertRejected(GameState state, String san) {
+        String result;
+        try {
+            int move = NotationSAN.parseSAN(state, san);
+            result = "parsed " + PackedMove.from(move) + "-" + PackedMove.to(move);
+        } catch (IllegalArgumentException e) {
+            result = "rejected";
+        }
+        assertEqual(san, "rejected", result);
+    }
+
+    private static void assertEqual(String testName, Object expected, Object actual) {
+        testsRun++;
+        if (expected.equals(actual)) {
+            testsPassed++;
+        } else {
+            testsFailed++;
+            System.out.println("  FAIL: " + testName + " - Expected: " + expected + ", Got: " + actual);
+        }
+    }
+
+    private static void passed(String testName) {
+        System.out.println("  ✓ " + testName + " passed\n");
+    }
+}
@@ -0,0 +1,265 @@
+package com.jeremyzay.zaychess.tests;
+
+import com.jeremyzay.zaychess.model.game.GameState;
+import com.jeremyzay.zaychess.model.game.UndoRecord;
+import com.jeremyzay.zaychess.model.move.MoveGenerator;
+import com.jeremyzay.zaychess.model.move.MoveList;
+import com.jeremyzay.zaychess.model.move.MoveType;
+import com.jeremyzay.zaychess.model.move.PackedMove;
+import com.jeremyzay.zaychess.model.move.PromotionPiece;
+import com.jeremyzay.zaychess.services.application.notation.NotationFEN;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Perft (performance test) for the move generator.
+ * Counts the leaf nodes of the legal move tree to a fixed depth and compares
+ * them with published reference counts, reporting nodes per second.
+ *
+ * Usage:
+ * - no arguments: run the reference suite
+ * - {@code [--parallel] [--divide] <depth> [fen]}: count one position,
+ *   optionally split at the root across a ForkJoinPool and/or print the
+ *   node count below each root move
+ *
+ * Promotions are generated once without a piece; perft expands them into
+ * the four possible pieces so that counts match the reference values.
+ */
+public class Perft {
+
+    private static int testsRun = 0;
+    private static int testsPassed = 0;
+    private static int testsFailed = 0;
+
+    private static final String START_FEN = "rnbqkbnr/pppppppp/8/8/8/8/PPPPPPPP/RNBQKBNR w KQkq - 0 1";
+
+    /** Reference positions with node counts for depths 1, 2, 3, ... */
+    private static final Object[][] SUITE = {
+            { START_FEN, new long[] { 20, 400, 8902, 197281 } },
+            { "r3k2r/p1ppqpb1/bn2pnp1/3PN3/1p2P3/2N2Q1p/PPPBBPPP/R3K2R w KQkq - 0 1",
+                    new long[] { 48, 2039, 97862, 4085603 } },
+            { "8/2p5/3p4/KP5r/1R3p1k/8/4P1P1/8 w - - 0 1",
+                    new long[] { 14, 191, 2812, 43238, 674624 } },
+            { "r3k2r/Pppp1ppp/1b3nbN/nP6/BBP1P3/q4N2/Pp1P2PP/R2Q1RK1 w kq - 0 1",
+                    new long[] { 6, 264, 9467, 422333 } },
+            { "rnbq1k1r/pp1Pbppp/2p5/8/2B5/8/PPP1NnPP/RNBQK2R w KQ - 1 8",
+                    new long[] { 44, 1486, 62379 } },
+            { "r4rk1/1pp1qppp/p1np1n2/2b1p1B1/2B1P1b1/P1NP1N2/1PP1QPPP/R4RK1 w - - 0 10",
+                    new long[] { 46, 2079, 89890 } },
+    };
+
+    public static void main(String[] args) {
+        boolean parallel = false, divide = false;
+        List<String> rest = new ArrayList<>();
+        for (String arg : args) {
+            if (arg.equals("--parallel"))
+                parallel = true;
+            else if (arg.equals("--divide"))
+                divide = true;
+            else
+                rest.add(arg);
+        }
+
+        if (!rest.isEmpty()) {
+            int depth = Integer.parseInt(rest.get(0));
+            String fen = rest.size() > 1 ? String.join(" ", rest.subList(1, rest.size())) : START_FEN;
+            GameState state = NotationFEN.fromFEN(fen);
+            if (divide)
+                divide(state, depth);
+            else
+                report(fen, depth, state, parallel, -1);
+            return;
+        }
+
+        System.out.println("=== Perft Reference Suite ===\n");
+        for (Object[] entry : SUITE) {
+            String fen = (String) entry[0];
+            long[] expected = (long[]) entry[1];
+            for (int depth = 1; depth <= expected.length; depth++)
+                report(fen, depth, NotationFEN.fromFEN(fen), parallel, expected[depth - 1]);
+        }
+
+        System.out.println("\n=== Test Results ===");
+        System.out.println("Total: " + testsRun);
+        System.out.println("Passed: " + testsPassed);
+        System.out.println("Failed: " + testsFailed);
+
+        if (testsFailed > 0) {
+            System.exit(1);
+        }
+    }
+
+    // =====================================================
+    // Counting
+    // =====================================================
+
+    /**
+     * Counts leaf nodes of the legal move tree.
+     *
+     * @param state position to count from; restored before returning
+     * @param depth remaining plies
+     * @return number of leaf nodes
+     */
+    public static long perft(GameState state, int depth) {
+        if (depth == 0)
+            return 1;
+        MoveList moves = new MoveList();
+        MoveGenerator.generateAllLegalMovesInTurn(state, moves);
+        if (depth == 1)
+            return countLeaves(moves);
+
+        long nodes = 0;
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            if (PackedMove.type(move) == MoveType.PROMOTION) {
+                for (PromotionPiece piece : PromotionPiece.values())
+                    nodes += perftChild(state, PackedMove.withPromotion(move, piece), depth - 1);
+            } else {
+                nodes += perftChild(state, move, depth - 1);
+            }
+        }
+        return nodes;
+    }
+
+    /** Makes a move, counts below it and takes it back. */
+    private static long perftChild(GameState state, int move, int depth) {
+        UndoRecord undo = state.makeMove(move);
+        try {
+            return perft(state, depth);
+        } finally {
+            state.unmakeMove(undo);
+        }
+    }
+
+    /** @return number of moves with promotions counted once per piece */
+    private static long countLeaves(MoveList moves) {
+        long nodes = moves.size();
+        for (int i = 0; i < moves.size(); i++) {
+            if (PackedMove.type(moves.get(i)) == MoveType.PROMOTION)
+                nodes += PromotionPiece.values().length - 1;
+        }
+        return nodes;
+    }
+
+    /** @return root moves with promotions expanded to every piece */
+    private static List<Integer> rootMoves(GameState state) {
+        MoveList moves = new MoveList();
+        MoveGenerator.generateAllLegalMovesInTurn(state, moves);
+        List<Integer> out = new ArrayList<>();
+        for (int i = 0; i < moves.size(); i++) {
+            int move = moves.get(i);
+            if (PackedMove.type(move) == MoveType.PROMOTION) {
+                for (PromotionPiece piece : PromotionPiece.values())
+                    out.add(PackedMove.withPromotion(move, piece));
+            } else {
+                out.add(move);
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Counts leaf nodes with one fork-join task per root move. Each task
+     * works on its own copy of the state.
+     *
+     * @param state position to count from (not modified)
+     * @param depth plies to search
+     * @return number of leaf nodes
+     */
+    public static long perftParallel(GameState state, int depth) {
+        if (depth <= 1)
+            return perft(state, depth);
+        List<RootTask> tasks = new ArrayList<>();
+        for (int move : rootMoves(state))
+            tasks.add(new RootTask(state, move, depth - 1));
+        return ForkJoinPool.commonPool().invoke(new RecursiveTask<Long>() {
+            @Override
+            protected Long compute() {
+                long nodes = 0;
+                for (RecursiveTask<Long> task : invokeAll(tasks))
+                    nodes += task.join();
+                return nodes;
+            }
+        });
+    }
+
+    /** Counts the subtree below one root move on a private copy of the state. */
+    private static final class RootTask extends RecursiveTask<Long> {
+        private static final long serialVersionUID = 1L;
+
+        private final transient GameState state; // tasks are never serialized
+        private final int depth;
+
+        RootTask(GameState root, int move, int depth) {
+            this.state = root.copy();
+            this.state.makeMove(move);
+            this.depth = depth;
+        }
+
+        @Override
+        protected Long compute() {
+            return perft(state, depth);
+        }
+    }
+
+    // =====================================================
+    // Output
+    // =====================================================
+
+    /** Prints the node count below each root move, then the total. */
+    private static void divide(GameState state, int depth) {
+        long total = 0;
+        long start = System.nanoTime();
+        for (int move : rootMoves(state)) {
+            long nodes = depth <= 1 ? 1 : perftChild(state, move, depth - 1);
+            System.out.println(uci(move) + ": " + nodes);
+            total += nodes;
+        }
+        long nanos = System.nanoTime() - start;
+        System.out.println("\nNodes: " + total + "  (" + nodesPerSecond(total, nanos) + " nps)");
+    }
+
+    private static void report(String fen, int depth, GameState state, boolean parallel, long expected) {
+        long start = System.nanoTime();
+        long nodes = parallel ? perftParallel(state, depth) : perft(state, depth);
+        long nanos = System.nanoTime() - start;
+        String line = "perft(" + depth + ") = " + nodes + "  " + (nanos / 1_000_000) + " ms  "
+                + nodesPerSecond(nodes, nanos) + " nps  " + fen;
+        if (expected < 0) {
+            System.out.println(line);
+            return;
+        }
+        testsRun++;
+        if (nodes == expected) {
+            testsPassed++;
+            System.out.println("  ✓ " + line);
+        } else {
+            testsFailed++;
+            System.out.println("  FAIL: " + line + " - Expected: " + expected);
+        }
+    }
+
+    private static long nodesPerSecond(long nodes, long nanos) {
+        return nanos == 0 ? 0 : nodes * 1_000_000_000L / nanos;
+    }
+
+    private static String uci(int move) {
+        String s = square(PackedMove.from(move)) + square(PackedMove.to(move));
+        PromotionPiece promotion = PackedMove.promotion(move);
+        if (promotion != null)
+            s += switch (promotion) {
+                case QUEEN -> "q";
+                case ROOK -> "r";
+                case BISHOP -> "b";
+                case KNIGHT -> "n";
+            };
+        return s;
+    }
+
+    private static String square(int sq) {
+        return "" + (char) ('a' + sq % 8) + (char) ('8' - sq / 8);
+    }
+}
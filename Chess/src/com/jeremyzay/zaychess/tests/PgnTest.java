@@ -0,0 +1,164 @@
+package com.jeremyzay.zaychess.tests;
+
+import com.jeremyzay.zaychess.model.game.GameState;
+import com.jeremyzay.zaychess.model.move.Move;
+import com.jeremyzay.zaychess.services.application.notation.NotationFEN;
+import com.jeremyzay.zaychess.services.application.pgn.PgnGame;
+import com.jeremyzay.zaychess.services.application.pgn.PgnReader;
+import com.jeremyzay.zaychess.services.application.pgn.PgnWriter;
+
+import java.io.ByteArrayInputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Stream;
+
+/**
+ * Tests for the streaming PGN reader and writer.
+ * Parses hand-written PGN with comments, variations and missing markers,
+ * round-trips seeded random games through a file, and reports read and
+ * write throughput in games per second.
+ */
+public class PgnTest {
+
+    private static int testsRun = 0;
+    private static int testsPassed = 0;
+    private static int testsFailed = 0;
+
+    private static final String SAMPLE = """
+            [Event "Casual \\"blitz\\""]
+            [Site "?"]
+            [White "Zay"]
+
+            % escape line, ignored
+            1.e4 {best by test} e5 2. Nf3 (2. f4 exf4 (2... d5) 3. Nf3) 2... Nc6!? $1
+            3. Bb5 ; a comment to the end of the line
+            a6 1-0
+
+            [Event "No marker"]
+            1. d4 d5
+
+            [Event "Unfinished"]
+            [SetUp "1"]
+            [FEN "4k3/8/8/8/8/8/4P3/4K3 b - - 0 30"]
+            30... Kd7 31. e4 *
+            """;
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("=== PGN Reader/Writer Test ===\n");
+
+        testParse();
+        testRoundTrip();
+
+        System.out.println("\n=== Test Results ===");
+        System.out.println("Total: " + testsRun);
+        System.out.println("Passed: " + testsPassed);
+        System.out.println("Failed: " + testsFailed);
+
+        if (testsFailed > 0) {
+            System.exit(1);
+        }
+    }
+
+    // =====================================================
+    // Test Cases
+    // =====================================================
+
+    private static void testParse() throws Exception {
+        System.out.println("TEST: Parse tags, comments and variations");
+        List<PgnGame> games = new ArrayList<>();
+        try (PgnReader reader = new PgnReader(Channels.newChannel(
+                new ByteArrayInputStream(SAMPLE.getBytes(StandardCharsets.UTF_8))))) {
+            reader.forEachRemaining(games::add);
+        }
+        assertEqual("Game count", 3, games.size());
+
+        PgnGame first = games.get(0);
+        assertEqual("Escaped tag", "Casual \"blitz\"", first.getTag("Event"));
+        assertEqual("Tag order", List.of("Event", "Site", "White"), new ArrayList<>(first.getTags().keySet()));
+        assertEqual("Main line", List.of("e4", "e5", "Nf3", "Nc6", "Bb5", "a6"), first.getMoves());
+        assertEqual("Result", "1-0", first.getResult());
+        assertEqual("Resolved", 6, first.resolveMoves().size());
+
+        PgnGame second = games.get(1);
+        assertEqual("Missing marker moves", List.of("d4", "d5"), second.getMoves());
+        assertEqual("Missing marker result", PgnGame.UNKNOWN_RESULT, second.getResult());
+
+        PgnGame third = games.get(2);
+        assertEqual("Black to move first", List.of("Kd7", "e4"), third.getMoves());
+        assertEqual("FEN start", 2, third.resolveMoves().size());
+        passed("Parse tags, comments and variations");
+    }
+
+    private static void testRoundTrip() throws Exception {
+        System.out.println("TEST: Write and read back random games");
+        Random rnd = new Random(20240801L);
+        int count = 2000;
+        List<List<Move>> played = new ArrayList<>();
+        Path file = Files.createTempFile("test_collection", ".pgn");
+        file.toFile().deleteOnExit();
+
+        List<PgnGame> written = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            // every tenth game starts from a set-up position with Black to move
+            GameState begin = i % 10 == 0
+                    ? NotationFEN.fromFEN("r3k2r/8/8/8/8/8/PPPPPPPP/R3K2R b KQkq - 0 12")
+                    : new GameState();
+            List<Move> moves = TestGames.randomGame(begin.copy(), rnd, 120);
+            played.add(moves);
+            PgnGame game = PgnGame.fromMoves(begin, moves);
+            game.setTag("Round", Integer.toString(i + 1));
+            written.add(game);
+        }
+
+        long start = System.nanoTime();
+        try (PgnWriter writer = PgnWriter.create(file)) {
+            for (PgnGame game : written)
+                writer.write(game);
+        }
+        long writeNanos = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        int[] index = { 0 };
+        int[] mismatches = { 0 };
+        try (Stream<PgnGame> games = PgnReader.stream(file)) {
+            games.forEach(game -> {
+                int i = index[0]++;
+                if (i >= count || !TestGames.packed(game.resolveMoves()).equals(TestGames.packed(played.get(i))))
+                    mismatches[0]++;
+                else if (!game.getTag("Round").equals(Integer.toString(i + 1)))
+                    mismatches[0]++;
+            });
+        }
+        long readNanos = System.nanoTime() - start;
+
+        assertEqual("Games read", count, index[0]);
+        assertEqual("Round trip mismatches", 0, mismatches[0]);
+        System.out.println("  " + count + " games, " + Files.size(file) / 1024 + " KiB: write "
+                + (count * 1_000_000_000L / Math.max(1, writeNanos)) + " games/s, read and resolve "
+                + (count * 1_000_000_000L / Math.max(1, readNanos)) + " games/s");
+        passed("Write and read back random games");
+    }
+
+    // =====================================================
+    // Helpers
+    // =====================================================
+
+    private static void assertEqual(String testName, Object expected, Object actual) {
+        testsRun++;
+        if (expected.equals(actual)) {
+            testsPassed++;
+        } else {
+            testsFailed++;
+            System.out.println("  FAIL: " + testName + " - Expected: " + expected + ", Got: " + actual);
+        }
+    }
+
+    private static void passed(String testName) {
+        System.out.println("  ✓ " + testName + " passed\n");
+    }
+}
@@ -0,0 +1,206 @@
+package com.jeremyzay.zaychess.tests;
+
+import com.jeremyzay.zaychess.model.game.GameState;
+import com.jeremyzay.zaychess.model.move.Move;
+import com.jeremyzay.zaychess.model.move.PackedMove;
+import com.jeremyzay.zaychess.services.application.archive.GameArchive;
+import com.jeremyzay.zaychess.services.application.archive.PositionIndex;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Tests for {@link PositionIndex}.
+ * Builds the index of an archive of seeded random games in several runs,
+ * compares lookups and result totals with a brute-force scan, checks that
+ * move orders transposing into the same position are found together, and
+ * reports build and lookup times.
+ */
+public class PositionIndexTest {
+
+    private static int testsRun = 0;
+    private static int testsPassed = 0;
+    private static int testsFailed = 0;
+
+    private static final String[] RESULTS = { "1-0", "0-1", "1/2-1/2", "*" };
+
+    public static void main(String[] args) throws Exception {
+        System.out.println("=== PositionIndex Test ===\n");
+
+        testLookups();
+        testTransposition();
+        testEmptyArchive();
+
+        System.out.println("\n=== Test Results ===");
+        System.out.println("Total: " + testsRun);
+        System.out.println("Passed: " + testsPassed);
+        System.out.println("Failed: " + testsFailed);
+
+        if (testsFailed > 0) {
+            System.exit(1);
+        }
+    }
+
+    // =====================================================
+    // Test Cases
+    // =====================================================
+
+    private static void testLookups() throws Exception {
+        System.out.println("TEST: Lookups match a brute-force scan");
+        Path archiveFile = tempFile(".zca");
+        Path indexFile = tempFile(".zcpi");
+        Random rnd = new Random(20240910L);
+        int count = 1500;
+
+        // key -> (game -> first ply), and each game's result
+        Map<Long, Map<Integer, Integer>> expected = new HashMap<>();
+        String[] results = new String[count];
+        List<GameArchive.Entry> entries = new ArrayList<>();
+        for (int game = 0; game < count; game++) {
+            results[game] = RESULTS[rnd.nextInt(RESULTS.length)];
+            // short random games among the first few moves share many early positions
+            List<Move> moves = TestGames.randomGame(new GameState(), rnd, 4 + rnd.nextInt(40), 3);
+            entries.add(new GameArchive.Entry(Map.of("Result", results[game]), new GameState(), moves));
+            GameState gs = new GameState();
+            expected.computeIfAbsent(gs.getZobristKey(), k -> new LinkedHashMap<>()).putIfAbsent(game, 0);
+            for (int ply = 0; ply < moves.size(); ply++) {
+                gs.makeMove(PackedMove.fromMove(moves.get(ply)));
+                expected.computeIfAbsent(gs.getZobristKey(), k -> new LinkedHashMap<>()).putIfAbsent(game, ply + 1);
+            }
+        }
+
+        long buildNanos;
+        try (GameArchive archive = GameArchive.open(archiveFile)) {
+            archive.append(entries);
+            long start = System.nanoTime();
+            PositionIndex.build(archive, indexFile, 400); // four runs to merge
+            buildNanos = System.nanoTime() - start;
+        }
+
+        try (PositionIndex index = PositionIndex.open(indexFile)) {
+            int mismatches = 0;
+            long start = System.nanoTime();
+            for (Map.Entry<Long, Map<Integer, Integer>> e : expected.entrySet()) {
+                PositionIndex.Result found = index.find(e.getKey());
+                Map<Integer, Integer> games = e.getValue();
+                int[] totals = new int[RESULTS.length];
+                for (int game : games.keySet())
+                    totals[indexOf(results[game])]++;
+
+                boolean same = found.hits().size() == games.size()
+                        && found.whiteWins() == totals[0] && found.blackWins() == totals[1]
+                        && found.draws() == totals[2];
+                for (PositionIndex.Hit hit : found.hits())
+                    same &= games.get(hit.game()) != null && games.get(hit.game()) == hit.ply();
+                if (!same)
+                    mismatches++;
+            }
+            long lookupNanos = System.nanoTime() - start;
+            assertEqual("Lookup mismatches", 0, mismatches);
+            assertEqual("Start position hits", count, index.find(new GameState()).hits().size());
+            assertEqual("Unknown position", 0, index.find(0x1234_5678_9ABC_DEF0L).hits().size());
+
+            System.out.println("  " + count + " games, " + index.size() + " postings: build "
+                    + buildNanos / 1_000_000 + " ms, " + expected.size() + " lookups "
+                    + lookupNanos / 1_000_000 + " ms");
+        }
+        passed("Lookups match a brute-force scan");
+    }
+
+    private static void testTransposition() throws Exception {
+        System.out.println("TEST: Transposed move orders");
+        Path archiveFile = tempFile(".zca");
+        Path indexFile = tempFile(".zcpi");
+        // e4 leaves an en passant target no black pawn can take
+        String[][] games = {
+                { "e2e4", "e7e5", "g1f3" },
+                { "g1f3", "e7e5", "e2e4" },
+                // here d4 can be taken en passant, so the positions differ
+                { "e2e4", "d7d5", "e4e5", "d5d4", "c2c4" },
+                { "c2c4", "d7d5", "e2e4", "d5d4", "e4e5" },
+        };
+        List<GameArchive.Entry> entries = new ArrayList<>();
+        long[] keys = new long[games.length];
+        for (int game = 0; game < games.length; game++) {
+            GameState gs = new GameState();
+            List<Move> moves = new ArrayList<>();
+            for (String uci : games[game]) {
+                int move = TestGames.find(gs, uci);
+                moves.add(PackedMove.toMove(move));
+                gs.makeMove(move);
+            }
+            keys[game] = gs.getZobristKey();
+            entries.add(new GameArchive.Entry(Map.of("Result", RESULTS[game]), new GameState(), moves));
+        }
+        assertEqual("Same key", keys[0], keys[1]);
+        assertEqual("Capturable en passant target kept", false, keys[2] == keys[3]);
+
+        try (GameArchive archive = GameArchive.open(archiveFile)) {
+            archive.append(entries);
+            PositionIndex.build(archive, indexFile);
+        }
+        try (PositionIndex index = PositionIndex.open(indexFile)) {
+            PositionIndex.Result found = index.find(keys[1]);
+            assertEqual("Both move orders", List.of(new PositionIndex.Hit(0, 3), new PositionIndex.Hit(1, 3)),
+                    found.hits());
+            assertEqual("White wins", 1, found.whiteWins());
+            assertEqual("Black wins", 1, found.blackWins());
+            assertEqual("Only its own game", List.of(new PositionIndex.Hit(2, 5)), index.find(keys[2]).hits());
+        }
+        passed("Transposed move orders");
+    }
+
+    private static void testEmptyArchive() throws Exception {
+        System.out.println("TEST: Empty archive");
+        Path archiveFile = tempFile(".zca");
+        Path indexFile = tempFile(".zcpi");
+        try (GameArchive archive = GameArchive.open(archiveFile)) {
+            PositionIndex.build(archive, indexFile);
+        }
+        try (PositionIndex index = PositionIndex.open(indexFile)) {
+            assertEqual("No postings", 0L, index.size());
+            assertEqual("No hits", 0, index.find(new GameState()).hits().size());
+        }
+        passed("Empty archive");
+    }
+
+    // =====================================================
+    // Helpers
+    // =====================================================
+
+    private static Path tempFile(String suffix) throws IOException {
+        Path file = Files.createTempFile("test_index", suffix);
+        Files.delete(file);
+        file.toFile().deleteOnExit();
+        return file;
+    }
+
+    private static int indexOf(String result) {
+        for (int i = 0; i < RESULTS.length; i++) {
+            if (RESULTS[i].equals(result))
+                return i;
+        }
+        return -1;
+    }
+
+    private static void assertEqual(String testName, Object expected, Object actual) {
+        testsRun++;
+        if (expected.equals(actual)) {
+            testsPassed++;
+        } else {
+            testsFailed++;
+            System.out.println("  FAIL: " + testName + " - Expected: " + expected + ", Got: " + actual);
+        }
+    }
+
+    private static void passed(String testName) {
+        System.out.println("  ✓ " + testName + " passed\n");
+    }
+}
@@ -1,19 +1,30 @@
 package com.jeremyzay.zaychess.tests;
 
 import com.jeremyzay.zaychess.controller.game.GameController;
+import com.jeremyzay.zaychess.controller.saveload.AutosaveJournal;
 import com.jeremyzay.zaychess.controller.saveload.SaveManager;
 import com.jeremyzay.zaychess.model.game.GameState;
 import com.jeremyzay.zaychess.model.move.Move;
+import com.jeremyzay.zaychess.model.move.MoveGenerator;
+import com.jeremyzay.zaychess.model.move.MoveList;
+import com.jeremyzay.zaychess.model.move.PackedMove;
 import com.jeremyzay.zaychess.model.move.MoveType;
 import com.jeremyzay.zaychess.model.move.PromotionPiece;
 import com.jeremyzay.zaychess.model.util.Position;
 import com.jeremyzay.zaychess.model.util.PlayerColor;
+import com.jeremyzay.zaychess.services.application.notation.NotationSAN;
+import com.jeremyzay.zaychess.services.application.archive.GameArchive;
+import com.jeremyzay.zaychess.services.application.history.MoveHistoryTree;
 import com.jeremyzay.zaychess.services.infrastructure.network.UciCodec;
 
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Random;
 
 /**
  * Comprehensive test suite for the UCI save/load system.
@@ -38,6 +49,10 @@ public class SaveManagerTest {
         testCheckStateSaveLoad();
         testCheckmateUndoSaveLoad();
         testUciCodecConversions();
+        testPgnSaveLoad();
+        testBinarySaveLoad();
+        testArchiveSaveLoad();
+        testBulkLoad();
 
         System.out.println("\n=== Test Results ===");
         System.out.println("Total: " + testsRun);
@@ -322,6 +337,199 @@ public class SaveManagerTest {
         passed("UCI Codec Conversions");
     }
 
+    private static void testPgnSaveLoad() throws Exception {
+        System.out.println("TEST: PGN Save/Load");
+
+        GameController controller = new GameController(new GameState(), null);
+        GameState gs = controller.getGameState();
+
+        // Scholar's mate
+        playMove(controller, gs, 6, 4, 4, 4, MoveType.NORMAL); // e4
+        playMove(controller, gs, 1, 4, 3, 4, MoveType.NORMAL); // e5
+        playMove(controller, gs, 7, 5, 4, 2, MoveType.NORMAL); // Bc4
+        playMove(controller, gs, 0, 1, 2, 2, MoveType.NORMAL); // Nc6
+        playMove(controller, gs, 7, 3, 3, 7, MoveType.NORMAL); // Qh5
+        playMove(controller, gs, 0, 6, 2, 5, MoveType.NORMAL); // Nf6
+        playMove(controller, gs, 3, 7, 1, 5, MoveType.CAPTURE); // Qxf7#
+
+        File tempFile = File.createTempFile("test_pgn", ".pgn");
+        tempFile.deleteOnExit();
+        new SaveManager(controller).saveGame(tempFile);
+
+        String pgn = Files.readString(tempFile.toPath());
+        assertEqual("Result tag", true, pgn.contains("[Result \"1-0\"]"));
+        assertEqual("Movetext", true,
+                pgn.contains("1. e4 e5 2. Bc4 Nc6 3. Qh5 Nf6 4. Qxf7# 1-0"));
+
+        GameController controller2 = new GameController(new GameState(), null);
+        new SaveManager(controller2).loadGame(tempFile);
+        GameState gs2 = controller2.getGameState();
+
+        assertEqual("History size", 7, controller2.getHistory().getMoves().size());
+        assertEqual("Wire log", "h5f7", controller2.getWireLog().get(6));
+        assertEqual("Checkmate after load", true, gs2.isGameOver());
+        assertEqual("Winner", PlayerColor.WHITE, gs2.getWinner());
+
+        passed("PGN Save/Load");
+    }
+
+    private static void testBinarySaveLoad() throws Exception {
+        System.out.println("TEST: Binary Save/Load");
+
+        GameController controller = new GameController(new GameState(), null);
+        GameState gs = controller.getGameState();
+
+        playMove(controller, gs, 6, 4, 4, 4, MoveType.NORMAL); // e4
+        playMove(controller, gs, 1, 3, 3, 3, MoveType.NORMAL); // d5
+        playMove(controller, gs, 4, 4, 3, 3, MoveType.CAPTURE); // exd5
+        playMove(controller, gs, 1, 2, 3, 2, MoveType.NORMAL); // c5
+        playMove(controller, gs, 3, 3, 2, 2, MoveType.EN_PASSANT); // dxc6 e.p.
+
+        File tempFile = File.createTempFile("test_binary", ".chessbin");
+        tempFile.deleteOnExit();
+        new SaveManager(controller).saveGame(tempFile);
+
+        // header, ply count, one byte per ply, final hash, CRC
+        assertEqual("File size", 5L + 4 + 5 + 8 + 4, tempFile.length());
+
+        GameController controller2 = new GameController(new GameState(), null);
+        new SaveManager(controller2).loadGame(tempFile);
+        GameState gs2 = controller2.getGameState();
+
+        assertEqual("History size", 5, controller2.getHistory().getMoves().size());
+        assertEqual("En passant type", MoveType.EN_PASSANT,
+                controller2.getHistory().getMoves().get(4).getMoveType());
+        assertEqual("Same position", gs.getZobristKey(), gs2.getZobristKey());
+
+        passed("Binary Save/Load");
+    }
+
+    private static void testArchiveSaveLoad() throws Exception {
+        System.out.println("TEST: Archive Save/Load");
+
+        File tempFile = File.createTempFile("test_archive", ".zca");
+        tempFile.delete();
+        tempFile.deleteOnExit();
+
+        try (GameArchive archive = GameArchive.open(tempFile.toPath())) {
+            GameController first = new GameController(new GameState(), null);
+            playMove(first, first.getGameState(), 6, 3, 4, 3, MoveType.NORMAL); // d4
+            assertEqual("First index", 0, new SaveManager(first).saveGame(archive, Map.of("White", "A")));
+
+            GameController second = new GameController(new GameState(), null);
+            playMove(second, second.getGameState(), 6, 4, 4, 4, MoveType.NORMAL); // e4
+            playMove(second, second.getGameState(), 1, 4, 3, 4, MoveType.NORMAL); // e5
+            assertEqual("Second index", 1, new SaveManager(second).saveGame(archive, Map.of("White", "B")));
+        }
+
+        try (GameArchive archive = GameArchive.open(tempFile.toPath())) {
+            assertEqual("Archived games", 2, archive.count());
+            assertEqual("Header tag", "B", archive.header(1).tag("White"));
+
+            GameController controller = new GameController(new GameState(), null);
+            new SaveManager(controller).loadGame(archive, 1);
+            assertEqual("History size", 2, controller.getHistory().getMoves().size());
+            assertEqual("Turn after load", PlayerColor.WHITE, controller.getGameState().getTurn());
+            assertNotNull("e5 has piece", controller.getGameState().getBoard().getPieceAt(3, 4));
+        }
+
+        passed("Archive Save/Load");
+    }
+
+    private static void testBulkLoad() throws Exception {
+        System.out.println("TEST: Bulk load off the EDT");
+
+        // a long game, saved as UCI text so move types must be inferred
+        GameController controller = new GameController(new GameState(), null);
+        GameState gs = controller.getGameState();
+        Random rnd = new Random(20240925L);
+        MoveList legal = new MoveList();
+        List<String> expectedSan = new ArrayList<>();
+        int expectedCaptures = 0;
+        for (int ply = 0; ply < 200 && !gs.isGameOver(); ply++) {
+            legal.clear();
+            MoveGenerator.generateAllLegalMovesInTurn(gs, legal);
+            int packed = legal.get(rnd.nextInt(legal.size()));
+            if (PackedMove.type(packed) == MoveType.PROMOTION)
+                packed = PackedMove.withPromotion(packed, PromotionPiece.QUEEN);
+            Move m = PackedMove.toMove(packed);
+            expectedSan.add(NotationSAN.toSAN(gs, m));
+            if (gs.getBoard().getPieceAt(PackedMove.to(packed)) != null || m.getMoveType() == MoveType.EN_PASSANT)
+                expectedCaptures++;
+            controller.getHistory().record(gs, m);
+            gs.applyMove(m);
+        }
+
+        File tempFile = File.createTempFile("test_bulk", ".txt");
+        tempFile.deleteOnExit();
+        new SaveManager(controller).saveGame(tempFile);
+
+        // replay on another thread; the target controller stays untouched
+        GameController controller2 = new GameController(new GameState(), null);
+        Path journalDir = Files.createTempDirectory("test_bulk_journal");
+        journalDir.toFile().deleteOnExit();
+        controller2.setJournal(AutosaveJournal.create(journalDir));
+        SaveManager.LoadedGame[] loaded = new SaveManager.LoadedGame[1];
+        Exception[] error = new Exception[1];
+        long start = System.nanoTime();
+        Thread worker = new Thread(() -> {
+            try {
+                loaded[0] = SaveManager.prepareLoad(tempFile);
+            } catch (Exception e) {
+                error[0] = e;
+            }
+        });
+        worker.start();
+        worker.join();
+        long prepareNanos = System.nanoTime() - start;
+        assertNull("No load error", error[0]);
+        assertEqual("Untouched before publish", 0, controller2.getHistory().getPly());
+
+        start = System.nanoTime();
+        new SaveManager(controller2).publish(loaded[0]);
+        long publishNanos = System.nanoTime() - start;
+
+        GameState gs2 = controller2.getGameState();
+        int captures = 0;
+        for (Object piece : loaded[0].captures())
+            if (piece != null)
+                captures++;
+        assertEqual("History size", expectedSan.size(), controller2.getHistory().getPly());
+        assertEqual("Move list", expectedSan, controller2.moveLog);
+        assertEqual("Captures", expectedCaptures, captures);
+        assertEqual("Wire log", Files.readAllLines(tempFile.toPath()), controller2.getWireLog());
+        assertEqual("Same position", gs.getZobristKey(), gs2.getZobristKey());
+
+        // journaled as a reset and the line, in one batch
+        AutosaveJournal journal = controller2.getJournal();
+        journal.flush();
+        assertEqual("Journal length", 4L + 12L * (expectedSan.size() + 1), Files.size(journal.getFile()));
+        AutosaveJournal.Recovered recovered = AutosaveJournal.recover(journal.getFile());
+        assertEqual("Journaled line", expectedSan.size(), recovered.ply());
+        controller2.setJournal(null);
+
+        // scrub back and forth; the move list follows without replaying
+        controller2.seekToPly(30);
+        assertEqual("Move list after seeking back", expectedSan.subList(0, 30), controller2.moveLog);
+        controller2.seekToPly(expectedSan.size());
+        assertEqual("Move list after seeking forward", expectedSan, controller2.moveLog);
+        assertEqual("Same position after seeking", gs.getZobristKey(), gs2.getZobristKey());
+        controller2.seekToPly(0);
+        assertEqual("Back at the start", new GameState().getZobristKey(), gs2.getZobristKey());
+
+        // the variation tree keeps the loaded records as one line
+        GameController controller3 = new GameController(new GameState(), new MoveHistoryTree());
+        new SaveManager(controller3).publish(SaveManager.prepareLoad(tempFile));
+        controller3.seekToPly(45);
+        assertEqual("Tree line", expectedSan.subList(0, 45), controller3.moveLog);
+        controller3.seekToPly(expectedSan.size());
+        assertEqual("Same position in the tree", gs.getZobristKey(), controller3.getGameState().getZobristKey());
+
+        System.out.println("  " + expectedSan.size() + " plies: replay " + prepareNanos / 1000
+                + " us off the EDT, publish " + publishNanos / 1000 + " us");
+        passed("Bulk load off the EDT");
+    }
+
     // =====================================================
     // Helper Methods
     // =====================================================
@@ -0,0 +1,84 @@
+package com.jeremyzay.zaychess.tests;
+
+import com.jeremyzay.zaychess.model.game.GameState;
+import com.jeremyzay.zaychess.model.move.Move;
+import com.jeremyzay.zaychess.model.move.MoveGenerator;
+import com.jeremyzay.zaychess.model.move.MoveList;
+import com.jeremyzay.zaychess.model.move.MoveType;
+import com.jeremyzay.zaychess.model.move.PackedMove;
+import com.jeremyzay.zaychess.model.move.PromotionPiece;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Game fixtures shared by the tests: seeded random games, moves by UCI
+ * squares, and packed move lists for comparing games.
+ */
+final class TestGames {
+
+    private TestGames() {
+    }
+
+    /** @return the moves of a seeded random game from the start position */
+    static List<Move> randomGame(Random rnd, int maxPlies) {
+        return randomGame(new GameState(), rnd, maxPlies);
+    }
+
+    /**
+     * Plays a seeded random game on {@code state}, promoting to a random
+     * piece.
+     *
+     * @return the moves played, at most {@code maxPlies}
+     */
+    static List<Move> randomGame(GameState state, Random rnd, int maxPlies) {
+        return randomGame(state, rnd, maxPlies, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Like {@link #randomGame(GameState, Random, int)}, but only picks
+     * among the first {@code choices} generated moves of each position,
+     * so that games share and transpose into each other's positions.
+     */
+    static List<Move> randomGame(GameState state, Random rnd, int maxPlies, int choices) {
+        List<Move> moves = new ArrayList<>();
+        MoveList legal = new MoveList();
+        for (int ply = 0; ply < maxPlies && !state.isGameOver(); ply++) {
+            legal.clear();
+            MoveGenerator.generateAllLegalMovesInTurn(state, legal);
+            int move = legal.get(rnd.nextInt(Math.min(legal.size(), choices)));
+            if (PackedMove.type(move) == MoveType.PROMOTION)
+                move = PackedMove.withPromotion(move,
+                        PromotionPiece.values()[rnd.nextInt(PromotionPiece.values().length)]);
+            moves.add(PackedMove.toMove(move));
+            state.makeMove(move);
+        }
+        return moves;
+    }
+
+    /** @return the legal move of {@code gs} with the given UCI squares */
+    static int find(GameState gs, String uci) {
+        MoveList legal = new MoveList();
+        MoveGenerator.generateAllLegalMovesInTurn(gs, legal);
+        int from = square(uci.substring(0, 2)), to = square(uci.substring(2, 4));
+        for (int i = 0; i < legal.size(); i++) {
+            if (PackedMove.from(legal.get(i)) == from && PackedMove.to(legal.get(i)) == to)
+                return legal.get(i);
+        }
+        throw new IllegalArgumentException(uci);
+    }
+
+    /** @return the square index of a square name such as "e4" */
+    static int square(String s) {
+        return ('8' - s.charAt(1)) * 8 + (s.charAt(0) - 'a');
+    }
+
+    /** @return the moves in packed form, for comparing move lists */
+    static List<Integer> packed(List<Move> moves) {
+        List<Integer> out = new ArrayList<>(moves.size());
+        for (Move m : moves)
+            out.add(PackedMove.fromMove(m));
+        return out;
+    }
+}
@@ -0,0 +1,86 @@
+package com.jeremyzay.zaychess.tests;
+
+import com.jeremyzay.zaychess.model.game.GameState;
+import com.jeremyzay.zaychess.model.game.UndoRecord;
+import com.jeremyzay.zaychess.services.application.notation.FenCodec;
+
+/**
+ * Tests for {@link GameState#getZobristKey()}.
+ * Checks that a position reached by moves and the same position loaded
+ * from its FEN get the same key and castling rights.
+ */
+public class ZobristKeyTest {
+
+    private static int testsRun = 0;
+    private static int testsPassed = 0;
+    private static int testsFailed = 0;
+
+    public static void main(String[] args) {
+        System.out.println("=== Zobrist Key Test ===\n");
+
+        testCapturedRook();
+        testMissingPieces();
+
+        System.out.println("\n=== Test Results ===");
+        System.out.println("Total: " + testsRun);
+        System.out.println("Passed: " + testsPassed);
+        System.out.println("Failed: " + testsFailed);
+
+        if (testsFailed > 0) {
+            System.exit(1);
+        }
+    }
+
+    // =====================================================
+    // Test Cases
+    // =====================================================
+
+    private static void testCapturedRook() {
+        System.out.println("TEST: Rook captured on its home square");
+        GameState played = FenCodec.fromFen("r3k2r/8/8/8/8/8/6b1/R3K2R b KQkq - 0 1");
+        UndoRecord undo = played.makeMove(TestGames.find(played, "g2h1")); // Bxh1
+
+        String fen = FenCodec.toPositionFen(played);
+        assertEqual("FEN after Bxh1", "r3k2r/8/8/8/8/8/8/R3K2b w Qkq -", fen);
+        GameState loaded = FenCodec.fromFen(fen);
+        assertEqual("Rights after Bxh1", 14, played.getSpecialMoveHandler().getCastlingRights(played.getBoard()));
+        assertEqual("Same key as FEN", loaded.getZobristKey(), played.getZobristKey());
+        assertEqual("Same castling flags as FEN", loaded.getSpecialMoveHandler().getCastlingFlags(),
+                played.getSpecialMoveHandler().getCastlingFlags());
+
+        played.unmakeMove(undo);
+        assertEqual("Rights restored by unmake", 15,
+                played.getSpecialMoveHandler().getCastlingRights(played.getBoard()));
+        passed("Rook captured on its home square");
+    }
+
+    private static void testMissingPieces() {
+        System.out.println("TEST: Castling field naming missing pieces");
+        GameState claimed = FenCodec.fromFen("4k3/8/8/8/8/8/8/4K2R w KQkq - 0 1");
+        GameState actual = FenCodec.fromFen("4k3/8/8/8/8/8/8/4K2R w K - 0 1");
+        assertEqual("Rights limited to pieces at home", 1,
+                claimed.getSpecialMoveHandler().getCastlingRights(claimed.getBoard()));
+        assertEqual("Same key", actual.getZobristKey(), claimed.getZobristKey());
+        assertEqual("Same castling flags", actual.getSpecialMoveHandler().getCastlingFlags(),
+                claimed.getSpecialMoveHandler().getCastlingFlags());
+        passed("Castling field naming missing pieces");
+    }
+
+    // =====================================================
+    // Helpers
+    // =====================================================
+
+    private static void assertEqual(String testName, Object expected, Object actual) {
+        testsRun++;
+        if (expected.equals(actual)) {
+            testsPassed++;
+        } else {
+            testsFailed++;
+            System.out.println("  FAIL: " + testName + " - Expected: " + expected + ", Got: " + actual);
+        }
+    }
+
+    private static void passed(String testName) {
+        System.out.println("  ✓ " + testName + " passed\n");
+    }
+}
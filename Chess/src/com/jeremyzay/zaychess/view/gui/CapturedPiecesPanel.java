@@ -76,6 +76,20 @@ public class CapturedPiecesPanel extends JPanel {
         repaint();
     }
 
+    /** Add several captured pieces with a single repaint; null entries are skipped. */
+    public void addCapturedPieces(List<Piece> pieces) {
+        for (Piece piece : pieces) {
+            if (piece == null || piece instanceof King)
+                continue;
+            if (piece.getColor() == PlayerColor.WHITE) {
+                whiteCaptured.add(piece);
+            } else {
+                blackCaptured.add(piece);
+            }
+        }
+        repaint();
+    }
+
     /** Remove the last captured piece of a given color (for undo). */
     public void undoCapture(Piece piece) {
         if (piece == null)
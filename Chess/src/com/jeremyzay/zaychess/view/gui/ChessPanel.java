@@ -11,6 +11,8 @@ import com.jeremyzay.zaychess.controller.game.GameController;
 import com.jeremyzay.zaychess.controller.input.MouseInputHandler;
 import com.jeremyzay.zaychess.controller.saveload.SaveManager;
 import com.jeremyzay.zaychess.model.board.Board;
+import com.jeremyzay.zaychess.services.application.history.MoveHistoryTree;
+import com.jeremyzay.zaychess.services.infrastructure.network.UciCodec;
 
 public class ChessPanel extends JPanel {
     private final BoardPanel boardPanel;
@@ -59,6 +61,7 @@ public class ChessPanel extends JPanel {
         movesToggle.addActionListener(e -> toggleMovesPanel());
         topBar.add(movesToggle);
 
+        moveListPanel.setLineClickHandler(null); // the panel is shared with earlier games
         if (!controller.isOnline()) {
             ZayButton undoButton = new ZayButton("←");
             undoButton.setPreferredSize(new Dimension(50, 40));
@@ -75,6 +78,24 @@ public class ChessPanel extends JPanel {
                 boardPanel.repaint();
             });
             topBar.add(redoButton);
+
+            // clicking a move line jumps to the position after it
+            moveListPanel.setLineClickHandler((ply, e) -> {
+                if (SwingUtilities.isRightMouseButton(e) && controller.getHistory() instanceof MoveHistoryTree tree) {
+                    showVariations(controller, tree.getLineNode(ply), e);
+                    return;
+                }
+                controller.seekToPly(ply);
+                boardPanel.repaint();
+            });
+
+            if (controller.getHistory() instanceof MoveHistoryTree) {
+                ZayButton variationButton = new ZayButton("⑂");
+                variationButton.setPreferredSize(new Dimension(50, 40));
+                variationButton.setToolTipText("Next variation to redo");
+                variationButton.addActionListener(e -> controller.nextVariation());
+                topBar.add(variationButton);
+            }
         }
 
         if (!controller.isOnline()) {
@@ -120,6 +141,27 @@ public class ChessPanel extends JPanel {
         add(statusPanel, BorderLayout.SOUTH);
     }
 
+    /**
+     * Shows the moves played instead of {@code node}'s move, each jumping to
+     * its variation when picked.
+     */
+    private void showVariations(GameController controller, MoveHistoryTree.Node node, java.awt.event.MouseEvent e) {
+        java.util.List<MoveHistoryTree.Node> variations = node.getParent().getChildren();
+        if (variations.size() < 2)
+            return;
+        JPopupMenu menu = new JPopupMenu();
+        for (MoveHistoryTree.Node variation : variations) {
+            JMenuItem item = new JMenuItem(UciCodec.toUci(variation.getMove()));
+            item.setEnabled(variation != node);
+            item.addActionListener(a -> {
+                controller.goToNode(variation);
+                boardPanel.repaint();
+            });
+            menu.add(item);
+        }
+        menu.show(e.getComponent(), e.getX(), e.getY());
+    }
+
     private void handleSave(GameController controller) {
         java.awt.FileDialog fd = new java.awt.FileDialog(MainFrame.getInstance(), "Save Game",
                 java.awt.FileDialog.SAVE);
@@ -132,7 +174,8 @@ public class ChessPanel extends JPanel {
             return;
 
         String path = fd.getDirectory() + fileName;
-        if (!path.toLowerCase().endsWith(".chesslog"))
+        String lower = path.toLowerCase();
+        if (!lower.endsWith(".chesslog") && !lower.endsWith(".pgn") && !lower.endsWith(".chessbin"))
             path += ".chesslog";
         File finalFile = new File(path);
 
@@ -3,7 +3,8 @@ package com.jeremyzay.zaychess.view.gui;
 import javax.swing.*;
 import java.awt.*;
 import com.jeremyzay.zaychess.model.util.PlayerColor;
-import com.jeremyzay.zaychess.model.pieces.King;
+import com.jeremyzay.zaychess.model.pieces.Piece;
+import com.jeremyzay.zaychess.model.pieces.PieceType;
 
 /**
  * Inline overlay shown when the game ends.
@@ -112,7 +113,7 @@ public class GameOverDialog extends OverlayPanel {
 
         // Winner icon
         if (winner != null) {
-            King dummyKing = new King(winner, null);
+            Piece dummyKing = Piece.of(winner, PieceType.KING);
             Icon icon = ResourceLoader.getPieceIcon(dummyKing, 80);
             JLabel iconLabel = new JLabel(icon);
             iconLabel.setAlignmentX(Component.CENTER_ALIGNMENT);
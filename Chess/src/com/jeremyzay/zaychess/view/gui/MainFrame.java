@@ -5,10 +5,13 @@ import java.awt.*;
 
 import com.jeremyzay.zaychess.controller.game.GameController;
 import com.jeremyzay.zaychess.controller.game.GameLauncher;
+import com.jeremyzay.zaychess.controller.saveload.AutosaveJournal;
 import com.jeremyzay.zaychess.controller.saveload.SaveManager;
 import com.jeremyzay.zaychess.model.game.GameState;
 import com.jeremyzay.zaychess.model.util.PlayerColor;
-import com.jeremyzay.zaychess.model.pieces.King;
+import com.jeremyzay.zaychess.model.pieces.Piece;
+import com.jeremyzay.zaychess.model.pieces.PieceType;
+import com.jeremyzay.zaychess.services.application.history.MoveHistoryTree;
 import com.jeremyzay.zaychess.services.application.notation.FenGenerator;
 
 public class MainFrame extends JFrame {
@@ -36,7 +39,7 @@ public class MainFrame extends JFrame {
         // Init state
         gameState = new GameState();
         try {
-            controller = new GameController(gameState, null);
+            controller = new GameController(gameState, new MoveHistoryTree());
         } catch (Exception e) {
             throw new RuntimeException(e);
         }
@@ -50,6 +53,7 @@ public class MainFrame extends JFrame {
         setMinimumSize(new Dimension(500, 400));
         setLocationRelativeTo(null);
         showMenu();
+        offerRecovery();
     }
 
     public static MainFrame getInstance() {
@@ -96,21 +100,30 @@ public class MainFrame extends JFrame {
                     System.out.println("[DEBUG] Stopping engine/network in background...");
                     controller.detachNetwork();
                     controller.stopEngine();
+                    controller.setJournal(null); // abandoned game: nothing to recover
                     System.out.println("[DEBUG] Engine/network stopped.");
                 }
             } catch (Throwable t) {
                 System.err.println("Error during game session reset cleanup:");
                 t.printStackTrace();
             }
+            AutosaveJournal journal = null;
+            try {
+                journal = AutosaveJournal.create(AutosaveJournal.defaultDirectory());
+            } catch (java.io.IOException e) {
+                e.printStackTrace(); // play on without crash recovery
+            }
+            AutosaveJournal newJournal = journal;
 
             SwingUtilities.invokeLater(() -> {
                 System.out.println("[DEBUG] Finishing reset on EDT...");
                 gameState.restoreFrom(new GameState());
                 try {
-                    controller = new GameController(gameState, null);
+                    controller = new GameController(gameState, new MoveHistoryTree());
                 } catch (Exception e) {
                     throw new RuntimeException(e);
                 }
+                controller.setJournal(newJournal);
 
                 ChessPanel.getStatusPanel().setStatus("Ready");
                 ChessPanel.getMoveListPanel().clearMoves();
@@ -135,6 +148,95 @@ public class MainFrame extends JFrame {
         });
     }
 
+    /**
+     * Looks for games left unfinished by a crash or an exit mid-game and
+     * offers to resume them, most recent first, in the mode they were
+     * played in. Journals are read in the background; games that had
+     * ended or had no moves are deleted without asking, and so is each
+     * game the user declines. Journals of games still open in another
+     * instance are left alone.
+     */
+    private void offerRecovery() {
+        new Thread(() -> {
+            java.util.List<AutosaveJournal.Recovered> found = new java.util.ArrayList<>();
+            try {
+                for (java.nio.file.Path file : AutosaveJournal.findUnfinished(AutosaveJournal.defaultDirectory())) {
+                    AutosaveJournal.Recovered game = null;
+                    try {
+                        game = AutosaveJournal.recover(file);
+                    } catch (java.io.IOException e) {
+                        e.printStackTrace();
+                    }
+                    if (game != null && !game.moves().isEmpty() && !game.gameOver())
+                        found.add(game);
+                    else
+                        AutosaveJournal.discard(file);
+                }
+            } catch (java.io.IOException e) {
+                e.printStackTrace();
+            }
+            if (!found.isEmpty())
+                SwingUtilities.invokeLater(() -> offerRecovery(found, 0));
+        }, "journal-recovery").start();
+    }
+
+    /** Asks whether to resume {@code games[index]}, then offers the next one if declined. */
+    private void offerRecovery(java.util.List<AutosaveJournal.Recovered> games, int index) {
+        if (index == games.size())
+            return;
+        AutosaveJournal.Recovered game = games.get(index);
+        String against = game.humanSide() == null ? "vs Human"
+                : "vs AI level " + game.difficulty() + ", playing "
+                        + (game.humanSide() == PlayerColor.WHITE ? "White" : "Black");
+        String of = games.size() > 1 ? " " + (index + 1) + " of " + games.size() : "";
+        int choice = JOptionPane.showConfirmDialog(this,
+                "An unfinished game" + of + " (" + game.ply() + " moves, " + against + ") was found. Resume it?",
+                "Resume Game", JOptionPane.YES_NO_OPTION);
+        if (choice == JOptionPane.YES_OPTION) {
+            resetGameSessionAsync(() -> resumeGame(game));
+        } else {
+            discardJournalAsync(game.file());
+            offerRecovery(games, index + 1);
+        }
+    }
+
+    /**
+     * Resumes a recovered game in the mode it was played in, starting the
+     * engine first for games against it.
+     */
+    private void resumeGame(AutosaveJournal.Recovered game) {
+        if (game.humanSide() == null) {
+            GameLauncher.launch(gameState, controller);
+            new SaveManager(controller).loadGame(game);
+            discardJournalAsync(game.file());
+            return;
+        }
+        controller.setEngineDifficulty(game.difficulty());
+        showLoadingOverlay("Initializing AI...", () -> {
+            controller.stopEngine();
+        }, () -> {
+            controller.setEngine();
+        }, () -> {
+            if (controller.isUsingEngine()) {
+                GameLauncher.launch(gameState, controller);
+                new SaveManager(controller).loadGame(game);
+                controller.syncEnginePosition(FenGenerator.toFen(gameState));
+                controller.startEngineGame(game.humanSide());
+                discardJournalAsync(game.file());
+            }
+        });
+    }
+
+    private static void discardJournalAsync(java.nio.file.Path file) {
+        new Thread(() -> {
+            try {
+                AutosaveJournal.discard(file);
+            } catch (java.io.IOException e) {
+                e.printStackTrace();
+            }
+        }, "journal-discard").start();
+    }
+
     public void switchToGame(JPanel gamePanel) {
         mainPanel.add(gamePanel, VIEW_GAME);
         showView(VIEW_GAME);
@@ -256,8 +358,8 @@ public class MainFrame extends JFrame {
                 JPanel buttonPanel = new JPanel(new GridLayout(1, 2, 20, 0));
                 buttonPanel.setOpaque(false);
 
-                King whiteKing = new King(PlayerColor.WHITE, null);
-                King blackKing = new King(PlayerColor.BLACK, null);
+                Piece whiteKing = Piece.of(PlayerColor.WHITE, PieceType.KING);
+                Piece blackKing = Piece.of(PlayerColor.BLACK, PieceType.KING);
                 int iconSize = 80;
 
                 JButton whiteBtn = createOverlayButton("White");
@@ -388,7 +490,8 @@ public class MainFrame extends JFrame {
     public void loadLocalGame() {
         FileDialog fd = new FileDialog(this, "Load Game", FileDialog.LOAD);
         fd.setDirectory(System.getProperty("user.home") + "/Downloads");
-        fd.setFilenameFilter((dir, name) -> name.toLowerCase().endsWith(".chesslog"));
+        fd.setFilenameFilter((dir, name) -> name.toLowerCase().endsWith(".chesslog")
+                || name.toLowerCase().endsWith(".pgn") || name.toLowerCase().endsWith(".chessbin"));
         fd.setVisible(true);
 
         String fileName = fd.getFile();
@@ -419,13 +522,8 @@ public class MainFrame extends JFrame {
                 humanBtn.addActionListener(e -> {
                     hideOverlay();
                     resetGameSessionAsync(() -> {
-                        try {
-                            GameLauncher.launch(gameState, controller);
-                            new SaveManager(controller).loadGame(selectedFile);
-                        } catch (Exception ex) {
-                            JOptionPane.showMessageDialog(MainFrame.this,
-                                    "Error loading: " + ex.getMessage());
-                        }
+                        GameLauncher.launch(gameState, controller);
+                        loadGameAsync(selectedFile, null);
                     });
                 });
 
@@ -467,16 +565,41 @@ public class MainFrame extends JFrame {
     }
 
     private void finishLoadVsAI(java.io.File file, PlayerColor humanSide) {
-        try {
-            GameLauncher.launch(gameState, controller);
-            new SaveManager(controller).loadGame(file);
-
+        GameLauncher.launch(gameState, controller);
+        loadGameAsync(file, () -> {
             String fen = FenGenerator.toFen(gameState);
             controller.syncEnginePosition(fen);
             controller.startEngineGame(humanSide);
-        } catch (Exception ex) {
-            JOptionPane.showMessageDialog(this, "Error loading: " + ex.getMessage());
-        }
+        });
+    }
+
+    /**
+     * Reads and replays a saved game in the background behind a loading
+     * overlay, then shows it on the board, move list and captured pieces
+     * panel in one update, and runs {@code onLoaded}.
+     *
+     * @param file     the saved game
+     * @param onLoaded optional callback on the EDT once the game is shown
+     */
+    private void loadGameAsync(java.io.File file, Runnable onLoaded) {
+        SaveManager saveManager = new SaveManager(controller);
+        java.util.concurrent.atomic.AtomicReference<SaveManager.LoadedGame> loaded = new java.util.concurrent.atomic.AtomicReference<>();
+        java.util.concurrent.atomic.AtomicReference<Exception> error = new java.util.concurrent.atomic.AtomicReference<>();
+        showLoadingOverlay("Loading game...", null, () -> {
+            try {
+                loaded.set(SaveManager.prepareLoad(file));
+            } catch (Exception ex) {
+                error.set(ex);
+            }
+        }, () -> {
+            if (error.get() != null) {
+                JOptionPane.showMessageDialog(this, "Error loading: " + error.get().getMessage());
+                return;
+            }
+            saveManager.publish(loaded.get());
+            if (onLoaded != null)
+                onLoaded.run();
+        });
     }
 
     // --- Online Matchmaking ---
@@ -8,7 +8,6 @@ import javax.swing.*;
 
 import com.jeremyzay.zaychess.model.pieces.*;
 import com.jeremyzay.zaychess.model.util.PlayerColor;
-import com.jeremyzay.zaychess.model.util.Position;
 import com.jeremyzay.zaychess.view.gui.theme.BoardTheme;
 import com.jeremyzay.zaychess.view.gui.swing.ZayButton;
 
@@ -162,14 +161,14 @@ public class MainMenuPanel extends JPanel {
 
     private void initMenuPieces() {
         PlayerColor color = PlayerColor.BLACK;
-        menuPieces.add(new MenuPiece(new Rook(color, new Position(0, 0)), 0));
-        menuPieces.add(new MenuPiece(new Knight(color, new Position(0, 1)), 1));
-        menuPieces.add(new MenuPiece(new Bishop(color, new Position(0, 2)), 2));
-        menuPieces.add(new MenuPiece(new Queen(color, new Position(0, 3)), 3));
-        menuPieces.add(new MenuPiece(new King(color, new Position(0, 4)), 4));
-        menuPieces.add(new MenuPiece(new Bishop(color, new Position(0, 5)), 5));
-        menuPieces.add(new MenuPiece(new Knight(color, new Position(0, 6)), 6));
-        menuPieces.add(new MenuPiece(new Rook(color, new Position(0, 7)), 7));
+        menuPieces.add(new MenuPiece(Piece.of(color, PieceType.ROOK), 0));
+        menuPieces.add(new MenuPiece(Piece.of(color, PieceType.KNIGHT), 1));
+        menuPieces.add(new MenuPiece(Piece.of(color, PieceType.BISHOP), 2));
+        menuPieces.add(new MenuPiece(Piece.of(color, PieceType.QUEEN), 3));
+        menuPieces.add(new MenuPiece(Piece.of(color, PieceType.KING), 4));
+        menuPieces.add(new MenuPiece(Piece.of(color, PieceType.BISHOP), 5));
+        menuPieces.add(new MenuPiece(Piece.of(color, PieceType.KNIGHT), 6));
+        menuPieces.add(new MenuPiece(Piece.of(color, PieceType.ROOK), 7));
     }
 
     private void initToyInteractivity() {
@@ -282,19 +281,7 @@ public class MainMenuPanel extends JPanel {
 
         void cycleColor() {
             PlayerColor next = (piece.getColor() == PlayerColor.BLACK) ? PlayerColor.WHITE : PlayerColor.BLACK;
-            Position pos = piece.getPos();
-            if (piece instanceof Rook)
-                piece = new Rook(next, pos);
-            else if (piece instanceof Knight)
-                piece = new Knight(next, pos);
-            else if (piece instanceof Bishop)
-                piece = new Bishop(next, pos);
-            else if (piece instanceof Queen)
-                piece = new Queen(next, pos);
-            else if (piece instanceof King)
-                piece = new King(next, pos);
-            else if (piece instanceof Pawn)
-                piece = new Pawn(next, pos);
+            piece = Piece.of(next, piece.getType());
         }
 
         Rectangle getBounds() {
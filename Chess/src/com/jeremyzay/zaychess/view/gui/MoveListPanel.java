@@ -3,11 +3,15 @@ package com.jeremyzay.zaychess.view.gui;
 import java.awt.*;
 import java.awt.event.ComponentAdapter;
 import java.awt.event.ComponentEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
 import javax.swing.*;
 
 /**
  * Panel that shows the chronological list of moves made in the game.
  * Supports dynamic resizing based on panel height to match CapturedPiecesPanel.
+ * Clicking a move line reports its ply to the handler set with
+ * {@link #setLineClickHandler}, e.g. to jump back to that position.
  */
 public class MoveListPanel extends JPanel {
 	private static final long serialVersionUID = 4252547406430916548L;
@@ -15,6 +19,7 @@ public class MoveListPanel extends JPanel {
 	private final JTextArea moveListArea;
 	private final Color bgColor = new Color(250, 250, 250);
 	private static final int MAX_ROWS = 18; // Match CapturedPiecesPanel for symmetry
+	private java.util.function.BiConsumer<Integer, MouseEvent> lineClickHandler;
 
 	public MoveListPanel() {
 		setLayout(new BorderLayout());
@@ -26,6 +31,23 @@ public class MoveListPanel extends JPanel {
 		moveListArea.setMargin(new Insets(6, 8, 6, 8));
 		moveListArea.setFont(new Font(Font.MONOSPACED, Font.PLAIN, 13));
 
+		moveListArea.addMouseListener(new MouseAdapter() {
+			@Override
+			public void mouseClicked(MouseEvent e) {
+				if (lineClickHandler == null)
+					return;
+				try {
+					int offset = moveListArea.viewToModel2D(e.getPoint());
+					int line = moveListArea.getLineOfOffset(offset);
+					// the text ends with a newline, so the last line is empty
+					if (line < moveListArea.getLineCount() - 1)
+						lineClickHandler.accept(line + 1, e);
+				} catch (javax.swing.text.BadLocationException ex) {
+					// click outside the text
+				}
+			}
+		});
+
 		JScrollPane scrollPane = new JScrollPane(moveListArea);
 		scrollPane.setBorder(null); // Optional: remove border to match look
 		add(scrollPane, BorderLayout.CENTER);
@@ -42,6 +64,16 @@ public class MoveListPanel extends JPanel {
 		});
 	}
 
+	/**
+	 * Sets what happens when a move line is clicked.
+	 *
+	 * @param handler receives the ply of the clicked line, from 1 for the
+	 *                first move, and the click; null to ignore clicks
+	 */
+	public void setLineClickHandler(java.util.function.BiConsumer<Integer, MouseEvent> handler) {
+		this.lineClickHandler = handler;
+	}
+
 	/** Append a new move line to the list. */
 	public void appendMove(String move) {
 		moveListArea.append(move + "\n");
@@ -50,6 +82,17 @@ public class MoveListPanel extends JPanel {
 		System.out.println(move);
 	}
 
+	/** Append several move lines with a single text update, e.g. after loading a game. */
+	public void appendMoves(java.util.List<String> moves) {
+		if (moves.isEmpty())
+			return;
+		StringBuilder sb = new StringBuilder();
+		for (String move : moves)
+			sb.append(move).append('\n');
+		moveListArea.append(sb.toString());
+		moveListArea.setCaretPosition(moveListArea.getDocument().getLength());
+	}
+
 	/** Remove a specific move string from the history and rebuild list. */
 	public void removeMove(java.util.List<String> moves, String move) {
 		clearMoves();
@@ -5,10 +5,7 @@ import java.awt.*;
 
 import com.jeremyzay.zaychess.model.move.PromotionPiece;
 import com.jeremyzay.zaychess.model.pieces.Piece;
-import com.jeremyzay.zaychess.model.pieces.Queen;
-import com.jeremyzay.zaychess.model.pieces.Rook;
-import com.jeremyzay.zaychess.model.pieces.Bishop;
-import com.jeremyzay.zaychess.model.pieces.Knight;
+import com.jeremyzay.zaychess.model.pieces.PieceType;
 import com.jeremyzay.zaychess.model.util.PlayerColor;
 import com.jeremyzay.zaychess.view.gui.swing.ZayButton;
 
@@ -61,10 +58,10 @@ public final class PromotionDialog extends OverlayPanel {
         for (PromotionPiece pp : promoTypes) {
             // Create a dummy piece to get the correct icon
             final Piece dummy = switch (pp) {
-                case QUEEN -> new Queen(color, null);
-                case ROOK -> new Rook(color, null);
-                case BISHOP -> new Bishop(color, null);
-                case KNIGHT -> new Knight(color, null);
+                case QUEEN -> Piece.of(color, PieceType.QUEEN);
+                case ROOK -> Piece.of(color, PieceType.ROOK);
+                case BISHOP -> Piece.of(color, PieceType.BISHOP);
+                case KNIGHT -> Piece.of(color, PieceType.KNIGHT);
             };
 
             // Use the same icon loader as the board (60px for 80px button)